@@ -0,0 +1,69 @@
+package com.trainer.name.benchmark;
+
+import com.trainer.name.count.TrainerCounter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+// 大量のトレーナーを生成してDBに投入するCLI
+// 例: ./gradlew generateTrainers -Pgenerator.count=1000000 -Pgenerator.seed=42 -Pgenerator.mode=load-data
+//     java ... com.trainer.name.benchmark.GenerateTrainers --count=10000000 --seed=42 --mode=batch
+public class GenerateTrainers {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        long count = Long.parseLong(options.getOrDefault("count", "1000000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        String mode = options.getOrDefault("mode", "load-data");
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size", mode.equals("batch") ? "5000" : "100000"));
+        String url = options.getOrDefault("url",
+                "jdbc:mysql://localhost:3306/trainer_list?allowLoadLocalInfile=true&rewriteBatchedStatements=true");
+
+        try (Connection connection = DriverManager.getConnection(url,
+                options.getOrDefault("user", "user"), options.getOrDefault("password", "password"))) {
+            connection.setAutoCommit(false);
+            if (Boolean.parseBoolean(options.getOrDefault("truncate", "false"))) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("TRUNCATE TABLE trainers");
+                    statement.execute("DELETE FROM trainer_counts WHERE name = '" + TrainerCounter.COUNTER_NAME + "'");
+                }
+            }
+            // 既存の行の後ろにidを続けて振る（--truncate=trueなら1から）
+            long startId = Long.parseLong(options.getOrDefault("start-id", String.valueOf(maxId(connection) + 1)));
+
+            TrainerDataLoader loader = new TrainerDataLoader(connection, new TrainerDataGenerator(seed), batchSize);
+            long start = System.nanoTime();
+            switch (mode) {
+                case "load-data" -> loader.loadDataInfile(startId, count);
+                case "batch" -> loader.batchInsert(startId, count);
+                default -> throw new IllegalArgumentException("modeにはload-dataかbatchを指定してください: " + mode);
+            }
+            System.out.printf("%,d 件を %.1f 秒で投入しました（seed=%d, id=%d〜）%n",
+                    count, (System.nanoTime() - start) / 1e9, seed, startId);
+        }
+    }
+
+    private static long maxId(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM trainers")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("オプションは --key=value の形式で指定してください: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
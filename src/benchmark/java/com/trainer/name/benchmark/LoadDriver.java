@@ -0,0 +1,201 @@
+package com.trainer.name.benchmark;
+
+import com.trainer.name.entity.Trainer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// 複数のクライアントから指定した比率で各エンドポイントにリクエストを送り、操作ごとのレイテンシを記録する
+public class LoadDriver {
+    // 1時間まで有効数字3桁でマイクロ秒単位のレイテンシを記録する
+    private static final long MAX_LATENCY_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    public enum Operation {
+        BY_ID("byId"), BY_EMAIL("email"), BY_NAME("name"), POST("post"), PATCH("patch");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        static Operation fromKey(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("不明な操作です: " + key);
+        }
+    }
+
+    private final LoadTestConfig config;
+    private final URI baseUri;
+    private final List<Trainer> trainers;
+    private final HttpClient httpClient;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong createdCount = new AtomicLong();
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    public LoadDriver(LoadTestConfig config, URI baseUri, List<Trainer> trainers) {
+        this.config = config;
+        this.baseUri = baseUri;
+        this.trainers = trainers;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.operations = config.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += config.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public Map<String, Object> run() throws InterruptedException {
+        // ウォームアップ中の計測値は捨てる
+        runFor(config.warmup());
+        histograms.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+
+        long start = System.nanoTime();
+        runFor(config.duration());
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        return summarize(elapsedSeconds);
+    }
+
+    private void runFor(Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(config.concurrency());
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < config.concurrency(); i++) {
+            workers.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    execute(pickOperation());
+                }
+            }));
+        }
+        executor.shutdown();
+        executor.awaitTermination(duration.toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+        workers.forEach(worker -> worker.cancel(true));
+    }
+
+    private Operation pickOperation() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(Operation operation) {
+        HttpRequest request = buildRequest(operation);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                errors.get(operation).increment();
+            }
+        } catch (IOException e) {
+            errors.get(operation).increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        histograms.get(operation).recordValue(Math.min(MAX_LATENCY_MICROS, (System.nanoTime() - start) / 1_000));
+    }
+
+    private HttpRequest buildRequest(Operation operation) {
+        Trainer trainer = trainers.get(ThreadLocalRandom.current().nextInt(trainers.size()));
+        return switch (operation) {
+            case BY_ID -> get("/trainers/" + trainer.id());
+            case BY_EMAIL -> get("/trainers?email=" + encode(trainer.email()));
+            case BY_NAME -> get("/trainers?name=" + encode(trainer.name()));
+            case POST -> {
+                long n = createdCount.incrementAndGet();
+                yield json("POST", "/trainers", "負荷" + runId + "-" + n, "load-" + runId + "-" + n + "@example.com");
+            }
+            // 同じ値で更新し、読み込み側のデータを変えずに更新処理の経路を計測する
+            case PATCH -> json("PATCH", "/trainers/" + trainer.id(), trainer.name(), trainer.email());
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, String name, String email) {
+        String body = "{\"name\":\"" + name + "\",\"email\":\"" + email + "\"}";
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private Map<String, Object> summarize(double elapsedSeconds) {
+        Map<String, Object> operationResults = new LinkedHashMap<>();
+        long totalCount = 0;
+        for (Operation operation : operations) {
+            Histogram histogram = histograms.get(operation);
+            totalCount += histogram.getTotalCount();
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", histogram.getValueAtPercentile(50));
+            latency.put("p99", histogram.getValueAtPercentile(99));
+            latency.put("p999", histogram.getValueAtPercentile(99.9));
+            latency.put("max", histogram.getMaxValue());
+            latency.put("mean", histogram.getMean());
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", histogram.getTotalCount());
+            result.put("errors", errors.get(operation).sum());
+            result.put("throughputPerSecond", histogram.getTotalCount() / elapsedSeconds);
+            result.put("latencyMicros", latency);
+            operationResults.put(operation.key(), result);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("elapsedSeconds", elapsedSeconds);
+        summary.put("throughputPerSecond", totalCount / elapsedSeconds);
+        summary.put("operations", operationResults);
+        return summary;
+    }
+}
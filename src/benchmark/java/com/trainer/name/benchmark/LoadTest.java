@@ -0,0 +1,157 @@
+package com.trainer.name.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.trainer.name.NameApplication;
+import com.trainer.name.count.TrainerCounter;
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.id.TrainerIdAllocator;
+import com.trainer.name.mapper.TrainerMapper;
+import com.trainer.name.util.EmailNormalizer;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// ローカルのDBに対してアプリを起動し、トレーナーを投入してから負荷をかける
+// 結果はコミット間で差分を取れるよう、設定と一緒にJSONで出力する
+public class LoadTest {
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        write(config, run(config));
+    }
+
+    // config.profile()のプロファイルでアプリを起動し、負荷をかけた結果を返す
+    static Map<String, Object> run(LoadTestConfig config) throws Exception {
+        List<String> applicationArgs = new ArrayList<>(List.of("--server.port=0"));
+        if (!config.profile().isEmpty()) {
+            applicationArgs.add("--spring.profiles.active=" + config.profile());
+        }
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(NameApplication.class, applicationArgs.toArray(String[]::new))) {
+            List<Trainer> trainers = seed(context, config.trainers());
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            return new LoadDriver(config, URI.create("http://localhost:" + port), trainers).run();
+        }
+    }
+
+    // 指定した件数に足りない分だけバッチで投入し、負荷をかける対象として全件を読み込む
+    static List<Trainer> seed(ConfigurableApplicationContext context, int count) throws SQLException {
+        TrainerMapper trainerMapper = context.getBeanProvider(TrainerMapper.class).getIfAvailable();
+        if (trainerMapper == null) {
+            // reactiveプロファイルにはMyBatisがないので、JDBCで直接投入する
+            return seedWithJdbc(context.getEnvironment(), count);
+        }
+        long existing = trainerMapper.countAll();
+        SqlSessionFactory sqlSessionFactory = context.getBean(SqlSessionFactory.class);
+        // idを割り当てる設定の場合は、採番済みのidでまとめてINSERTする
+        TrainerIdAllocator idAllocator = context.getBeanProvider(TrainerIdAllocator.class).getIfAvailable();
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            TrainerMapper batchMapper = session.getMapper(TrainerMapper.class);
+            for (long i = existing; i < count; i++) {
+                String name = "ベンチ" + i;
+                String email = "bench" + i + "@example.com";
+                if (idAllocator != null) {
+                    batchMapper.insertWithId(new Trainer(idAllocator.nextId(), name, email));
+                } else {
+                    batchMapper.insert(new Trainer(null, name, email));
+                }
+                if ((i + 1) % SEED_BATCH_SIZE == 0) {
+                    session.flushStatements();
+                    session.commit();
+                }
+            }
+            session.flushStatements();
+            session.commit();
+        }
+        // バッチのINSERTはTrainerCounterを通らないので、投入した後で件数を数え直しておく
+        if (existing < count) {
+            context.getBeanProvider(TrainerCounter.class).ifAvailable(TrainerCounter::reconcile);
+        }
+
+        List<Trainer> trainers = new ArrayList<>();
+        trainerMapper.scanAll(resultContext -> trainers.add(resultContext.getResultObject()));
+        return trainers;
+    }
+
+    static List<Trainer> seedWithJdbc(Environment environment, int count) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                environment.getRequiredProperty("spring.datasource.url"),
+                environment.getProperty("spring.datasource.username"),
+                environment.getProperty("spring.datasource.password"))) {
+            connection.setAutoCommit(false);
+            long existing;
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM trainers WHERE deleted_at IS NULL")) {
+                resultSet.next();
+                existing = resultSet.getLong(1);
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO trainers (name, email, email_normalized) VALUES (?, ?, ?)")) {
+                for (long i = existing; i < count; i++) {
+                    String email = "bench" + i + "@example.com";
+                    insert.setString(1, "ベンチ" + i);
+                    insert.setString(2, email);
+                    insert.setString(3, EmailNormalizer.normalize(email));
+                    insert.addBatch();
+                    if ((i + 1) % SEED_BATCH_SIZE == 0) {
+                        TrainerDataLoader.addToCounter(connection, insert.executeBatch().length);
+                        connection.commit();
+                    }
+                }
+                TrainerDataLoader.addToCounter(connection, insert.executeBatch().length);
+                connection.commit();
+            }
+
+            List<Trainer> trainers = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT id, name, email FROM trainers WHERE deleted_at IS NULL")) {
+                while (resultSet.next()) {
+                    trainers.add(new Trainer(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3)));
+                }
+            }
+            return trainers;
+        }
+    }
+
+    static void write(LoadTestConfig config, Map<String, Object> summary) throws Exception {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("trainers", config.trainers());
+        settings.put("concurrency", config.concurrency());
+        settings.put("warmup", config.warmup().toString());
+        settings.put("duration", config.duration().toString());
+        settings.put("mix", config.mix());
+        settings.put("profile", config.profile());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("label", config.label());
+        result.put("timestamp", Instant.now().toString());
+        result.put("config", settings);
+        result.putAll(summary);
+
+        Files.createDirectories(config.output().toAbsolutePath().getParent());
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(config.output().toFile(), result);
+        System.out.println("負荷試験の結果を出力しました: " + config.output().toAbsolutePath());
+    }
+}
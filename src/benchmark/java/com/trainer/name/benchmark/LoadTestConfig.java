@@ -0,0 +1,47 @@
+package com.trainer.name.benchmark;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+// 負荷試験の設定。gradleの -Ploadtest.xxx=... がシステムプロパティとして渡される
+public record LoadTestConfig(
+        int trainers,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        Map<LoadDriver.Operation, Integer> mix,
+        String profile,
+        String label,
+        Path output) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.trainers", 10_000),
+                Integer.getInteger("loadtest.concurrency", 32),
+                DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s")),
+                DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "30s")),
+                parseMix(System.getProperty("loadtest.mix", "byId=60,email=15,name=10,post=5,patch=10")),
+                System.getProperty("loadtest.profile", ""),
+                System.getProperty("loadtest.label", System.getenv().getOrDefault("GIT_COMMIT", "local")),
+                Path.of(System.getProperty("loadtest.output", "build/loadtest/result.json")));
+    }
+
+    // 同じ負荷を別のプロファイルで起動したアプリにかける（StackComparison用）
+    public LoadTestConfig withProfile(String profile) {
+        return new LoadTestConfig(trainers, concurrency, warmup, duration, mix, profile, label, output);
+    }
+
+    // "byId=60,email=15" の形式で各操作の比率を指定する
+    static Map<LoadDriver.Operation, Integer> parseMix(String mix) {
+        Map<LoadDriver.Operation, Integer> weights = new EnumMap<>(LoadDriver.Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] keyValue = entry.trim().split("=");
+            weights.put(LoadDriver.Operation.fromKey(keyValue[0].trim()), Integer.parseInt(keyValue[1].trim()));
+        }
+        return weights;
+    }
+}
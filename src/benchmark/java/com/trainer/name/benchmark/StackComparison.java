@@ -0,0 +1,22 @@
+package com.trainer.name.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 同じ設定の負荷をMVC（既定のプロファイル）とWebFlux + R2DBC（reactiveプロファイル）に順にかけ、結果を並べて出力する
+// スレッドの数より多い同時接続数（-Ploadtest.concurrency）で比べたときの差を見るためのもの
+public class StackComparison {
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        Map<String, Object> mvc = LoadTest.run(config.withProfile(""));
+        Map<String, Object> reactive = LoadTest.run(config.withProfile("reactive"));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("mvc", mvc);
+        summary.put("reactive", reactive);
+        summary.put("reactiveThroughputRatio",
+                ((Number) reactive.get("throughputPerSecond")).doubleValue()
+                        / ((Number) mvc.get("throughputPerSecond")).doubleValue());
+        LoadTest.write(config.withProfile("mvc,reactive"), summary);
+    }
+}
@@ -0,0 +1,138 @@
+package com.trainer.name.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 起動方式（JVM、CDS、AOT+CDS、ネイティブイメージ）ごとにアプリを別プロセスで起動し、
+// プロセスの起動からポートが開くまでの時間と、最初・2回目のリクエストのレイテンシを計測する
+// 起動方式はstartupBenchmarkタスクがstartup.mode.<名前>に改行区切りのコマンドで渡す
+public class StartupBenchmark {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        String path = System.getProperty("startup.path", "/trainers/1");
+        String profile = System.getProperty("startup.profile", "");
+        Path output = Path.of(System.getProperty("startup.output", "build/startup/result.json"));
+
+        Map<String, List<String>> modes = new TreeMap<>();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(key -> key.startsWith("startup.mode."))
+                .forEach(key -> modes.put(key.substring("startup.mode.".length()),
+                        Arrays.asList(System.getProperty(key).split("\n"))));
+
+        HttpClient client = HttpClient.newHttpClient();
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+            List<Run> measured = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                measured.add(measure(client, mode.getValue(), path, profile));
+                System.out.printf("%s #%d: %s%n", mode.getKey(), i + 1, measured.get(measured.size() - 1));
+            }
+            results.put(mode.getKey(), summarize(measured));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timestamp", Instant.now().toString());
+        result.put("runs", runs);
+        result.put("path", path);
+        result.put("profile", profile);
+        result.put("modes", results);
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(output.toFile(), result);
+        System.out.println("起動時間の計測結果を出力しました: " + output.toAbsolutePath());
+    }
+
+    private static Run measure(HttpClient client, List<String> command, String path, String profile) throws Exception {
+        int port = freePort();
+        List<String> processCommand = new ArrayList<>(command);
+        processCommand.add("--server.port=" + port);
+        if (!profile.isEmpty()) {
+            processCommand.add("--spring.profiles.active=" + profile);
+        }
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(processCommand)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            waitForPort(process, port, start);
+            long ready = System.nanoTime();
+            URI uri = URI.create("http://localhost:" + port + path);
+            long first = request(client, uri);
+            long second = request(client, uri);
+            return new Run((ready - start) / 1_000_000.0, first / 1_000_000.0, second / 1_000_000.0);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static void waitForPort(Process process, int port, long start) throws Exception {
+        while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("アプリが起動中に終了しました: exit=" + process.exitValue());
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 100);
+                return;
+            } catch (IOException notYet) {
+                Thread.sleep(5);
+            }
+        }
+        throw new IllegalStateException("アプリが" + STARTUP_TIMEOUT + "以内に起動しませんでした");
+    }
+
+    private static long request(HttpClient client, URI uri) throws Exception {
+        long start = System.nanoTime();
+        client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding());
+        return System.nanoTime() - start;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, Object> summarize(List<Run> runs) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("startupMillis", stats(runs.stream().mapToDouble(Run::startupMillis).sorted().toArray()));
+        summary.put("firstRequestMillis", stats(runs.stream().mapToDouble(Run::firstRequestMillis).sorted().toArray()));
+        summary.put("secondRequestMillis", stats(runs.stream().mapToDouble(Run::secondRequestMillis).sorted().toArray()));
+        return summary;
+    }
+
+    private static Map<String, Double> stats(double[] sorted) {
+        Map<String, Double> stats = new LinkedHashMap<>();
+        stats.put("min", sorted[0]);
+        stats.put("median", sorted[sorted.length / 2]);
+        stats.put("max", sorted[sorted.length - 1]);
+        return stats;
+    }
+
+    private record Run(double startupMillis, double firstRequestMillis, double secondRequestMillis) {
+    }
+}
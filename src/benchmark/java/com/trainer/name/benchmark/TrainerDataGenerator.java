@@ -0,0 +1,82 @@
+package com.trainer.name.benchmark;
+
+import com.trainer.name.util.EmailNormalizer;
+
+import java.util.SplittableRandom;
+
+// 大量の現実的なトレーナーのデータを生成する
+// 同じseedとidからは常に同じ行が生成されるので、件数や生成順が変わっても結果を比較できる
+public class TrainerDataGenerator {
+    private static final String[][] FAMILY_NAMES = {
+            {"佐藤", "sato"}, {"鈴木", "suzuki"}, {"高橋", "takahashi"}, {"田中", "tanaka"}, {"伊藤", "ito"},
+            {"渡辺", "watanabe"}, {"山本", "yamamoto"}, {"中村", "nakamura"}, {"小林", "kobayashi"}, {"加藤", "kato"},
+            {"吉田", "yoshida"}, {"山田", "yamada"}, {"佐々木", "sasaki"}, {"山口", "yamaguchi"}, {"松本", "matsumoto"},
+            {"井上", "inoue"}, {"木村", "kimura"}, {"林", "hayashi"}, {"斎藤", "saito"}, {"清水", "shimizu"},
+            {"山崎", "yamazaki"}, {"森", "mori"}, {"池田", "ikeda"}, {"橋本", "hashimoto"}, {"阿部", "abe"},
+            {"石川", "ishikawa"}, {"山下", "yamashita"}, {"中島", "nakajima"}, {"石井", "ishii"}, {"小川", "ogawa"}
+    };
+    private static final String[][] GIVEN_NAMES = {
+            {"陽翔", "haruto"}, {"蓮", "ren"}, {"湊", "minato"}, {"蒼", "aoi"}, {"樹", "itsuki"},
+            {"大和", "yamato"}, {"悠真", "yuma"}, {"結翔", "yuito"}, {"朝陽", "asahi"}, {"律", "ritsu"},
+            {"陽葵", "himari"}, {"凛", "rin"}, {"詩", "uta"}, {"結菜", "yuna"}, {"杏", "an"},
+            {"さくら", "sakura"}, {"ひなた", "hinata"}, {"あおい", "aoi"}, {"ゆい", "yui"}, {"めい", "mei"},
+            {"そら", "sora"}, {"はると", "haruto"}, {"ゆうき", "yuki"}, {"かえで", "kaede"}, {"みお", "mio"}
+    };
+    // ゼイユ・サザレのようなカタカナの名前を作るための音節
+    private static final String[][] KATAKANA_SYLLABLES = {
+            {"ア", "a"}, {"イ", "i"}, {"ウ", "u"}, {"エ", "e"}, {"カ", "ka"}, {"キ", "ki"}, {"ク", "ku"}, {"コ", "ko"},
+            {"サ", "sa"}, {"シ", "shi"}, {"ス", "su"}, {"セ", "se"}, {"タ", "ta"}, {"テ", "te"}, {"ト", "to"}, {"ナ", "na"},
+            {"ネ", "ne"}, {"ノ", "no"}, {"ハ", "ha"}, {"ヒ", "hi"}, {"マ", "ma"}, {"ミ", "mi"}, {"ヤ", "ya"}, {"ユ", "yu"},
+            {"ラ", "ra"}, {"リ", "ri"}, {"ル", "ru"}, {"レ", "re"}, {"ロ", "ro"}, {"ザ", "za"}, {"ゼ", "ze"}, {"ブ", "bu"}
+    };
+    private static final String[] DOMAINS = {"example.jp", "example.com", "mail.example.net", "trainer.example.org"};
+    // 名前を一意にするための接尾辞に使う文字（idを46進数で表す）
+    private static final String SUFFIX_DIGITS = "あいうえおかきくけこさしすせそたちつてとなにぬねのはひふへほまみむめもやゆよらりるれろわをん";
+
+    private final long seed;
+
+    public TrainerDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public GeneratedTrainer generate(long id) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + id);
+        String name;
+        String romaji;
+        if (random.nextInt(3) == 0) {
+            // 3件に1件はカタカナの名前
+            StringBuilder katakana = new StringBuilder();
+            StringBuilder reading = new StringBuilder();
+            int length = 2 + random.nextInt(3);
+            for (int i = 0; i < length; i++) {
+                String[] syllable = KATAKANA_SYLLABLES[random.nextInt(KATAKANA_SYLLABLES.length)];
+                katakana.append(syllable[0]);
+                reading.append(syllable[1]);
+            }
+            name = katakana.toString();
+            romaji = reading.toString();
+        } else {
+            String[] family = FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)];
+            String[] given = GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+            name = family[0] + given[0];
+            romaji = given[1] + "." + family[1];
+        }
+        // 名前とメールアドレスのUNIQUE制約を満たすため、idから作った接尾辞を付ける
+        String uniqueName = name + "・" + toSuffix(id);
+        String email = romaji + id + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+        return new GeneratedTrainer(id, uniqueName, email, EmailNormalizer.normalize(email));
+    }
+
+    private static String toSuffix(long id) {
+        StringBuilder suffix = new StringBuilder();
+        long value = id;
+        do {
+            suffix.append(SUFFIX_DIGITS.charAt((int) (value % SUFFIX_DIGITS.length())));
+            value /= SUFFIX_DIGITS.length();
+        } while (value > 0);
+        return suffix.reverse().toString();
+    }
+
+    public record GeneratedTrainer(long id, String name, String email, String emailNormalized) {
+    }
+}
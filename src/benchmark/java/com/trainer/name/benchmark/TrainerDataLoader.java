@@ -0,0 +1,90 @@
+package com.trainer.name.benchmark;
+
+import com.trainer.name.benchmark.TrainerDataGenerator.GeneratedTrainer;
+import com.trainer.name.count.TrainerCounter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// 生成したトレーナーをDBに高速に投入する
+// - LOAD DATA LOCAL INFILE: TSVに書き出してまとめて読み込ませる（MySQLのみ、最速）
+// - バッチINSERT: rewriteBatchedStatements=trueで複数行のINSERTにまとめて送る
+// どちらも件数のカウンター（trainer_counts）に投入した件数を足し込み、行と同じトランザクションでコミットする
+public class TrainerDataLoader {
+    private final Connection connection;
+    private final TrainerDataGenerator generator;
+    private final int batchSize;
+
+    public TrainerDataLoader(Connection connection, TrainerDataGenerator generator, int batchSize) {
+        this.connection = connection;
+        this.generator = generator;
+        this.batchSize = batchSize;
+    }
+
+    // 接続URLにallowLoadLocalInfile=true、サーバー側でlocal_infile=ONが必要
+    public void loadDataInfile(long startId, long count) throws IOException, SQLException {
+        Path file = Files.createTempFile("trainers", ".tsv");
+        try {
+            for (long offset = 0; offset < count; offset += batchSize) {
+                long chunk = Math.min(batchSize, count - offset);
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    for (long i = 0; i < chunk; i++) {
+                        GeneratedTrainer trainer = generator.generate(startId + offset + i);
+                        writer.write(trainer.id() + "\t" + trainer.name() + "\t" + trainer.email() + "\t" + trainer.emailNormalized() + "\n");
+                    }
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LOAD DATA LOCAL INFILE '" + file.toAbsolutePath().toString().replace("\\", "/") + "' " +
+                            "INTO TABLE trainers CHARACTER SET utf8mb4 " +
+                            "FIELDS TERMINATED BY '\\t' LINES TERMINATED BY '\\n' (id, name, email, email_normalized)");
+                }
+                addToCounter(connection, chunk);
+                connection.commit();
+                printProgress(offset + chunk, count);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public void batchInsert(long startId, long count) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO trainers (id, name, email, email_normalized) VALUES (?, ?, ?, ?)")) {
+            for (long i = 0; i < count; i++) {
+                GeneratedTrainer trainer = generator.generate(startId + i);
+                statement.setLong(1, trainer.id());
+                statement.setString(2, trainer.name());
+                statement.setString(3, trainer.email());
+                statement.setString(4, trainer.emailNormalized());
+                statement.addBatch();
+                if ((i + 1) % batchSize == 0 || i + 1 == count) {
+                    addToCounter(connection, statement.executeBatch().length);
+                    connection.commit();
+                    printProgress(i + 1, count);
+                }
+            }
+        }
+    }
+
+    // TrainerCounterと同じ行に足し込む（slotはどれでもよいので0にまとめる）
+    static void addToCounter(Connection connection, long delta) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO trainer_counts (name, slot, amount) VALUES (?, 0, ?) ON DUPLICATE KEY UPDATE amount = amount + ?")) {
+            statement.setString(1, TrainerCounter.COUNTER_NAME);
+            statement.setLong(2, delta);
+            statement.setLong(3, delta);
+            statement.executeUpdate();
+        }
+    }
+
+    private static void printProgress(long done, long total) {
+        System.out.printf("%,d / %,d 件を投入しました%n", done, total);
+    }
+}
@@ -2,8 +2,12 @@ package com.trainer.name;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(TrainerRuntimeHints.class)
 public class NameApplication {
 
 	public static void main(String[] args) {
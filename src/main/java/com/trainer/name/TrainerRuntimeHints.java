@@ -0,0 +1,70 @@
+package com.trainer.name;
+
+import com.trainer.name.cache.WeightedMapperCache;
+import com.trainer.name.controller.request.TrainerRequest;
+import com.trainer.name.controller.response.TrainerCountResponse;
+import com.trainer.name.controller.response.TrainerResponse;
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.entity.TrainerSummary;
+import com.trainer.name.exception.ErrorResponse;
+import com.trainer.name.exception.NoFullWidthSpaceValidator;
+import com.trainer.name.mapper.BackfillProgressMapper;
+import com.trainer.name.mapper.EmailBackfillMapper;
+import com.trainer.name.mapper.QueryPlanBudget;
+import com.trainer.name.mapper.ShardDirectoryMapper;
+import com.trainer.name.mapper.ShardMigrationMapper;
+import com.trainer.name.mapper.TrainerCountMapper;
+import com.trainer.name.mapper.TrainerIdSequenceMapper;
+import com.trainer.name.mapper.TrainerMapper;
+import com.trainer.name.mapper.TrainerSearchCriteria;
+import com.trainer.name.util.EmailNormalizer;
+import com.trainer.name.util.KanaFolding;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+// ネイティブイメージで、リフレクションやJDKプロキシで使われるクラスを登録する
+public class TrainerRuntimeHints implements RuntimeHintsRegistrar {
+    private static final MemberCategory[] BEAN_MEMBERS = {
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_PUBLIC_METHODS,
+            MemberCategory.DECLARED_FIELDS
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // MyBatisはマッパーをJDKプロキシで実装し、メソッドのアノテーションからSQLを組み立てる
+        for (Class<?> mapper : List.of(TrainerMapper.class, EmailBackfillMapper.class, BackfillProgressMapper.class, ShardDirectoryMapper.class,
+                TrainerIdSequenceMapper.class, TrainerCountMapper.class, ShardMigrationMapper.class)) {
+            hints.proxies().registerJdkProxy(mapper);
+            hints.reflection().registerType(mapper, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        // 検索結果のマッピング、パラメータの参照、JSONの変換
+        for (Class<?> type : List.of(Trainer.class, TrainerSummary.class, TrainerMapper.GeneratedKey.class, EmailBackfillMapper.NormalizedEmail.class,
+                TrainerSearchCriteria.class, TrainerRequest.class, TrainerResponse.class, TrainerCountResponse.class, ErrorResponse.class)) {
+            hints.reflection().registerType(type, BEAN_MEMBERS);
+        }
+        // <bind>のOGNL式から呼ぶstaticメソッド
+        hints.reflection().registerType(EmailNormalizer.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(KanaFolding.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        // @CacheNamespaceのキャッシュはMyBatisがコンストラクタとsetterで作る
+        hints.reflection().registerType(WeightedMapperCache.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(QueryPlanBudget.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        // Bean Validationの独自の制約とバリデータ
+        hints.reflection().registerType(NoFullWidthSpaceValidator.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(NoFullWidthSpaceValidator.NoFullWidthSpace.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.proxies().registerJdkProxy(NoFullWidthSpaceValidator.NoFullWidthSpace.class);
+        // MyBatisがクラス名から読み込むログ・スクリプトの実装
+        for (String name : List.of("org.apache.ibatis.logging.slf4j.Slf4jImpl",
+                "org.apache.ibatis.scripting.xmltags.XMLLanguageDriver",
+                "org.apache.ibatis.scripting.defaults.RawLanguageDriver",
+                "org.apache.ibatis.cache.impl.PerpetualCache")) {
+            hints.reflection().registerType(TypeReference.of(name), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+}
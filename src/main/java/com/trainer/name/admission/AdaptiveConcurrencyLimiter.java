@@ -0,0 +1,104 @@
+package com.trainer.name.admission;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+// 処理中のリクエスト数の上限をレイテンシに応じて増減する（AIMD）
+// - 目標のレイテンシを超えたか失敗したら、上限にbackoffRatioを掛けて下げる
+// - 目標以内で、上限の半分以上を使っていれば少しずつ上げる（上限が大きいほどゆっくり上げる）
+// 上限は全エンドポイントで1つだけ持ち（DBを共有しているため）、エンドポイントの分類ごとに使ってよい割合を変える
+public class AdaptiveConcurrencyLimiter {
+    private final AdmissionProperties properties;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<EndpointClass, AtomicInteger> inflightByEndpoint = new EnumMap<>(EndpointClass.class);
+
+    private volatile double limit;
+    // 最後に上限を下げた時刻（これより前に始まったリクエストが遅くても、続けては下げない）
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(AdmissionProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(AdmissionProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.limit = properties.getInitialLimit();
+        this.lastDecreaseNanos = nanoClock.getAsLong();
+        for (EndpointClass endpoint : EndpointClass.values()) {
+            inflightByEndpoint.put(endpoint, new AtomicInteger());
+        }
+    }
+
+    // 上限に達していればnullを返す
+    public Permit tryAcquire(EndpointClass endpoint) {
+        int allowed = limitFor(endpoint);
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                inflightByEndpoint.get(endpoint).incrementAndGet();
+                return new Permit(endpoint, nanoClock.getAsLong(), current + 1);
+            }
+        }
+    }
+
+    public int limitFor(EndpointClass endpoint) {
+        return Math.max(1, (int) (limit * properties.getShare().getOrDefault(endpoint, 1.0)));
+    }
+
+    public int inflight(EndpointClass endpoint) {
+        return inflightByEndpoint.get(endpoint).get();
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    public double limit() {
+        return limit;
+    }
+
+    public final class Permit {
+        private final EndpointClass endpoint;
+        private final long startNanos;
+        private final int inflightAtStart;
+        private boolean released;
+
+        private Permit(EndpointClass endpoint, long startNanos, int inflightAtStart) {
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        public void release(boolean failed) {
+            if (released) {
+                return;
+            }
+            released = true;
+            inflight.decrementAndGet();
+            inflightByEndpoint.get(endpoint).decrementAndGet();
+            long now = nanoClock.getAsLong();
+            Duration target = properties.getTargetLatency().getOrDefault(endpoint, Duration.ofSeconds(1));
+            update(startNanos, inflightAtStart, failed || now - startNanos > target.toNanos(), now);
+        }
+    }
+
+    private synchronized void update(long startNanos, int inflightAtStart, boolean congested, long now) {
+        if (congested) {
+            // 遅いリクエストがまとめて返ってきても、下げるのは1回だけにする
+            if (startNanos - lastDecreaseNanos >= 0) {
+                limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                lastDecreaseNanos = now;
+            }
+        } else if (inflightAtStart * 2 >= limit) {
+            limit = Math.min(properties.getMaxLimit(), limit + 1.0 / Math.max(1.0, limit / 10));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.trainer.name.admission;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// 処理中のリクエスト数は、フィルタの他に物理削除などのバックグラウンドの処理も参照するのでBeanにする
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "trainer.admission.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(AdmissionProperties properties) {
+        return new AdaptiveConcurrencyLimiter(properties);
+    }
+}
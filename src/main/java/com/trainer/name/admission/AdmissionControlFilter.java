@@ -0,0 +1,83 @@
+package com.trainer.name.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+// DBが遅くなったときにTomcatのスレッドでリクエストを溜め込まず、上限を超えた分はすぐに503で断る
+// 他のフィルタ（SQLの記録など）より先に判定し、断るリクエストには余計な処理をしない
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "trainer.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final byte[] REJECTED_BODY =
+            "{\"error\":\"混雑しているため処理できません。しばらくしてから再度お試しください\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final String retryAfterSeconds;
+    private final Map<EndpointClass, Counter> rejected = new EnumMap<>(EndpointClass.class);
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimiter limiter, AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = Long.toString(Math.max(1, (properties.getRetryAfter().toMillis() + 999) / 1000));
+        for (EndpointClass endpoint : EndpointClass.values()) {
+            String tag = endpoint.name().toLowerCase();
+            Gauge.builder("trainer.admission.limit", limiter, l -> l.limitFor(endpoint))
+                    .tag("endpoint", tag).register(meterRegistry);
+            Gauge.builder("trainer.admission.inflight", limiter, l -> l.inflight(endpoint))
+                    .tag("endpoint", tag).register(meterRegistry);
+            rejected.put(endpoint, Counter.builder("trainer.admission.rejected")
+                    .tag("endpoint", tag).register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpoint = EndpointClass.of(request);
+        if (endpoint == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(endpoint);
+        if (permit == null) {
+            rejected.get(endpoint).increment();
+            reject(response);
+            return;
+        }
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            permit.release(failed);
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+}
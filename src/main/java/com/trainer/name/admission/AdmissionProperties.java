@@ -0,0 +1,96 @@
+package com.trainer.name.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "trainer.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    // 同時に処理するリクエスト数の上限（レイテンシに応じてminLimitからmaxLimitの間で増減する）
+    private int initialLimit = 20;
+    private int minLimit = 2;
+    private int maxLimit = 200;
+    // 目標のレイテンシを超えたときに上限に掛ける値
+    private double backoffRatio = 0.9;
+    // 503で返すRetry-After
+    private Duration retryAfter = Duration.ofSeconds(1);
+    // これを超えたら混雑しているとみなすレイテンシ
+    private Map<EndpointClass, Duration> targetLatency = new EnumMap<>(Map.of(
+            EndpointClass.WRITE, Duration.ofMillis(200),
+            EndpointClass.READ_BY_ID, Duration.ofMillis(50),
+            EndpointClass.SEARCH, Duration.ofMillis(300),
+            EndpointClass.LIST, Duration.ofSeconds(1)));
+    // 上限のうち使ってよい割合（優先しないものを小さくして先に断る）
+    private Map<EndpointClass, Double> share = new EnumMap<>(Map.of(
+            EndpointClass.WRITE, 1.0,
+            EndpointClass.READ_BY_ID, 1.0,
+            EndpointClass.SEARCH, 0.5,
+            EndpointClass.LIST, 0.3));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Map<EndpointClass, Duration> getTargetLatency() {
+        return targetLatency;
+    }
+
+    public void setTargetLatency(Map<EndpointClass, Duration> targetLatency) {
+        this.targetLatency = targetLatency;
+    }
+
+    public Map<EndpointClass, Double> getShare() {
+        return share;
+    }
+
+    public void setShare(Map<EndpointClass, Double> share) {
+        this.share = share;
+    }
+}
@@ -0,0 +1,64 @@
+package com.trainer.name.admission;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// クライアントとエンドポイントの分類の組ごとにTokenBucketを持つ
+// バケットの数はmaxClientsまでに抑え、満タンに戻った（しばらく使われていない）ものから捨てる
+public class ClientRateLimiter {
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<Key, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public ClientRateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    ClientRateLimiter(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+    }
+
+    public TokenBucket.Result tryConsume(EndpointClass endpoint, String client) {
+        long now = nanoClock.getAsLong();
+        Key key = new Key(endpoint, client);
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= properties.getMaxClients()) {
+                evict(now);
+            }
+            RateLimitProperties.Budget budget = properties.getBudgets().get(endpoint);
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(budget.getCapacity(), budget.getRefillPerSecond(), now));
+        }
+        return bucket.tryConsume(now);
+    }
+
+    // 満タンのバケットを捨てる
+    public void sweep() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    // 満タンのものを捨てても足りなければ、残りから任意に捨てて1割空ける（そのクライアントは満タンからやり直しになる）
+    private synchronized void evict(long now) {
+        int max = properties.getMaxClients();
+        if (buckets.size() < max) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        Iterator<Map.Entry<Key, TokenBucket>> iterator = buckets.entrySet().iterator();
+        while (buckets.size() >= max - max / 10 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private record Key(EndpointClass endpoint, String client) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.trainer.name.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// 流量を制御する単位としてのエンドポイントの分類
+// 優先するもの（書き込み、idでの取得）は、混雑しても最後まで受け付ける
+public enum EndpointClass {
+    WRITE(true),
+    READ_BY_ID(true),
+    SEARCH(false),
+    LIST(false);
+
+    private static final String TRAINERS = "/trainers";
+
+    private final boolean prioritized;
+
+    EndpointClass(boolean prioritized) {
+        this.prioritized = prioritized;
+    }
+
+    public boolean isPrioritized() {
+        return prioritized;
+    }
+
+    // /trainers以外（actuatorなど）は対象外としてnullを返す
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.equals(TRAINERS) && !path.startsWith(TRAINERS + "/")) {
+            return null;
+        }
+        if (!"GET".equals(request.getMethod())) {
+            return WRITE;
+        }
+        if (path.equals(TRAINERS + "/suggest")) {
+            return SEARCH;
+        }
+        // 絞り込まない件数はカウンターを読むだけなので、idでの取得と同じ扱いにする
+        if (path.equals(TRAINERS + "/count")) {
+            return isFiltered(request) ? SEARCH : READ_BY_ID;
+        }
+        if (path.startsWith(TRAINERS + "/")) {
+            return READ_BY_ID;
+        }
+        return isFiltered(request) ? SEARCH : LIST;
+    }
+
+    private static boolean isFiltered(HttpServletRequest request) {
+        return request.getParameter("startingWith") != null || request.getParameter("name") != null
+                || request.getParameter("email") != null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.trainer.name.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+// クライアント（APIキーまたはIPアドレス）ごとに、エンドポイントの分類ごとの予算を超えたリクエストを429で断る
+// 同時実行数の制御（AdmissionControlFilter）より先に判定し、断るリクエストで処理の枠を使わない
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@ConditionalOnProperty(name = "trainer.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+    static final String LIMIT = "X-RateLimit-Limit";
+    static final String REMAINING = "X-RateLimit-Remaining";
+    static final String RESET = "X-RateLimit-Reset";
+    private static final byte[] REJECTED_BODY =
+            "{\"error\":\"リクエストが多すぎます。しばらくしてから再度お試しください\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimitProperties properties;
+    private final ClientRateLimiter limiter;
+    private final Map<EndpointClass, Counter> rejected = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limiter = new ClientRateLimiter(properties);
+        Gauge.builder("trainer.ratelimit.clients", limiter, ClientRateLimiter::size).register(meterRegistry);
+        for (EndpointClass endpoint : EndpointClass.values()) {
+            rejected.put(endpoint, Counter.builder("trainer.ratelimit.rejected")
+                    .tag("endpoint", endpoint.name().toLowerCase()).register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpoint = EndpointClass.of(request);
+        if (endpoint == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        TokenBucket.Result result = limiter.tryConsume(endpoint, clientOf(request));
+        response.setHeader(LIMIT, Long.toString(result.limit()));
+        response.setHeader(REMAINING, Long.toString(result.remaining()));
+        response.setHeader(RESET, Long.toString(toSeconds(result.nanosUntilFull())));
+        if (!result.allowed()) {
+            rejected.get(endpoint).increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, toSeconds(result.retryAfterNanos()))));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(REJECTED_BODY.length);
+            response.getOutputStream().write(REJECTED_BODY);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // 発行済みのAPIキーだけをクライアントとして扱う（任意のキーを送れば新しいバケットを使えてしまうため）
+    // プロキシの後ろではserver.forward-headers-strategyを設定し、getRemoteAddrが元のクライアントになるようにする
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(properties.getApiKeyHeader());
+        return apiKey != null && properties.getApiKeys().contains(apiKey) ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    @Scheduled(fixedDelayString = "${trainer.rate-limit.sweep-interval:PT1M}", initialDelayString = "${trainer.rate-limit.sweep-interval:PT1M}")
+    public void sweep() {
+        limiter.sweep();
+    }
+}
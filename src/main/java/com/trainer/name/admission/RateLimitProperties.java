@@ -0,0 +1,105 @@
+package com.trainer.name.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "trainer.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // このヘッダーにapiKeysのどれかがあればAPIキーごと、なければ接続元のIPアドレスごとに数える
+    private String apiKeyHeader = "X-API-Key";
+    // 発行済みのAPIキー（それ以外のキーを送ってきても、キーを変えて予算を増やせないようIPアドレスで数える）
+    private Set<String> apiKeys = new HashSet<>();
+    // 保持するバケットの数の上限（超えたら満タンのものから捨てる）
+    private int maxClients = 100_000;
+    // 満タンに戻ったバケットを捨てる間隔
+    private Duration sweepInterval = Duration.ofMinutes(1);
+    // エンドポイントの分類ごとの予算（満タンのトークン数と、1秒あたりの補充数）
+    private Map<EndpointClass, Budget> budgets = new EnumMap<>(Map.of(
+            EndpointClass.WRITE, new Budget(20, 5),
+            EndpointClass.READ_BY_ID, new Budget(100, 50),
+            EndpointClass.SEARCH, new Budget(10, 2),
+            EndpointClass.LIST, new Budget(5, 1)));
+
+    public static class Budget {
+        private long capacity = 10;
+        private double refillPerSecond = 1;
+
+        public Budget() {
+        }
+
+        public Budget(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(long capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getApiKeyHeader() {
+        return apiKeyHeader;
+    }
+
+    public void setApiKeyHeader(String apiKeyHeader) {
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    public Set<String> getApiKeys() {
+        return apiKeys;
+    }
+
+    public void setApiKeys(Set<String> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(int maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public Map<EndpointClass, Budget> getBudgets() {
+        return budgets;
+    }
+
+    public void setBudgets(Map<EndpointClass, Budget> budgets) {
+        this.budgets = budgets;
+    }
+}
@@ -0,0 +1,46 @@
+package com.trainer.name.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// ロックを取らないトークンバケット
+// トークンの数と最後に補充した時刻を別々に持つ代わりに「バケットが満タンに戻る時刻」だけをAtomicLongで持ち、
+// 1トークン使うごとにその時刻を補充間隔だけ先に進める（GCRAと同じ考え方）。満タンまでの時間がcapacity分を超えるなら断る
+public class TokenBucket {
+    private final long capacity;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacityとrefillPerSecondは正の値にしてください");
+        }
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.capacityNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    public Result tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long base = current - nowNanos > 0 ? current : nowNanos;
+            long next = base + intervalNanos;
+            long untilFull = next - nowNanos;
+            if (untilFull > capacityNanos) {
+                return new Result(false, capacity, 0, base - nowNanos, untilFull - capacityNanos);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return new Result(true, capacity, (capacityNanos - untilFull) / intervalNanos, untilFull, 0);
+            }
+        }
+    }
+
+    // 満タンに戻っていれば、捨てて作り直しても同じ状態になる
+    public boolean isFull(long nowNanos) {
+        return nowNanos - fullAt.get() >= 0;
+    }
+
+    public record Result(boolean allowed, long limit, long remaining, long nanosUntilFull, long retryAfterNanos) {
+    }
+}
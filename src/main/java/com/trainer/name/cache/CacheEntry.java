@@ -0,0 +1,27 @@
+package com.trainer.name.cache;
+
+import java.io.Serializable;
+
+// リモート層とニア層で共有するキャッシュの値
+// computeMillisは値の再計算にかかった時間で、確率的な早期リフレッシュ（XFetch）に使う
+// valueがnullのものは無効化の目印で、期限までは値を書き込ませない（nullの値はキャッシュしないので区別できる）
+public record CacheEntry(Object value, long expiresAt, long computeMillis) implements Serializable {
+
+    public static CacheEntry invalidated(long expiresAt) {
+        return new CacheEntry(null, expiresAt, 0);
+    }
+
+    public boolean isInvalidated() {
+        return value == null;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    // 期限が近く、再計算に時間がかかる値ほど高い確率でtrueになる
+    // 複数ノードが同時に期限切れを迎えてDBに殺到する（キャッシュスタンピード）のを防ぐ
+    public boolean shouldRefreshEarly(long now, double beta, double random) {
+        return now - computeMillis * beta * Math.log(random) >= expiresAt;
+    }
+}
@@ -0,0 +1,56 @@
+package com.trainer.name.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Redisの代わりに使うプロセス内のリモート層
+// TTLとpub/subの振る舞いをRedisに合わせてあるので、1つのインスタンスを複数のTwoLevelCacheで共有すれば複数ノード構成を再現できる
+public class InMemoryRemoteCacheTier implements RemoteCacheTier {
+    private final Map<String, StoredEntry> entries = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public CacheEntry get(String key) {
+        StoredEntry stored = entries.get(key);
+        if (stored == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= stored.expiresAt()) {
+            entries.remove(key, stored);
+            return null;
+        }
+        return stored.entry();
+    }
+
+    @Override
+    public void put(String key, CacheEntry entry, Duration ttl) {
+        entries.put(key, new StoredEntry(entry, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void evict(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void evictByPrefix(String prefix) {
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    @Override
+    public void publish(String message) {
+        listeners.forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    private record StoredEntry(CacheEntry entry, long expiresAt) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.trainer.name.cache;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// MyBatisの2次キャッシュ（WeightedMapperCache）の無効化を、リモート層のpub/subで全ノードに伝える
+// あるノードの@Insert/@Update/@Deleteで、他のノードのfindByEmailや検索・一覧の結果もnamespaceごと消える
+// 自分の配信も届くが、消し直すだけなので区別しない
+@Component
+@Profile("!reactive")
+public class MapperCacheInvalidation {
+    private static final String CHANNEL_PREFIX = "mapperCache\t";
+
+    private final Map<String, WeightedMapperCache> caches;
+
+    public MapperCacheInvalidation(SqlSessionFactory sqlSessionFactory, RemoteCacheTier remoteTier) {
+        this.caches = MapperCacheMetrics.weightedCaches(sqlSessionFactory.getConfiguration()).stream()
+                .collect(Collectors.toMap(WeightedMapperCache::getId, Function.identity(), (first, second) -> first));
+        remoteTier.subscribe(this::onInvalidation);
+        caches.values().forEach(cache -> cache.setClearListener(() -> remoteTier.publish(CHANNEL_PREFIX + cache.getId())));
+    }
+
+    private void onInvalidation(String message) {
+        if (!message.startsWith(CHANNEL_PREFIX)) {
+            return;
+        }
+        WeightedMapperCache cache = caches.get(message.substring(CHANNEL_PREFIX.length()));
+        if (cache != null) {
+            cache.clearLocally();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.trainer.name.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// MyBatisの2次キャッシュ（WeightedMapperCache）のヒット率とメモリ量をメトリクスとして公開する
+// SqlSessionFactoryができた時点でマッパーのキャッシュは作成済みなので、その一覧から登録する
+// MyBatisはキャッシュをLoggingCacheなどで包んで保持するので、delegateを辿って取り出す
+@Component
+@Profile("!reactive")
+public class MapperCacheMetrics implements MeterBinder {
+    private final SqlSessionFactory sqlSessionFactory;
+
+    public MapperCacheMetrics(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (WeightedMapperCache cache : weightedCaches(sqlSessionFactory.getConfiguration())) {
+            String id = cache.getId();
+            FunctionCounter.builder("trainer.mapper.cache.hits", cache, WeightedMapperCache::hits)
+                    .tag("namespace", id).register(registry);
+            FunctionCounter.builder("trainer.mapper.cache.misses", cache, WeightedMapperCache::misses)
+                    .tag("namespace", id).register(registry);
+            FunctionCounter.builder("trainer.mapper.cache.evictions", cache, WeightedMapperCache::evictions)
+                    .tag("namespace", id).register(registry);
+            Gauge.builder("trainer.mapper.cache.hit.ratio", cache, WeightedMapperCache::hitRatio)
+                    .tag("namespace", id).register(registry);
+            Gauge.builder("trainer.mapper.cache.size", cache, WeightedMapperCache::getSize)
+                    .tag("namespace", id).register(registry);
+            Gauge.builder("trainer.mapper.cache.memory", cache, WeightedMapperCache::weightBytes)
+                    .tag("namespace", id).baseUnit("bytes").register(registry);
+        }
+    }
+
+    static List<WeightedMapperCache> weightedCaches(Configuration configuration) {
+        List<WeightedMapperCache> caches = new ArrayList<>();
+        for (String name : configuration.getCacheNames()) {
+            // 省略名（TrainerMapper）でも登録されているので、完全な名前のものだけを対象にする
+            if (!name.contains(".")) {
+                continue;
+            }
+            WeightedMapperCache cache = unwrap(configuration.getCache(name));
+            if (cache != null) {
+                caches.add(cache);
+            }
+        }
+        return caches;
+    }
+
+    private static WeightedMapperCache unwrap(Cache cache) {
+        Object current = cache;
+        while (current != null && !(current instanceof WeightedMapperCache)) {
+            MetaObject metaObject = SystemMetaObject.forObject(current);
+            current = metaObject.hasGetter("delegate") ? metaObject.getValue("delegate") : null;
+        }
+        return (WeightedMapperCache) current;
+    }
+}
@@ -0,0 +1,91 @@
+package com.trainer.name.cache;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// キャッシュする値のおおよそのヒープ使用量（バイト）を見積もる
+// 64bit JVM・圧縮参照を前提に、ヘッダー16バイト、参照4バイト、8バイト境界への切り上げで数える
+public final class ObjectWeigher {
+    private static final int HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final Map<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private ObjectWeigher() {
+    }
+
+    public static long weigh(Object value) {
+        return weigh(value, Long.MAX_VALUE);
+    }
+
+    // limitを超えた時点で数えるのをやめ、limitより大きい値を返す（上限を超える大きな結果を最後まで辿らない）
+    public static long weigh(Object value, long limit) {
+        return weigh(value, 0, limit);
+    }
+
+    private static long weigh(Object value, int depth, long limit) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String string) {
+            // 日本語を含む文字列はUTF-16（1文字2バイト）で保持される
+            boolean latin1 = string.chars().allMatch(c -> c < 0x100);
+            return align(HEADER + 8) + align(HEADER + (long) string.length() * (latin1 ? 1 : 2));
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return align(HEADER + 8);
+        }
+        if (value instanceof Collection<?> collection) {
+            long weight = align(HEADER + 16) + align(HEADER + (long) collection.size() * REFERENCE);
+            for (Object element : collection) {
+                if (weight > limit) {
+                    break;
+                }
+                weight += weigh(element, depth + 1, limit - weight);
+            }
+            return weight;
+        }
+        if (value instanceof Optional<?> optional) {
+            return align(HEADER + REFERENCE) + weigh(optional.orElse(null), depth + 1, limit);
+        }
+        // エンティティなどは各フィールドを合計する（循環参照に備えて深さを制限する）
+        List<Field> fields = FIELDS.computeIfAbsent(value.getClass(), ObjectWeigher::instanceFields);
+        long weight = align(HEADER + (long) fields.size() * REFERENCE);
+        if (depth < 4) {
+            for (Field field : fields) {
+                if (weight > limit) {
+                    break;
+                }
+                if (!field.getType().isPrimitive()) {
+                    try {
+                        weight += weigh(field.get(value), depth + 1, limit - weight);
+                    } catch (IllegalAccessException e) {
+                        weight += REFERENCE;
+                    }
+                }
+            }
+        }
+        return weight;
+    }
+
+    private static List<Field> instanceFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && field.trySetAccessible()) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,76 @@
+package com.trainer.name.cache;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+// Redisプロトコルのクライアントで実装したリモート層
+// 無効化はpub/subのチャンネルで全ノードに配信する
+public class RedisRemoteCacheTier implements RemoteCacheTier {
+    static final String INVALIDATION_CHANNEL = "trainer-cache-invalidation";
+
+    private final RedisTemplate<String, CacheEntry> redisTemplate;
+    private final StringRedisTemplate messageTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisRemoteCacheTier(RedisConnectionFactory connectionFactory, RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = new RedisTemplate<>();
+        this.redisTemplate.setConnectionFactory(connectionFactory);
+        this.redisTemplate.setKeySerializer(RedisSerializer.string());
+        this.redisTemplate.setValueSerializer(RedisSerializer.java());
+        this.redisTemplate.afterPropertiesSet();
+        this.messageTemplate = new StringRedisTemplate(connectionFactory);
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public CacheEntry get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public void put(String key, CacheEntry entry, Duration ttl) {
+        redisTemplate.opsForValue().set(key, entry, ttl);
+    }
+
+    @Override
+    public void evict(String key) {
+        redisTemplate.unlink(key);
+    }
+
+    // KEYSはサーバーをブロックするのでSCANで少しずつ削除する
+    @Override
+    public void evictByPrefix(String prefix) {
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(500).build();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    connection.keyCommands().unlink(cursor.next());
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void publish(String message) {
+        messageTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+}
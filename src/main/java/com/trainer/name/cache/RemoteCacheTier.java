@@ -0,0 +1,22 @@
+package com.trainer.name.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+// 全ノードで共有するリモートキャッシュ層
+// 本番はRedis、テストやローカル開発ではプロセス内の代替実装を使う
+public interface RemoteCacheTier {
+
+    CacheEntry get(String key);
+
+    void put(String key, CacheEntry entry, Duration ttl);
+
+    void evict(String key);
+
+    void evictByPrefix(String prefix);
+
+    // 無効化メッセージを全ノードに配信する
+    void publish(String message);
+
+    void subscribe(Consumer<String> listener);
+}
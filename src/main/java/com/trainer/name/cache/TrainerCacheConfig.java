@@ -0,0 +1,60 @@
+package com.trainer.name.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties({TrainerCacheProperties.class, RedisProperties.class})
+public class TrainerCacheConfig {
+    public static final String TRAINER_BY_ID = "trainerById";
+    public static final String TRAINERS_BY_EMAIL = "trainersByEmail";
+
+    @Bean
+    @ConditionalOnProperty(name = "trainer.cache.remote", havingValue = "local", matchIfMissing = true)
+    public RemoteCacheTier inMemoryRemoteCacheTier() {
+        return new InMemoryRemoteCacheTier();
+    }
+
+    // Redisの自動設定は既定で除外しているので、remote=redisのときだけ接続を作る
+    // （接続があるときだけ/actuator/healthにRedisのヘルスチェックが加わり、Redisのない構成でDOWNにならない）
+    @Bean
+    @ConditionalOnProperty(name = "trainer.cache.remote", havingValue = "redis")
+    public LettuceConnectionFactory redisConnectionFactory(RedisProperties redis) {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(redis.getHost(), redis.getPort());
+        configuration.setDatabase(redis.getDatabase());
+        configuration.setUsername(redis.getUsername());
+        configuration.setPassword(RedisPassword.of(redis.getPassword()));
+        return new LettuceConnectionFactory(configuration);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "trainer.cache.remote", havingValue = "redis")
+    public RedisMessageListenerContainer trainerCacheListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "trainer.cache.remote", havingValue = "redis")
+    public RemoteCacheTier redisRemoteCacheTier(RedisConnectionFactory connectionFactory,
+                                                RedisMessageListenerContainer trainerCacheListenerContainer) {
+        return new RedisRemoteCacheTier(connectionFactory, trainerCacheListenerContainer);
+    }
+
+    @Bean
+    public CacheManager cacheManager(RemoteCacheTier remoteCacheTier, TrainerCacheProperties properties) {
+        return new TwoLevelCacheManager(remoteCacheTier, properties);
+    }
+}
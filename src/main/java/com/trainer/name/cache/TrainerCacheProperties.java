@@ -0,0 +1,109 @@
+package com.trainer.name.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "trainer.cache")
+public class TrainerCacheProperties {
+    // local: プロセス内の代替実装, redis: Redisを共有のリモート層として使う
+    private RemoteType remote = RemoteType.LOCAL;
+    private Duration ttl = Duration.ofMinutes(10);
+    private Duration nearTtl = Duration.ofSeconds(30);
+    private int nearMaxEntries = 10_000;
+    // XFetchの係数。大きいほど早めに再計算する
+    private double beta = 1.0;
+    // 無効化してからこの時間は、リモート層に値を書き込まない
+    // （無効化の前にDBを読み始めた他ノードの読み込みが、古い値を書き込まないように。DBの読み込みにかかる時間より長くする）
+    private Duration invalidationHold = Duration.ofSeconds(5);
+    // GET /trainers/{id}のレスポンスをJSONのバイト列のままキャッシュする
+    private boolean documentEnabled = true;
+    private int documentMaxEntries = 10_000;
+    // gzip圧縮したバイト列も用意する（小さいJSONは圧縮するとかえって大きくなるので、documentGzipMinBytes以上のときだけ）
+    private boolean documentGzip = false;
+    private int documentGzipMinBytes = 256;
+
+    public enum RemoteType {
+        LOCAL, REDIS
+    }
+
+    public RemoteType getRemote() {
+        return remote;
+    }
+
+    public void setRemote(RemoteType remote) {
+        this.remote = remote;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getNearTtl() {
+        return nearTtl;
+    }
+
+    public void setNearTtl(Duration nearTtl) {
+        this.nearTtl = nearTtl;
+    }
+
+    public int getNearMaxEntries() {
+        return nearMaxEntries;
+    }
+
+    public void setNearMaxEntries(int nearMaxEntries) {
+        this.nearMaxEntries = nearMaxEntries;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
+    public void setBeta(double beta) {
+        this.beta = beta;
+    }
+
+    public Duration getInvalidationHold() {
+        return invalidationHold;
+    }
+
+    public void setInvalidationHold(Duration invalidationHold) {
+        this.invalidationHold = invalidationHold;
+    }
+
+    public boolean isDocumentEnabled() {
+        return documentEnabled;
+    }
+
+    public void setDocumentEnabled(boolean documentEnabled) {
+        this.documentEnabled = documentEnabled;
+    }
+
+    public int getDocumentMaxEntries() {
+        return documentMaxEntries;
+    }
+
+    public void setDocumentMaxEntries(int documentMaxEntries) {
+        this.documentMaxEntries = documentMaxEntries;
+    }
+
+    public boolean isDocumentGzip() {
+        return documentGzip;
+    }
+
+    public void setDocumentGzip(boolean documentGzip) {
+        this.documentGzip = documentGzip;
+    }
+
+    public int getDocumentGzipMinBytes() {
+        return documentGzipMinBytes;
+    }
+
+    public void setDocumentGzipMinBytes(int documentGzipMinBytes) {
+        this.documentGzipMinBytes = documentGzipMinBytes;
+    }
+}
@@ -0,0 +1,57 @@
+package com.trainer.name.cache;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.util.EmailNormalizer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+// TrainerServiceの1件取得のキャッシュを読み通し、更新・削除で変わった行のキーだけを無効化する
+// （メールアドレスのキャッシュをallEntriesで消すと、remote=redisでは書き込みのたびにSCANが走る）
+@Component
+public class TrainerCaches {
+    private final CacheManager cacheManager;
+
+    public TrainerCaches(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    // 読み込み中に無効化された場合は、読み込んだ値をキャッシュに入れない（TwoLevelCacheが読み込みごとに確かめる）
+    // loaderの例外はValueRetrievalExceptionに包まれるので、元の例外に戻して投げる
+    public Trainer trainerById(int id, Callable<Trainer> loader) {
+        Cache byId = cacheManager.getCache(TrainerCacheConfig.TRAINER_BY_ID);
+        try {
+            return byId == null ? loader.call() : byId.get(id, loader);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // emailsには変更前と変更後のメールアドレスを渡す（nullは無視し、正規化した値で無効化する）
+    public void evict(int id, Collection<String> emails) {
+        Cache byId = cacheManager.getCache(TrainerCacheConfig.TRAINER_BY_ID);
+        if (byId != null) {
+            byId.evict(id);
+        }
+        Cache byEmail = cacheManager.getCache(TrainerCacheConfig.TRAINERS_BY_EMAIL);
+        if (byEmail == null) {
+            return;
+        }
+        emails.stream()
+                .filter(Objects::nonNull)
+                .map(EmailNormalizer::normalize)
+                .distinct()
+                .forEach(byEmail::evict);
+    }
+}
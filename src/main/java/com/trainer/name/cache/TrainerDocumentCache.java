@@ -0,0 +1,123 @@
+package com.trainer.name.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.event.TrainerChangedEvent;
+import com.trainer.name.resilience.StaleReads;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// GET /trainers/{id}のレスポンスを、エンコード済みのJSON（とgzip圧縮したもの）のバイト列でキャッシュする
+// ヒットすればJacksonでのシリアライズを省き、バイト列をそのままレスポンスに書き込める
+// 更新・削除のイベントで無効化し、リモート層のpub/subで他ノードにも伝える
+@Component
+public class TrainerDocumentCache {
+    private static final String CHANNEL_PREFIX = "trainerDocument\t";
+
+    private final ObjectMapper objectMapper;
+    private final RemoteCacheTier remoteTier;
+    private final TrainerCacheProperties properties;
+    private final Map<Integer, Document> documents = new ConcurrentHashMap<>();
+    // 読み込み中のidごとの札。無効化で札を外し、札が残っている読み込みだけがキャッシュに入れる
+    // （他のidへの書き込みでは、読み込み中の結果を捨てない）
+    private final Map<Integer, Object> loading = new ConcurrentHashMap<>();
+
+    public TrainerDocumentCache(ObjectMapper objectMapper, RemoteCacheTier remoteTier, TrainerCacheProperties properties) {
+        this.objectMapper = objectMapper;
+        this.remoteTier = remoteTier;
+        this.properties = properties;
+        remoteTier.subscribe(this::onInvalidation);
+    }
+
+    public Document get(int id, Supplier<Trainer> loader) {
+        long now = System.currentTimeMillis();
+        Document cached = documents.get(id);
+        if (cached != null && now < cached.expiresAt()) {
+            return cached;
+        }
+        Object ticket = new Object();
+        loading.put(id, ticket);
+        try {
+            long staleBefore = StaleReads.servedCount();
+            Document document = encode(loader.get(), now);
+            // DBに接続できずに古い結果が返された場合は、キャッシュに入れない
+            if (properties.isDocumentEnabled() && StaleReads.servedCount() == staleBefore) {
+                store(id, document, ticket);
+            }
+            return document;
+        } finally {
+            loading.remove(id, ticket);
+        }
+    }
+
+    @EventListener
+    public void onTrainerChanged(TrainerChangedEvent event) {
+        if (event.type() == TrainerChangedEvent.Type.CREATED) {
+            return;
+        }
+        int id = event.before().id();
+        evict(id);
+        remoteTier.publish(CHANNEL_PREFIX + id);
+    }
+
+    public void evict(int id) {
+        loading.remove(id);
+        documents.remove(id);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private void store(int id, Document document, Object ticket) {
+        // 件数の上限に達していたら、どれか1件を追い出してから入れる
+        if (documents.size() >= properties.getDocumentMaxEntries() && !documents.containsKey(id)) {
+            Iterator<Integer> keys = documents.keySet().iterator();
+            if (keys.hasNext()) {
+                documents.remove(keys.next());
+            }
+        }
+        // 同じidの読み込みが後から始まった場合も札が替わるので、後の読み込みに任せる
+        documents.compute(id, (key, current) -> loading.remove(id, ticket) ? document : current);
+    }
+
+    private Document encode(Trainer trainer, long now) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(trainer);
+            byte[] gzip = properties.isDocumentGzip() && json.length >= properties.getDocumentGzipMinBytes() ? gzip(json) : null;
+            return new Document(json, gzip, now + properties.getTtl().toMillis());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("トレーナーをJSONに変換できませんでした: id=" + trainer.id(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void onInvalidation(String message) {
+        if (message.startsWith(CHANNEL_PREFIX)) {
+            evict(Integer.parseInt(message.substring(CHANNEL_PREFIX.length())));
+        }
+    }
+
+    // gzipは圧縮しない設定やJSONが小さい場合はnull
+    public record Document(byte[] json, byte[] gzip, long expiresAt) {
+    }
+}
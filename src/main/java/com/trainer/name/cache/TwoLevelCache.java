@@ -0,0 +1,261 @@
+package com.trainer.name.cache;
+
+import com.trainer.name.resilience.StaleReads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// ノード内のニアキャッシュと、全ノードで共有するリモート層を組み合わせたキャッシュ
+// 読み込み: ニア → リモート → DB（loader）の順に探す
+// 書き込み: evict/clearはリモート層から消したうえで、pub/subで他ノードのニアキャッシュにも無効化を伝える
+public class TwoLevelCache implements Cache {
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCache.class);
+    private static final String SEPARATOR = "\t";
+    private static final String ALL_KEYS = "*";
+
+    private final String name;
+    private final RemoteCacheTier remoteTier;
+    private final Duration ttl;
+    private final Duration nearTtl;
+    private final int nearMaxEntries;
+    private final double beta;
+    private final Duration invalidationHold;
+    private final Map<String, NearEntry> nearCache = new ConcurrentHashMap<>();
+    // 読み込み中のキーごとの結果。無効化されたら取り除き、その読み込みの値は保存しない
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    public TwoLevelCache(String name, RemoteCacheTier remoteTier, TrainerCacheProperties properties) {
+        this.name = name;
+        this.remoteTier = remoteTier;
+        this.ttl = properties.getTtl();
+        this.nearTtl = properties.getNearTtl();
+        this.nearMaxEntries = properties.getNearMaxEntries();
+        this.beta = properties.getBeta();
+        this.invalidationHold = properties.getInvalidationHold();
+        remoteTier.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return nearCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheEntry entry = lookup(key.toString(), System.currentTimeMillis());
+        return entry == null ? null : new SimpleValueWrapper(entry.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        return wrapper == null ? null : (T) wrapper.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = key.toString();
+        CacheEntry entry = lookup(cacheKey, System.currentTimeMillis());
+        if (entry != null && !shouldRefreshEarly(entry)) {
+            return (T) entry.value();
+        }
+
+        // 同じノード内では1キーにつき1スレッドだけがDBを読みに行き、他のスレッドはその結果を待つ
+        // （ロックは取らないので、遅い読み込みが他のキーを待たせない）
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(cacheKey, load);
+        if (inFlight != null) {
+            // 早期リフレッシュは他のスレッドに任せ、まだ期限内の値を返す
+            return entry != null ? (T) entry.value() : (T) await(inFlight);
+        }
+        try {
+            T value = loadAndStore(cacheKey, key, entry, valueLoader, load);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loading.remove(cacheKey, load);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T loadAndStore(String cacheKey, Object key, CacheEntry entry, Callable<T> valueLoader,
+                               CompletableFuture<Object> load) {
+        // 前の読み込みが終わった直後なら、その値を使う
+        CacheEntry current = lookup(cacheKey, System.currentTimeMillis());
+        if (current != null && (entry == null || current.expiresAt() != entry.expiresAt())) {
+            return (T) current.value();
+        }
+
+        long start = System.nanoTime();
+        long staleBefore = StaleReads.servedCount();
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        // DBに接続できずに古い結果が返された場合は、他のノードにも広がらないよう保存しない
+        if (StaleReads.servedCount() == staleBefore) {
+            store(cacheKey, value, (System.nanoTime() - start) / 1_000_000, load);
+        }
+        return value;
+    }
+
+    private static Object await(CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store(key.toString(), value, 0, null);
+    }
+
+    // 読み込み中の値は保存させず、リモート層にはしばらく書き込ませない目印を置く
+    // （無効化の前にDBを読んだ読み込みが、後から古い値を書き込まないように）
+    @Override
+    public void evict(Object key) {
+        String cacheKey = key.toString();
+        loading.remove(cacheKey);
+        nearCache.remove(cacheKey);
+        try {
+            remoteTier.put(remoteKey(cacheKey), CacheEntry.invalidated(System.currentTimeMillis() + invalidationHold.toMillis()),
+                    invalidationHold);
+            remoteTier.publish(name + SEPARATOR + cacheKey);
+        } catch (RuntimeException ex) {
+            log.warn("リモートキャッシュの無効化に失敗しました: cache={}, key={}", name, cacheKey, ex);
+        }
+    }
+
+    @Override
+    public void clear() {
+        loading.clear();
+        nearCache.clear();
+        try {
+            remoteTier.evictByPrefix(remoteKey(""));
+            remoteTier.publish(name + SEPARATOR + ALL_KEYS);
+        } catch (RuntimeException ex) {
+            log.warn("リモートキャッシュのクリアに失敗しました: cache={}", name, ex);
+        }
+    }
+
+    private CacheEntry lookup(String cacheKey, long now) {
+        NearEntry near = nearCache.get(cacheKey);
+        if (near != null) {
+            if (now < near.expiresAt() && !near.entry().isExpired(now)) {
+                return near.entry();
+            }
+            nearCache.remove(cacheKey, near);
+        }
+
+        CacheEntry remote;
+        try {
+            remote = remoteTier.get(remoteKey(cacheKey));
+        } catch (RuntimeException ex) {
+            // リモート層が落ちていてもDBから読めるようにする
+            log.warn("リモートキャッシュの読み込みに失敗しました: cache={}, key={}", name, cacheKey, ex);
+            return null;
+        }
+        if (remote == null || remote.isInvalidated() || remote.isExpired(now)) {
+            return null;
+        }
+        putNear(cacheKey, remote, now);
+        return remote;
+    }
+
+    // loadがnullでなければ、その読み込みの間に無効化されていないときだけ保存する
+    private void store(String cacheKey, Object value, long computeMillis, CompletableFuture<Object> load) {
+        if (value == null || isInvalidatedDuring(cacheKey, load)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        CacheEntry entry = new CacheEntry(value, now + ttl.toMillis(), computeMillis);
+        String remoteKey = remoteKey(cacheKey);
+        try {
+            CacheEntry remote = remoteTier.get(remoteKey);
+            if (remote != null && remote.isInvalidated()) {
+                // 他のノードで無効化された直後なので、読み込んだ値が古いかもしれない
+                return;
+            }
+            remoteTier.put(remoteKey, entry, ttl);
+        } catch (RuntimeException ex) {
+            log.warn("リモートキャッシュへの書き込みに失敗しました: cache={}, key={}", name, cacheKey, ex);
+        }
+        putNear(cacheKey, entry, now);
+        // 書き込んでいる間に無効化された場合は、書き込んだ値を消し直す
+        if (isInvalidatedDuring(cacheKey, load)) {
+            evict(cacheKey);
+        }
+    }
+
+    private boolean isInvalidatedDuring(String cacheKey, CompletableFuture<Object> load) {
+        return load != null && loading.get(cacheKey) != load;
+    }
+
+    private void putNear(String cacheKey, CacheEntry entry, long now) {
+        if (nearCache.size() >= nearMaxEntries) {
+            // 上限を超えたら期限切れのものから捨て、それでも足りなければ任意のエントリを捨てる
+            nearCache.values().removeIf(near -> now >= near.expiresAt());
+            Iterator<String> iterator = nearCache.keySet().iterator();
+            while (nearCache.size() >= nearMaxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        nearCache.put(cacheKey, new NearEntry(entry, Math.min(now + nearTtl.toMillis(), entry.expiresAt())));
+    }
+
+    private boolean shouldRefreshEarly(CacheEntry entry) {
+        // nextDouble()は0を返しうるので(0, 1]の範囲に変換する
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return entry.shouldRefreshEarly(System.currentTimeMillis(), beta, random);
+    }
+
+    private void onInvalidation(String message) {
+        int separator = message.indexOf(SEPARATOR);
+        if (separator < 0 || !name.equals(message.substring(0, separator))) {
+            return;
+        }
+        String cacheKey = message.substring(separator + 1);
+        if (ALL_KEYS.equals(cacheKey)) {
+            loading.clear();
+            nearCache.clear();
+        } else {
+            loading.remove(cacheKey);
+            nearCache.remove(cacheKey);
+        }
+    }
+
+    private String remoteKey(String cacheKey) {
+        return "trainer-cache:" + name + ":" + cacheKey;
+    }
+
+    private record NearEntry(CacheEntry entry, long expiresAt) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.trainer.name.cache;
+
+import org.apache.ibatis.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// MyBatisの2次キャッシュ（@CacheNamespace）の実装
+// 件数ではなく値の推定メモリ量の合計でLRUに追い出し、ttlを過ぎたエントリは返さない
+// 同じnamespaceの@Insert/@Update/@Deleteが実行されるとMyBatisがclear()を呼ぶ
+// clear()はMapperCacheInvalidationがリモート層のpub/subで他のノードにも伝える
+// 伝わるまでの間（と、伝わる前に読み始めた結果）はttlが古い値を返しうる上限になる
+public class WeightedMapperCache implements Cache {
+    private final String id;
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long weight;
+    // @Propertyで設定する（mybatis.configuration-propertiesのプレースホルダーを使える）
+    private long maxBytes = 16 * 1024 * 1024;
+    private long ttlSeconds = 60;
+    // このノードでのclear()の後に呼ぶ（他のノードへの配信）
+    private volatile Runnable clearListener = () -> {
+    };
+
+    public WeightedMapperCache(String id) {
+        this.id = id;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public void setClearListener(Runnable clearListener) {
+        this.clearListener = clearListener;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        // 呼び出し側で結果のリストを書き換えても、キャッシュ内の値が変わらないようにする
+        Object stored = value instanceof List<?> list ? Collections.unmodifiableList(new ArrayList<>(list)) : value;
+        // 見積もりはロックの外で行い、上限を超えた時点で打ち切る（大きな結果の走査で他の読み書きを待たせない）
+        long entryWeight = ObjectWeigher.weigh(key.toString(), maxBytes);
+        entryWeight += ObjectWeigher.weigh(stored, maxBytes - Math.min(entryWeight, maxBytes));
+        if (entryWeight > maxBytes) {
+            return;
+        }
+        store(key, new Entry(stored, entryWeight, System.nanoTime() + ttlSeconds * 1_000_000_000L));
+    }
+
+    private synchronized void store(Object key, Entry entry) {
+        long entryWeight = entry.weight();
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+        weight += entryWeight;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (weight > maxBytes && eldest.hasNext()) {
+            weight -= eldest.next().weight();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    @Override
+    public synchronized Object getObject(Object key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt() - System.nanoTime() < 0) {
+            if (entry != null) {
+                entries.remove(key);
+                weight -= entry.weight();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value();
+    }
+
+    @Override
+    public synchronized Object removeObject(Object key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        weight -= entry.weight();
+        return entry.value();
+    }
+
+    @Override
+    public void clear() {
+        clearLocally();
+        clearListener.run();
+    }
+
+    // 他のノードから伝わった無効化。再び配信はしない
+    public synchronized void clearLocally() {
+        entries.clear();
+        weight = 0;
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public synchronized long weightBytes() {
+        return weight;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public double hitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    private record Entry(Object value, long weight, long expiresAt) {
+    }
+}
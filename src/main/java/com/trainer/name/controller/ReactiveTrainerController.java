@@ -0,0 +1,82 @@
+package com.trainer.name.controller;
+
+import com.trainer.name.controller.request.TrainerRequest;
+import com.trainer.name.controller.response.TrainerResponse;
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.service.ReactiveTrainerService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+// reactiveプロファイルで有効になるWebFlux版のTrainerController
+// 一覧系はFluxのまま返すので、application/x-ndjsonを指定すると1件ずつストリーミングされる
+@RestController
+@Validated
+@Profile("reactive")
+public class ReactiveTrainerController {
+    private final ReactiveTrainerService trainerService;
+
+    public ReactiveTrainerController(ReactiveTrainerService trainerService) {
+        this.trainerService = trainerService;
+    }
+
+    // GET(Read処理)
+    @GetMapping(value = "/trainers", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Trainer> findTrainers(
+            @RequestParam(required = false) String startingWith,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String email) {
+
+        if (startingWith != null) {
+            return trainerService.findByNameStartingWith(startingWith);
+        }
+
+        if (name != null) {
+            return trainerService.findByName(name);
+        }
+
+        if (email != null) {
+            return trainerService.findByEmail(email);
+        }
+
+        return trainerService.findAll();
+    }
+
+    // GET(Read処理)
+    @GetMapping("/trainers/{id}")
+    public Mono<Trainer> findTrainer(@PathVariable Integer id) {
+        return trainerService.findById(id);
+    }
+
+    // POST（Create処理）
+    @PostMapping("/trainers")
+    public Mono<ResponseEntity<TrainerResponse>> insert(@Valid @RequestBody TrainerRequest trainerRequest, UriComponentsBuilder uriBuilder) {
+        return trainerService.insert(trainerRequest.name(), trainerRequest.email())
+                .map(trainer -> {
+                    URI location = uriBuilder.path("/trainers/{id}").buildAndExpand(trainer.id()).toUri();
+                    return ResponseEntity.created(location).body(new TrainerResponse("トレーナーを作成しました"));
+                });
+    }
+
+    // PATCH（Update処理）
+    @PatchMapping("/trainers/{id}")
+    public Mono<TrainerResponse> update(@PathVariable Integer id, @Valid @RequestBody TrainerRequest trainerRequest) {
+        return trainerService.update(id, trainerRequest.name(), trainerRequest.email())
+                .thenReturn(new TrainerResponse("トレーナーを更新しました"));
+    }
+
+    // DELETE（Delete処理）
+    @DeleteMapping("/trainers/{id}")
+    public Mono<TrainerResponse> delete(@PathVariable Integer id) {
+        return trainerService.delete(id)
+                .thenReturn(new TrainerResponse("トレーナーを削除しました"));
+    }
+}
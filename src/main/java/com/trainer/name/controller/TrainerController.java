@@ -1,22 +1,41 @@
 package com.trainer.name.controller;
 
+import com.trainer.name.cache.TrainerDocumentCache;
 import com.trainer.name.controller.request.TrainerRequest;
+import com.trainer.name.controller.response.TrainerCountResponse;
 import com.trainer.name.controller.response.TrainerResponse;
 import com.trainer.name.entity.Trainer;
+import com.trainer.name.entity.TrainerSummary;
 import com.trainer.name.exception.TrainerNotFoundException;
+import com.trainer.name.mapper.TrainerSearchCriteria;
 import com.trainer.name.service.TrainerService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 @RestController
 @Validated
+@Profile("!reactive")
 public class TrainerController {
+    // 組み合わせた検索でlimitを省略した場合の件数
+    private static final int DEFAULT_SEARCH_LIMIT = 100;
+
     private final TrainerService trainerService;
 
     public TrainerController(TrainerService trainerService) {
@@ -24,44 +43,114 @@ public class TrainerController {
     }
 
     // GET(Read処理)
+    // summary=trueの場合はidと名前だけを返す（一覧と名前での検索のみ）
+    // 条件を2つ以上指定するか、sort・limitを指定した場合は全ての条件を組み合わせて検索する（searchを参照）
     @GetMapping("/trainers")
-    public List<Trainer> findTrainers(
+    public List<?> findTrainers(
             @RequestParam(required = false) String startingWith,
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String email) throws TrainerNotFoundException {
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "0") int afterId,
+            @RequestParam(required = false) String afterName,
+            @RequestParam(required = false) @Min(1) @Max(1000) Integer limit,
+            @RequestParam(required = false) @Pattern(regexp = "id|name") String sort,
+            @RequestParam(defaultValue = "asc") @Pattern(regexp = "asc|desc") String order,
+            @RequestParam(defaultValue = "false") boolean summary) throws TrainerNotFoundException {
+
+        long filters = Stream.of(startingWith, name, email).filter(Objects::nonNull).count();
+        if (filters > 1 || sort != null || (filters == 1 && limit != null)) {
+            TrainerSearchCriteria criteria = new TrainerSearchCriteria(name, startingWith, email,
+                    "name".equals(sort) ? TrainerSearchCriteria.Sort.NAME : TrainerSearchCriteria.Sort.ID,
+                    "desc".equals(order), afterName, afterId == 0 ? null : afterId,
+                    limit == null ? DEFAULT_SEARCH_LIMIT : limit);
+            List<Trainer> trainers = trainerService.search(criteria);
+            return summary ? trainers.stream().map(trainer -> new TrainerSummary(trainer.id(), trainer.name())).toList() : trainers;
+        }
 
         if (startingWith != null) {
-            return trainerService.findByNameStartingWith(startingWith);
+            return summary ? trainerService.findSummariesByNameStartingWith(startingWith) : trainerService.findByNameStartingWith(startingWith);
         }
 
         if (name != null) {
-            return trainerService.findByName(name);
+            return summary ? trainerService.findSummariesByName(name) : trainerService.findByName(name);
         }
 
         if (email != null) {
             return trainerService.findByEmail(email);
         }
 
-        return trainerService.findAll();
+        // limitを指定した場合はidの順にページングする（次のページはafterIdに最後のidを渡す）
+        if (limit != null) {
+            return trainerService.findPage(afterId, limit);
+        }
+
+        return summary ? trainerService.findSummaries() : trainerService.findAll();
+    }
+
+    // GET(件数)
+    // 絞り込まない件数はカウンターから読む。絞り込んだ件数は数えた結果をしばらく使い回すので、直前の更新が反映されないことがある
+    // startingWithは一覧と同じく名前の中間一致で数える
+    @GetMapping("/trainers/count")
+    public TrainerCountResponse count(
+            @RequestParam(required = false) String startingWith,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String email) {
+        if (startingWith != null) {
+            return new TrainerCountResponse(trainerService.countByName(startingWith));
+        }
+        if (name != null) {
+            return new TrainerCountResponse(trainerService.countByName(name));
+        }
+        if (email != null) {
+            return new TrainerCountResponse(trainerService.countByEmail(email));
+        }
+        return new TrainerCountResponse(trainerService.count());
+    }
+
+    // GET(名前の入力候補)
+    @GetMapping("/trainers/suggest")
+    public List<TrainerSummary> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
+            @RequestParam(defaultValue = "false") boolean fold) {
+        return trainerService.suggest(prefix, limit, fold);
     }
 
     // GET(Read処理)
+    // エンコード済みのJSONをメッセージコンバーターを通さずにそのまま書き込む
     @GetMapping("/trainers/{id}")
-    public Trainer findTrainer(@PathVariable Integer id) throws TrainerNotFoundException {
-        return trainerService.findById(id);
+    public void findTrainer(@PathVariable Integer id, HttpServletRequest request, HttpServletResponse response)
+            throws TrainerNotFoundException, IOException {
+        TrainerDocumentCache.Document document = trainerService.findDocumentById(id);
+        byte[] body = document.json();
+        if (document.gzip() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                body = document.gzip();
+            }
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
     }
 
     /*例：http://localhost:8080/trainers?email=Sazare318@heisei.bluebe
       例：http://localhost:8080/trainers/1
       例：http://localhost:8080/trainers
+      例：http://localhost:8080/trainers?afterId=20&limit=20
+      例：http://localhost:8080/trainers?startingWith=ゼ&summary=true
       例：http://localhost:8080/trainers?name=ゼイユ
-      例：http://localhost:8080/trainers?startingWith=あ */
+      例：http://localhost:8080/trainers/count?name=ゼ
+      例：http://localhost:8080/trainers?startingWith=あ
+      例：http://localhost:8080/trainers/suggest?prefix=ぜ&limit=5&fold=true */
 
     // POST（Create処理）
     @PostMapping("/trainers")
     public ResponseEntity<TrainerResponse> insert(@Valid @RequestBody TrainerRequest trainerRequest, UriComponentsBuilder uriBuilder) {
-        Trainer trainer = trainerService.insert(trainerRequest.getName(), trainerRequest.getEmail());
-        URI location = uriBuilder.path("/trainers/{id}").buildAndExpand(trainer.getId()).toUri();
+        Trainer trainer = trainerService.insert(trainerRequest.name(), trainerRequest.email());
+        URI location = uriBuilder.path("/trainers/{id}").buildAndExpand(trainer.id()).toUri();
         TrainerResponse body = new TrainerResponse("トレーナーを作成しました");
         return ResponseEntity.created(location).body(body);
     }
@@ -69,7 +158,7 @@ public class TrainerController {
     // PATCH（Update処理）
     @PatchMapping("/trainers/{id}")
     public TrainerResponse update(@PathVariable Integer id, @Valid @RequestBody TrainerRequest trainerRequest) throws TrainerNotFoundException {
-        trainerService.update(id, trainerRequest.getName(), trainerRequest.getEmail());
+        trainerService.update(id, trainerRequest.name(), trainerRequest.email());
         return new TrainerResponse("トレーナーを更新しました");
     }
 
@@ -0,0 +1,4 @@
+package com.trainer.name.controller.response;
+
+public record TrainerCountResponse(long count) {
+}
@@ -1,14 +1,4 @@
 package com.trainer.name.controller.response;
 
-public class TrainerResponse {
-
-    private String message;
-
-    public TrainerResponse(String message) {
-        this.message = message;
-    }
-
-    public String getMessage() {
-        return message;
-    }
+public record TrainerResponse(String message) {
 }
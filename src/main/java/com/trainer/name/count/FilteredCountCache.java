@@ -0,0 +1,63 @@
+package com.trainer.name.count;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// 絞り込みの条件ごとの件数を、ttlの間だけ件数の上限付き（LRU）で持つ
+// 更新されても消さないので、ttlの間は古い件数を返すことがある
+final class FilteredCountCache {
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final Map<Key, Entry> entries;
+
+    FilteredCountCache(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, System::nanoTime);
+    }
+
+    FilteredCountCache(Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > FilteredCountCache.this.maxEntries;
+            }
+        };
+    }
+
+    long get(TrainerCounter.Filter filter, String value, LongSupplier loader) {
+        if (ttlNanos <= 0) {
+            return loader.getAsLong();
+        }
+        Key key = new Key(filter, value);
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt() < ttlNanos) {
+                return entry.count();
+            }
+        }
+        // 数えている間はロックを持たない（同じ条件が同時に来ると、それぞれが数える）
+        long count = loader.getAsLong();
+        synchronized (entries) {
+            entries.put(key, new Entry(count, now));
+        }
+        return count;
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Key(TrainerCounter.Filter filter, String value) {
+    }
+
+    private record Entry(long count, long loadedAt) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.trainer.name.count;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "trainer.count")
+public class TrainerCountProperties {
+    // 名前・メールアドレスで絞り込んだ件数を使い回す時間（0で毎回数える）
+    private Duration filteredTtl = Duration.ofSeconds(30);
+    private int filteredMaxEntries = 10_000;
+    // カウンターをCOUNT(*)で数え直す間隔（trainer_countsを経由しない一括投入などのずれを直す）
+    private Duration reconcileInterval = Duration.ofHours(1);
+
+    public Duration getFilteredTtl() {
+        return filteredTtl;
+    }
+
+    public void setFilteredTtl(Duration filteredTtl) {
+        this.filteredTtl = filteredTtl;
+    }
+
+    public int getFilteredMaxEntries() {
+        return filteredMaxEntries;
+    }
+
+    public void setFilteredMaxEntries(int filteredMaxEntries) {
+        this.filteredMaxEntries = filteredMaxEntries;
+    }
+
+    public Duration getReconcileInterval() {
+        return reconcileInterval;
+    }
+
+    public void setReconcileInterval(Duration reconcileInterval) {
+        this.reconcileInterval = reconcileInterval;
+    }
+}
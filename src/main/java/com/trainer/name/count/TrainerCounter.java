@@ -0,0 +1,80 @@
+package com.trainer.name.count;
+
+import com.trainer.name.mapper.TrainerCountMapper;
+import com.trainer.name.mapper.TrainerMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+// trainersの行数をtrainer_countsのカウンターで返す（COUNT(*)で全件を走査しない）
+// INSERT/DELETEと同じトランザクションで、SLOTS行のうちランダムな1行に足し込む（1行のロックに更新が集中しないように）
+// 名前・メールアドレスでの絞り込みはカウンターを持たずに数えるので、結果をしばらく使い回す
+@Component
+@Profile("!reactive")
+@EnableConfigurationProperties(TrainerCountProperties.class)
+public class TrainerCounter {
+    private static final Logger log = LoggerFactory.getLogger(TrainerCounter.class);
+    public static final String COUNTER_NAME = "trainers";
+    public static final int SLOTS = 16;
+
+    public enum Filter {
+        NAME, EMAIL
+    }
+
+    private final TrainerCountMapper countMapper;
+    private final TrainerMapper trainerMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final FilteredCountCache filteredCounts;
+
+    public TrainerCounter(TrainerCountMapper countMapper, TrainerMapper trainerMapper, PlatformTransactionManager transactionManager,
+                          TrainerCountProperties properties) {
+        this.countMapper = countMapper;
+        this.trainerMapper = trainerMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // REPEATABLE READでは、最初の読み込みのスナップショットでトランザクション内の読み込みがそろう
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTemplate.setReadOnly(true);
+        this.filteredCounts = new FilteredCountCache(properties.getFilteredTtl(), properties.getFilteredMaxEntries());
+    }
+
+    // 行を増減したのと同じトランザクションの中で呼ぶ
+    public void add(long delta) {
+        if (delta != 0) {
+            countMapper.add(COUNTER_NAME, ThreadLocalRandom.current().nextInt(SLOTS), delta);
+        }
+    }
+
+    public long total() {
+        return countMapper.sum(COUNTER_NAME);
+    }
+
+    public long filtered(Filter filter, String value, LongSupplier loader) {
+        return filteredCounts.get(filter, value, loader);
+    }
+
+    // trainer_countsを経由しないINSERT（負荷試験の投入など）があっても、ずれたままにならないよう定期的に数え直す
+    // カウンターの合計と行数は同じスナップショットで読み、カウンターの行はロックしない（数えている間も足し込みを待たせない）
+    // 差分だけを足し込むので、数え終わってから足し込むまでの増減も打ち消されない
+    // シャーディングしている場合はシャードへの書き込みが別のトランザクションになるため、数え直した値も近似になる
+    @Scheduled(fixedDelayString = "${trainer.count.reconcile-interval:PT1H}", initialDelayString = "${trainer.count.reconcile-interval:PT1H}")
+    public void reconcile() {
+        long[] snapshot = snapshotTemplate.execute(status -> new long[]{countMapper.sum(COUNTER_NAME), trainerMapper.countAll()});
+        long counted = snapshot[0];
+        long actual = snapshot[1];
+        if (counted != actual) {
+            log.info("トレーナーの件数のカウンターを数え直しました: {} -> {}", counted, actual);
+            transactionTemplate.executeWithoutResult(status -> countMapper.add(COUNTER_NAME, 0, actual - counted));
+        }
+    }
+}
@@ -1,47 +1,7 @@
 package com.trainer.name.entity;
 
-public class Trainer {
-    private Integer id;
-    private String name;
-    private String email;
-
-
-    public Trainer(Integer id, String name, String email) {
-        this.id = id;
-        this.name = name;
-        this.email = email;
-    }
-
-    public Integer getId() {
-        return id;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    public String getEmail() {
-        return email;
-    }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Trainer trainer = (Trainer) o;
-        if (id == null) {
-            if (trainer.id != null) return false;
-        } else if (!id.equals(trainer.id)) return false;
-        return true;
-    }
-
-    @Override
-    public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + id;
-        result = prime * result + ((name == null) ? 0 : name.hashCode());
-        return result;
-    }
+import java.io.Serializable;
 
+// idは登録前（INSERTで採番される前）はnull
+public record Trainer(Integer id, String name, String email) implements Serializable {
 }
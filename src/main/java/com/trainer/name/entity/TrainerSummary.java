@@ -0,0 +1,7 @@
+package com.trainer.name.entity;
+
+import java.io.Serializable;
+
+// 一覧・候補表示用にidと名前だけを持つトレーナー
+public record TrainerSummary(Integer id, String name) implements Serializable {
+}
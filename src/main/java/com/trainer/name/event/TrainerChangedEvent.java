@@ -0,0 +1,29 @@
+package com.trainer.name.event;
+
+import com.trainer.name.entity.Trainer;
+
+// TrainerServiceで登録・更新・削除が行われたときに発行されるイベント
+// before/afterは登録時・削除時にそれぞれnullになる
+// TrainerServiceの削除は削除前の行を読まないので、beforeはidだけを持つ（名前・メールアドレスはnull）
+public record TrainerChangedEvent(Type type, Trainer before, Trainer after) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static TrainerChangedEvent created(Trainer trainer) {
+        return new TrainerChangedEvent(Type.CREATED, null, trainer);
+    }
+
+    public static TrainerChangedEvent updated(Trainer before, Trainer after) {
+        return new TrainerChangedEvent(Type.UPDATED, before, after);
+    }
+
+    public static TrainerChangedEvent deleted(Trainer trainer) {
+        return new TrainerChangedEvent(Type.DELETED, trainer, null);
+    }
+
+    public static TrainerChangedEvent deleted(int id) {
+        return deleted(new Trainer(id, null, null));
+    }
+}
@@ -0,0 +1,17 @@
+package com.trainer.name.exception;
+
+import java.time.Duration;
+
+// DBに接続できない、またはサーキットブレーカーが開いていて問い合わせを止めている
+public class DatabaseUnavailableException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public DatabaseUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,13 @@
+package com.trainer.name.id;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// reactiveプロファイルのINSERTはR2DBCでAUTO_INCREMENTに任せ、trainer_id_sequenceを通らない
+// segmentの採番と併用できないので、trainer.idのバインド時の検証で起動を止める
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(ReactiveTrainerIdProperties.class)
+public class ReactiveIdAllocatorCheck {
+}
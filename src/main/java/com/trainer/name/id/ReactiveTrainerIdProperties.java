@@ -0,0 +1,17 @@
+package com.trainer.name.id;
+
+import jakarta.validation.constraints.AssertTrue;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+// reactiveプロファイル用のtrainer.id。バインド時に検証し、起動失敗の理由はFailureAnalyzerが設定名とともに表示する
+@ConfigurationProperties(prefix = "trainer.id")
+@Validated
+public class ReactiveTrainerIdProperties extends TrainerIdProperties {
+
+    // R2DBCのINSERTはtrainer_id_sequenceを通らないので、segmentと併用すると他のノードが借りたブロックのidと重なる
+    @AssertTrue(message = "reactiveプロファイルではtrainer.id.allocator=segmentを使えません。databaseを指定してください")
+    public boolean isDatabaseAllocator() {
+        return getAllocator() == Allocator.DATABASE;
+    }
+}
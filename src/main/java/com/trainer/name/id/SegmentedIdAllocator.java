@@ -0,0 +1,121 @@
+package com.trainer.name.id;
+
+import com.trainer.name.mapper.TrainerIdSequenceMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// trainer_id_sequenceからidをblockSize個ずつ借り（1回の行ロックと更新）、メモリ上でロックを取らずに払い出す
+// 残りが少なくなったら次のブロックを別スレッドで借りておき、使い切ったときにDBを待たずに切り替える
+// 借りたidは呼び出し元のトランザクションがロールバックされても戻さない。再起動すると使い残しは欠番になる
+public class SegmentedIdAllocator implements TrainerIdAllocator, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedIdAllocator.class);
+    static final String SEQUENCE_NAME = "trainers";
+
+    private final TrainerIdSequenceMapper sequenceMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    // 残りがこの数になった時点で次のブロックを借り始める（0なら先読みしない）
+    private final int prefetchThreshold;
+    private final ExecutorService prefetchExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("trainer-id-prefetch-"));
+
+    private volatile Segment current;
+    private final AtomicReference<CompletableFuture<Segment>> next = new AtomicReference<>();
+
+    public SegmentedIdAllocator(TrainerIdSequenceMapper sequenceMapper, PlatformTransactionManager transactionManager,
+                                int blockSize, double prefetchRatio) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSizeは1以上にしてください: " + blockSize);
+        }
+        this.sequenceMapper = sequenceMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 呼び出し元のトランザクションとは別にすぐコミットし、行ロックを持ち続けない
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.prefetchThreshold = prefetchRatio <= 0 ? 0 : Math.max(1, (int) (blockSize * prefetchRatio));
+    }
+
+    @Override
+    public int nextId() {
+        while (true) {
+            Segment segment = current;
+            if (segment != null) {
+                long id = segment.cursor.getAndIncrement();
+                if (id < segment.end) {
+                    // ちょうど閾値に当たったスレッドだけが先読みを始める
+                    if (prefetchThreshold > 0 && segment.end - id == prefetchThreshold) {
+                        prefetch();
+                    }
+                    return Math.toIntExact(id);
+                }
+            }
+            switchSegment(segment);
+        }
+    }
+
+    // 使い切ったブロックを次のブロックに入れ替える（入れ替えの間だけ排他する）
+    private synchronized void switchSegment(Segment exhausted) {
+        if (current != exhausted) {
+            return;
+        }
+        CompletableFuture<Segment> prefetched = next.getAndSet(null);
+        if (prefetched != null) {
+            try {
+                current = prefetched.join();
+                return;
+            } catch (CompletionException e) {
+                log.warn("idの先読みに失敗したため、改めて借ります", e.getCause());
+            }
+        }
+        current = lease();
+    }
+
+    private void prefetch() {
+        CompletableFuture<Segment> future = new CompletableFuture<>();
+        if (!next.compareAndSet(null, future)) {
+            return;
+        }
+        prefetchExecutor.execute(() -> {
+            try {
+                future.complete(lease());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+    }
+
+    private Segment lease() {
+        Long start = transactionTemplate.execute(status -> {
+            long nextId = sequenceMapper.lockNextId(SEQUENCE_NAME);
+            sequenceMapper.updateNextId(SEQUENCE_NAME, nextId + blockSize);
+            return nextId;
+        });
+        return new Segment(start, start + blockSize);
+    }
+
+    @Override
+    public void close() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    private static final class Segment {
+        final long end;
+        final AtomicLong cursor;
+
+        Segment(long start, long end) {
+            this.end = end;
+            this.cursor = new AtomicLong(start);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.trainer.name.id;
+
+// INSERTの前にトレーナーのidを決める（AUTO_INCREMENTの代わり。シャーディングでは全シャードで一意なidになる）
+public interface TrainerIdAllocator {
+
+    int nextId();
+}
@@ -0,0 +1,23 @@
+package com.trainer.name.id;
+
+import com.trainer.name.mapper.TrainerIdSequenceMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// trainer.id.allocator=segment のときだけ、INSERTの前にアプリでidを決める
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(TrainerIdProperties.class)
+public class TrainerIdConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "trainer.id.allocator", havingValue = "segment")
+    public SegmentedIdAllocator trainerIdAllocator(TrainerIdSequenceMapper sequenceMapper, PlatformTransactionManager transactionManager,
+                                                   TrainerIdProperties properties) {
+        return new SegmentedIdAllocator(sequenceMapper, transactionManager, properties.getBlockSize(), properties.getPrefetchRatio());
+    }
+}
@@ -0,0 +1,41 @@
+package com.trainer.name.id;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "trainer.id")
+public class TrainerIdProperties {
+    // database: INSERTのAUTO_INCREMENTで採番する, segment: trainer_id_sequenceからまとめて借りたidをアプリで払い出す
+    private Allocator allocator = Allocator.DATABASE;
+    // 1回の問い合わせで借りるidの数（再起動すると使い残しは欠番になる）
+    private int blockSize = 1000;
+    // 残りがブロックのこの割合を下回ったら、次のブロックを裏で借りておく（0で先読みしない）
+    private double prefetchRatio = 0.2;
+
+    public enum Allocator {
+        DATABASE, SEGMENT
+    }
+
+    public Allocator getAllocator() {
+        return allocator;
+    }
+
+    public void setAllocator(Allocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public double getPrefetchRatio() {
+        return prefetchRatio;
+    }
+
+    public void setPrefetchRatio(double prefetchRatio) {
+        this.prefetchRatio = prefetchRatio;
+    }
+}
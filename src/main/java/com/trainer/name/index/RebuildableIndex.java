@@ -0,0 +1,16 @@
+package com.trainer.name.index;
+
+import com.trainer.name.entity.Trainer;
+
+import java.util.function.Consumer;
+
+// TrainerIndexRebuilderの1回の全件の読み込みから作り直すインメモリの索引
+interface RebuildableIndex {
+
+    // 構築中の世代を用意し、読み込んだ行の受け取り先を返す
+    // 読み込み中の変更イベントを取りこぼさないよう、返す前に構築中の世代を公開しておく
+    Consumer<Trainer> startRebuild(long rowCount);
+
+    // completedがtrueなら構築中の世代に差し替える。falseなら捨てて今の世代のまま答える
+    void finishRebuild(boolean completed);
+}
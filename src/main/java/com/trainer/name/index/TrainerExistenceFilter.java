@@ -0,0 +1,136 @@
+package com.trainer.name.index;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.event.TrainerChangedEvent;
+import com.trainer.name.util.EmailNormalizer;
+import com.trainer.name.util.NameCollation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// 登録済みのメールアドレスと名前を保持するBloomフィルタ
+// 「確実に存在しない」と分かればcountByEmail/countByNameを発行せずに済む
+// 削除された値は消せないので、TrainerIndexRebuilderが定期的に全件から作り直す
+@Component
+@Profile("!reactive")
+@EnableConfigurationProperties(TrainerIndexProperties.class)
+public class TrainerExistenceFilter implements MeterBinder, RebuildableIndex {
+    // 行数が少ないうちも、増えた分を作り直しまで吸収できるだけの余裕を持たせる
+    private static final long MIN_EXPECTED_INSERTIONS = 1024;
+
+    private final TrainerIndexProperties properties;
+    private final AtomicLong queriesAvoided = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private volatile Filters current;
+    private volatile Filters building;
+
+    public TrainerExistenceFilter(TrainerIndexProperties properties) {
+        this.properties = properties;
+    }
+
+    // 未構築のうちは常にtrueを返し、従来どおりDBに問い合わせる
+    public boolean mightContainEmail(String email) {
+        Filters filters = current;
+        if (filters == null || filters.emails().mightContain(EmailNormalizer.normalize(email))) {
+            return true;
+        }
+        queriesAvoided.incrementAndGet();
+        return false;
+    }
+
+    // 名前の一意制約は照合順序で比較されるので、大文字・小文字などをそろえたキーで判定する
+    public boolean mightContainName(String name) {
+        Filters filters = current;
+        if (filters == null || filters.names().mightContain(NameCollation.key(name))) {
+            return true;
+        }
+        queriesAvoided.incrementAndGet();
+        return false;
+    }
+
+    // mightContainがtrueだったのにDBには存在しなかったとき呼ばれる
+    // 未構築のうちはフィルタで判定していないので数えない
+    public void recordFalsePositive() {
+        if (current != null) {
+            falsePositives.incrementAndGet();
+        }
+    }
+
+    // 行数からサイズを決める
+    @Override
+    public Consumer<Trainer> startRebuild(long rowCount) {
+        long expectedInsertions = Math.max(MIN_EXPECTED_INSERTIONS, rowCount * 2);
+        double falsePositiveRate = properties.getExistenceFilterFalsePositiveRate();
+        Filters next = new Filters(
+                BloomFilter.create(expectedInsertions, falsePositiveRate),
+                BloomFilter.create(expectedInsertions, falsePositiveRate));
+        // 読み込み中に登録された値を取りこぼさないよう、先に構築中のフィルタを公開しておく
+        building = next;
+        return next::add;
+    }
+
+    @Override
+    public void finishRebuild(boolean completed) {
+        if (completed && building != null) {
+            current = building;
+        }
+        building = null;
+    }
+
+    @EventListener
+    public void onTrainerChanged(TrainerChangedEvent event) {
+        if (event.after() == null) {
+            return;
+        }
+        // rebuildと逆の順序で読むことで、どちらか一方には必ず追加される
+        Filters buildingFilters = building;
+        Filters currentFilters = current;
+        if (buildingFilters != null) {
+            buildingFilters.add(event.after());
+        }
+        if (currentFilters != null && currentFilters != buildingFilters) {
+            currentFilters.add(event.after());
+        }
+    }
+
+    public double expectedFalsePositiveRate() {
+        Filters filters = current;
+        return filters == null ? 0 : Math.max(filters.emails().expectedFalsePositiveRate(), filters.names().expectedFalsePositiveRate());
+    }
+
+    public long memoryBytes() {
+        Filters filters = current;
+        return filters == null ? 0 : filters.emails().memoryBytes() + filters.names().memoryBytes();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("trainer.existence.filter.false.positive.rate", this, TrainerExistenceFilter::expectedFalsePositiveRate)
+                .description("Bloomフィルタの理論上の偽陽性率")
+                .register(registry);
+        Gauge.builder("trainer.existence.filter.memory", this, TrainerExistenceFilter::memoryBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("trainer.existence.filter.queries.avoided", queriesAvoided, AtomicLong::get)
+                .description("Bloomフィルタで省略できたCOUNTクエリの数")
+                .register(registry);
+        FunctionCounter.builder("trainer.existence.filter.false.positives", falsePositives, AtomicLong::get)
+                .description("Bloomフィルタが存在するかもしれないと判定したが、DBには存在しなかった数")
+                .register(registry);
+    }
+
+    private record Filters(BloomFilter emails, BloomFilter names) {
+        void add(Trainer trainer) {
+            emails.put(EmailNormalizer.normalize(trainer.email()));
+            names.put(NameCollation.key(trainer.name()));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.trainer.name.index;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "trainer.index")
+public class TrainerIndexProperties {
+    // メールアドレス・名前の存在チェック用Bloomフィルタの偽陽性率
+    private double existenceFilterFalsePositiveRate = 0.01;
+    // 削除された値はBloomフィルタから消せないので、定期的にDBから作り直す
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+
+    public double getExistenceFilterFalsePositiveRate() {
+        return existenceFilterFalsePositiveRate;
+    }
+
+    public void setExistenceFilterFalsePositiveRate(double existenceFilterFalsePositiveRate) {
+        this.existenceFilterFalsePositiveRate = existenceFilterFalsePositiveRate;
+    }
+
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    public void setRebuildInterval(Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+}
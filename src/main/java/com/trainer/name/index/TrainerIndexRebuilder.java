@@ -0,0 +1,55 @@
+package com.trainer.name.index;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.mapper.TrainerMapper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Bloomフィルタと名前の索引を、1回の全件の読み込み（scanAll）でまとめて作り直す
+// 起動時と、イベントの届かない変更（他のノードや直接のSQLによるもの）を取り込むため定期的に行う
+@Component
+@Profile("!reactive")
+public class TrainerIndexRebuilder {
+    private final TrainerMapper trainerMapper;
+    private final List<RebuildableIndex> indexes;
+
+    public TrainerIndexRebuilder(TrainerMapper trainerMapper, TrainerExistenceFilter existenceFilter, TrainerNameIndex nameIndex) {
+        this.trainerMapper = trainerMapper;
+        this.indexes = List.of(existenceFilter, nameIndex);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${trainer.index.rebuild-interval:PT10M}", initialDelayString = "${trainer.index.rebuild-interval:PT10M}")
+    public void rebuild() {
+        long rowCount = trainerMapper.countAll();
+        List<Consumer<Trainer>> sinks = new ArrayList<>(indexes.size());
+        for (RebuildableIndex index : indexes) {
+            sinks.add(index.startRebuild(rowCount));
+        }
+        boolean completed = false;
+        try {
+            trainerMapper.scanAll(context -> {
+                Trainer trainer = context.getResultObject();
+                for (Consumer<Trainer> sink : sinks) {
+                    sink.accept(trainer);
+                }
+            });
+            completed = true;
+        } finally {
+            for (RebuildableIndex index : indexes) {
+                index.finishRebuild(completed);
+            }
+        }
+    }
+}
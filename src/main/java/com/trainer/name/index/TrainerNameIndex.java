@@ -0,0 +1,250 @@
+package com.trainer.name.index;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.entity.TrainerSummary;
+import com.trainer.name.event.TrainerChangedEvent;
+import com.trainer.name.util.KanaFolding;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+// 名前の前方一致検索（オートコンプリート）用のインメモリ索引
+// 全件の読み込みから、正規化した名前の昇順に並べた配列を作り、前方一致は二分探索と範囲の走査だけで求める
+// 作り直した後の変更はTrainerServiceの更新イベントで、変わった行だけの小さなマップに反映する
+// 全件の読み込みはTrainerExistenceFilterと共有し、TrainerIndexRebuilderが定期的に行う
+@Component
+@Profile("!reactive")
+public class TrainerNameIndex implements RebuildableIndex {
+    // 同じ正規化結果の名前を区別するため、並び順は「正規化した名前 + 区切り + id」で決める
+    private static final char ID_SEPARATOR = '\u0000';
+    // 削除された行の目印
+    private static final TrainerSummary REMOVED = new TrainerSummary(null, null);
+
+    private volatile Generation current;
+    private volatile Generation building;
+
+    public TrainerNameIndex() {
+        this.current = new Generation();
+    }
+
+    @Override
+    public Consumer<Trainer> startRebuild(long rowCount) {
+        Generation next = new Generation();
+        // 読み込み中のイベントを取りこぼさないよう、先に構築中の索引を公開しておく
+        building = next;
+        return next::addScanned;
+    }
+
+    // 差し替えるまでは今の索引で答える
+    @Override
+    public void finishRebuild(boolean completed) {
+        Generation next = building;
+        if (completed && next != null) {
+            next.seal();
+            current = next;
+        }
+        building = null;
+    }
+
+    public boolean isReady() {
+        return current.ready;
+    }
+
+    // foldがtrueのときはひらがな・カタカナと英字の大文字・小文字を区別しない
+    public List<TrainerSummary> suggest(String prefix, int limit, boolean fold) {
+        return current.suggest(fold ? fold(prefix) : normalize(prefix), limit, fold);
+    }
+
+    @EventListener
+    public void onTrainerChanged(TrainerChangedEvent event) {
+        // TrainerExistenceFilterと同じく、rebuildと逆の順序で読んでどちらか一方には必ず反映する
+        Generation buildingGeneration = building;
+        Generation currentGeneration = current;
+        if (buildingGeneration != null) {
+            buildingGeneration.apply(event);
+        }
+        if (currentGeneration != buildingGeneration) {
+            currentGeneration.apply(event);
+        }
+    }
+
+    private static String entryKey(String key, Integer id) {
+        return key + ID_SEPARATOR + id;
+    }
+
+    static String normalize(String value) {
+        return KanaFolding.normalize(value);
+    }
+
+    // カタカナをひらがなにそろえ、英字は小文字にそろえる
+    static String fold(String value) {
+        return KanaFolding.hiragana(value).toLowerCase(Locale.ROOT);
+    }
+
+    // 1世代分の索引。全件から作った配列と、その後に変わった行だけを持つマップの2段で答える
+    // 読み込みはロックなしで行い、イベントの反映だけを直列にする
+    private static final class Generation {
+        private List<TrainerSummary> scanned = new ArrayList<>();
+        private volatile SortedNames exact = SortedNames.EMPTY;
+        private volatile SortedNames folded = SortedNames.EMPTY;
+        // 作り直してから（構築中を含む）イベントで変わった行のidと最新の値。配列にある同じidの行より優先する
+        private final Map<Integer, TrainerSummary> changed = new ConcurrentHashMap<>();
+        private final NavigableMap<String, TrainerSummary> exactChanges = new ConcurrentSkipListMap<>();
+        private final NavigableMap<String, TrainerSummary> foldedChanges = new ConcurrentSkipListMap<>();
+        private volatile boolean ready;
+
+        // 全件の読み込みのスレッドからだけ呼ばれる
+        void addScanned(Trainer trainer) {
+            scanned.add(new TrainerSummary(trainer.id(), trainer.name()));
+        }
+
+        void seal() {
+            exact = SortedNames.of(scanned, TrainerNameIndex::normalize);
+            folded = SortedNames.of(scanned, TrainerNameIndex::fold);
+            scanned = null;
+            ready = true;
+        }
+
+        synchronized void apply(TrainerChangedEvent event) {
+            // 削除のイベントはidしか持たないことがあるので、idで取り除く
+            if (event.before() != null && event.before().id() != null) {
+                remove(event.before().id());
+            }
+            if (event.after() != null) {
+                add(event.after());
+            }
+        }
+
+        private void add(Trainer trainer) {
+            remove(trainer.id());
+            TrainerSummary summary = new TrainerSummary(trainer.id(), trainer.name());
+            changed.put(trainer.id(), summary);
+            exactChanges.put(entryKey(normalize(trainer.name()), trainer.id()), summary);
+            foldedChanges.put(entryKey(fold(trainer.name()), trainer.id()), summary);
+        }
+
+        private void remove(Integer id) {
+            TrainerSummary previous = changed.put(id, REMOVED);
+            if (previous != null && previous != REMOVED) {
+                exactChanges.remove(entryKey(normalize(previous.name()), id));
+                foldedChanges.remove(entryKey(fold(previous.name()), id));
+            }
+        }
+
+        // 配列の範囲と変わった行のマップの範囲を、並び順を保ったまま合わせてlimit件取る
+        List<TrainerSummary> suggest(String key, int limit, boolean fold) {
+            SortedNames names = fold ? folded : exact;
+            NavigableMap<String, TrainerSummary> changes = fold ? foldedChanges : exactChanges;
+            Iterator<Map.Entry<String, TrainerSummary>> changeIterator =
+                    changes.subMap(key, true, key + Character.MAX_VALUE, false).entrySet().iterator();
+            Map.Entry<String, TrainerSummary> change = changeIterator.hasNext() ? changeIterator.next() : null;
+            int position = names.lowerBound(key);
+            List<TrainerSummary> result = new ArrayList<>(Math.min(limit, 16));
+            while (result.size() < limit) {
+                // 変わった行は配列の値ではなくマップの値で答える
+                while (position < names.size() && names.startsWith(position, key) && changed.containsKey(names.id(position))) {
+                    position++;
+                }
+                boolean hasName = position < names.size() && names.startsWith(position, key);
+                if (!hasName && change == null) {
+                    break;
+                }
+                if (change == null || (hasName && names.entryKey(position).compareTo(change.getKey()) < 0)) {
+                    result.add(names.summary(position++));
+                } else {
+                    result.add(change.getValue());
+                    change = changeIterator.hasNext() ? changeIterator.next() : null;
+                }
+            }
+            return result;
+        }
+    }
+
+    // 正規化した名前の昇順（同じ名前はidの文字列の順）に並べた配列。作った後は変更しない
+    // 元の名前の文字列はexactとfoldedで共有し、正規化しても変わらない名前はキーにも同じ文字列を使う
+    private static final class SortedNames {
+        static final SortedNames EMPTY = new SortedNames(new String[0], new int[0], new String[0]);
+
+        private final String[] keys;
+        private final int[] ids;
+        private final String[] names;
+
+        private SortedNames(String[] keys, int[] ids, String[] names) {
+            this.keys = keys;
+            this.ids = ids;
+            this.names = names;
+        }
+
+        static SortedNames of(List<TrainerSummary> rows, UnaryOperator<String> keyOf) {
+            record Row(String sortKey, String key, TrainerSummary summary) {
+            }
+            Row[] sorted = new Row[rows.size()];
+            for (int i = 0; i < sorted.length; i++) {
+                TrainerSummary summary = rows.get(i);
+                String key = keyOf.apply(summary.name());
+                if (key.equals(summary.name())) {
+                    key = summary.name();
+                }
+                sorted[i] = new Row(entryKey(key, summary.id()), key, summary);
+            }
+            Arrays.sort(sorted, Comparator.comparing(Row::sortKey));
+            String[] keys = new String[sorted.length];
+            int[] ids = new int[sorted.length];
+            String[] names = new String[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                keys[i] = sorted[i].key();
+                ids[i] = sorted[i].summary().id();
+                names[i] = sorted[i].summary().name();
+            }
+            return new SortedNames(keys, ids, names);
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        // keyより小さくない最初の位置
+        int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        boolean startsWith(int position, String prefix) {
+            return keys[position].startsWith(prefix);
+        }
+
+        int id(int position) {
+            return ids[position];
+        }
+
+        String entryKey(int position) {
+            return TrainerNameIndex.entryKey(keys[position], ids[position]);
+        }
+
+        TrainerSummary summary(int position) {
+            return new TrainerSummary(ids[position], names[position]);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.trainer.name.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Optional;
+
+@Mapper
+public interface BackfillProgressMapper {
+
+    @Select("SELECT COALESCE(MAX(id), 0) FROM trainers")
+    long maxTrainerId();
+
+    @Select("SELECT last_id FROM backfill_progress WHERE job_name = #{jobName}")
+    Optional<Long> findLastId(@Param("jobName") String jobName);
+
+    @Select("SELECT COUNT(*) > 0 FROM backfill_progress WHERE job_name = #{jobName} AND completed_at IS NOT NULL")
+    boolean isCompleted(@Param("jobName") String jobName);
+
+    @Insert("INSERT INTO backfill_progress (job_name, last_id, rows_processed, updated_at) " +
+            "VALUES (#{jobName}, #{lastId}, #{rows}, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE last_id = #{lastId}, rows_processed = rows_processed + #{rows}, updated_at = CURRENT_TIMESTAMP")
+    void saveProgress(@Param("jobName") String jobName, @Param("lastId") long lastId, @Param("rows") long rows);
+
+    // 一度もバッチを処理していない（空のテーブルなど）ジョブは、進捗の行ごと作って完了にする
+    @Insert("INSERT INTO backfill_progress (job_name, last_id, rows_processed, completed_at, updated_at) " +
+            "VALUES (#{jobName}, 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE completed_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP")
+    void markCompleted(@Param("jobName") String jobName);
+}
@@ -0,0 +1,32 @@
+package com.trainer.name.mapper;
+
+import com.trainer.name.entity.Trainer;
+import org.apache.ibatis.annotations.CacheNamespaceRef;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+// email_normalizedカラムの埋め戻し用
+// 埋め戻した行がfindByEmailで見つかるよう、TrainerMapperとキャッシュを共有して更新時に無効化する
+@Mapper
+@CacheNamespaceRef(TrainerMapper.class)
+public interface EmailBackfillMapper {
+
+    record NormalizedEmail(Integer id, String emailNormalized) {
+    }
+
+    @Options(useCache = false)
+    @Select("SELECT " + TrainerMapper.TRAINER_COLUMNS + " FROM trainers WHERE id > #{fromId} AND id <= #{toId} AND email_normalized IS NULL")
+    List<Trainer> findWithoutEmailNormalized(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // 1バッチを1文で更新する。アプリから更新済みの行（NULLでない行）は上書きしない
+    @Update("<script>UPDATE trainers SET email_normalized = CASE id " +
+            "<foreach collection='emails' item='email'>WHEN #{email.id} THEN #{email.emailNormalized} </foreach>" +
+            "END WHERE email_normalized IS NULL AND id IN " +
+            "<foreach collection='emails' item='email' open='(' separator=',' close=')'>#{email.id}</foreach></script>")
+    int updateEmailNormalized(@Param("emails") List<NormalizedEmail> emails);
+}
@@ -0,0 +1,22 @@
+package com.trainer.name.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// マッパーのSQLの実行計画の上限
+// TrainerMapperQueryPlanTestがEXPLAIN FORMAT=JSONで確認し、インデックスを使わなくなったり、
+// 見積もりの走査行数がmaxRowsを超えたり、カバリングインデックスで答えなくなったりしたらテストを失敗させる
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryPlanBudget {
+    // 1回の実行で走査してよい行数の見積もり（テーブルごと）
+    long maxRows() default 1;
+
+    // 全件走査を許可する（全件取得など、インデックスを使わないことが前提のSQLのみ）
+    boolean fullScan() default false;
+
+    // インデックスだけで答え、テーブルの行を読まないこと（EXPLAINのusing_index）。fullScanでも確認する
+    boolean indexOnly() default false;
+}
@@ -0,0 +1,33 @@
+package com.trainer.name.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Optional;
+
+// シャーディングのディレクトリ（既定のデータソース）: 全シャードをまたいだメールアドレス・名前の一意性の表
+@Mapper
+public interface ShardDirectoryMapper {
+
+    // 主キーが重複すればDuplicateKeyExceptionになる
+    @Insert("INSERT INTO trainer_email_lookup (email_normalized, trainer_id) VALUES (#{emailNormalized}, #{trainerId})")
+    void insertEmail(@Param("emailNormalized") String emailNormalized, @Param("trainerId") int trainerId);
+
+    @Delete("DELETE FROM trainer_email_lookup WHERE email_normalized = #{emailNormalized} AND trainer_id = #{trainerId}")
+    int deleteEmail(@Param("emailNormalized") String emailNormalized, @Param("trainerId") int trainerId);
+
+    @Select("SELECT trainer_id FROM trainer_email_lookup WHERE email_normalized = #{emailNormalized}")
+    Optional<Integer> findIdByEmail(@Param("emailNormalized") String emailNormalized);
+
+    @Insert("INSERT INTO trainer_name_lookup (name, trainer_id) VALUES (#{name}, #{trainerId})")
+    void insertName(@Param("name") String name, @Param("trainerId") int trainerId);
+
+    @Delete("DELETE FROM trainer_name_lookup WHERE name = #{name} AND trainer_id = #{trainerId}")
+    int deleteName(@Param("name") String name, @Param("trainerId") int trainerId);
+
+    @Select("SELECT COUNT(*) FROM trainer_name_lookup WHERE name = #{name}")
+    int countByName(@Param("name") String name);
+}
@@ -0,0 +1,17 @@
+package com.trainer.name.mapper;
+
+import com.trainer.name.entity.Trainer;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+// シャーディングを有効にする前のtrainers（既定のデータソース）をシャードに移すときの読み出し用
+@Mapper
+public interface ShardMigrationMapper {
+
+    @Select("SELECT " + TrainerMapper.TRAINER_COLUMNS + " FROM trainers " +
+            "WHERE id > #{fromId} AND id <= #{toId} AND " + TrainerMapper.LIVE + " ORDER BY id")
+    List<Trainer> findLiveInRange(@Param("fromId") long fromId, @Param("toId") long toId);
+}
@@ -0,0 +1,19 @@
+package com.trainer.name.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+// trainer_counts（既定のデータソース）の行数のカウンター。nameごとに複数のslotの行に分けて足し込む
+@Mapper
+public interface TrainerCountMapper {
+
+    // slotの行がまだなければ作る
+    @Insert("INSERT INTO trainer_counts (name, slot, amount) VALUES (#{name}, #{slot}, #{delta}) " +
+            "ON DUPLICATE KEY UPDATE amount = amount + #{delta}")
+    int add(@Param("name") String name, @Param("slot") int slot, @Param("delta") long delta);
+
+    @Select("SELECT COALESCE(SUM(amount), 0) FROM trainer_counts WHERE name = #{name}")
+    long sum(@Param("name") String name);
+}
@@ -0,0 +1,18 @@
+package com.trainer.name.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+// trainer_id_sequence（既定のデータソース）からidをまとめて借りる
+@Mapper
+public interface TrainerIdSequenceMapper {
+
+    // 割り当てを有効にする前にAUTO_INCREMENTで入った行があっても重ならないよう、trainersの最大idより後ろから払い出す
+    @Select("SELECT GREATEST(next_id, (SELECT COALESCE(MAX(id), 0) + 1 FROM trainers)) FROM trainer_id_sequence WHERE name = #{name} FOR UPDATE")
+    long lockNextId(@Param("name") String name);
+
+    @Update("UPDATE trainer_id_sequence SET next_id = #{nextId} WHERE name = #{name}")
+    int updateNextId(@Param("name") String name, @Param("nextId") long nextId);
+}
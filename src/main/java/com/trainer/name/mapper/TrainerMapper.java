@@ -1,43 +1,205 @@
 package com.trainer.name.mapper;
 
+import com.trainer.name.cache.WeightedMapperCache;
 import com.trainer.name.entity.Trainer;
+import com.trainer.name.entity.TrainerSummary;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 import java.util.Optional;
 
+// 検索結果はMyBatisの2次キャッシュに載せ、@Insert/@Update/@Deleteで丸ごと無効化する
+// 1件取得はTrainerServiceの@Cacheable、重複チェックなどは常に最新の値が必要なので対象外にする
 @Mapper
+@CacheNamespace(implementation = WeightedMapperCache.class, properties = {
+        @Property(name = "maxBytes", value = "${trainerMapperCacheMaxBytes}"),
+        @Property(name = "ttlSeconds", value = "${trainerMapperCacheTtlSeconds}")
+})
 public interface TrainerMapper {
+    // SELECT *にせず、Trainerに必要な列だけを読む（idx_trainers_deleted_name_id_emailだけで答えられるようにする）
+    String TRAINER_COLUMNS = "id, name, email";
+    // 論理削除した行（deleted_atあり）は物理削除されるまで残るので、全ての読み込みで除く
+    // 名前・メールアドレスの完全一致は、削除されていない行だけを持つname_live/email_liveのユニークインデックスで引く
+    String LIVE = "deleted_at IS NULL";
+    String BIND_EMAIL_NORMALIZED =
+            "<bind name='emailNormalized' value='@com.trainer.name.util.EmailNormalizer@normalize(email)'/>";
 
-    @Select("SELECT * FROM trainers")
+    @QueryPlanBudget(fullScan = true)
+    @Select("SELECT " + TRAINER_COLUMNS + " FROM trainers WHERE " + LIVE + " ORDER BY id")
     List<Trainer> findAll();
 
-    @Select("SELECT * FROM trainers WHERE name LIKE CONCAT('%', #{startingWith}, '%')")
+    // idの順に、afterIdより後ろをlimit件返す（キーセット方式のページング）
+    @QueryPlanBudget(maxRows = 1000)
+    @Select("SELECT " + TRAINER_COLUMNS + " FROM trainers WHERE id > #{afterId} AND " + LIVE + " ORDER BY id LIMIT #{limit}")
+    List<Trainer> findPage(@Param("afterId") int afterId, @Param("limit") int limit);
+
+    // 中間一致のため名前では絞り込めないが、idx_trainers_deleted_name_id_emailのdeleted_at IS NULLの範囲の走査だけで答える
+    @QueryPlanBudget(fullScan = true, indexOnly = true)
+    @Select("SELECT " + TRAINER_COLUMNS + " FROM trainers WHERE " + LIVE + " AND name LIKE CONCAT('%', #{startingWith}, '%')")
     List<Trainer> findByNameStartingWith(@Param("startingWith") String startingWith);
 
-    @Select("SELECT * FROM trainers WHERE email = #{email}")
+    // TrainerNameIndexの構築前に使う。foldがtrueならひらがなとカタカナの両方の範囲を読む（英字の大文字・小文字は照合順序で同一視される）
+    @QueryPlanBudget(maxRows = 1000, indexOnly = true)
+    @Options(useCache = false)
+    @Select("<script>" +
+            "<bind name='normalized' value='@com.trainer.name.util.KanaFolding@normalize(prefix)'/>" +
+            "SELECT id, name FROM trainers WHERE " + LIVE +
+            "<choose>" +
+            "<when test='fold'>" +
+            "<bind name='hiragana' value='@com.trainer.name.util.KanaFolding@hiragana(prefix)'/>" +
+            "<bind name='katakana' value='@com.trainer.name.util.KanaFolding@katakana(prefix)'/>" +
+            " AND (name LIKE CONCAT(#{hiragana}, '%') OR name LIKE CONCAT(#{katakana}, '%'))" +
+            "</when>" +
+            "<otherwise> AND name LIKE CONCAT(#{normalized}, '%')</otherwise>" +
+            "</choose>" +
+            " ORDER BY name LIMIT #{limit}" +
+            "</script>")
+    List<TrainerSummary> findSummariesByNamePrefix(@Param("prefix") String prefix, @Param("limit") int limit, @Param("fold") boolean fold);
+
+    // 名前・前方一致・メールアドレスを組み合わせた検索。指定された条件だけをANDでつなぐ
+    // 前方一致があればidx_trainers_deleted_name_id_emailの範囲、なければdeleted_at IS NULLの範囲を走査する
+    // 上限は前方一致の範囲のもの。名前だけ（中間一致）の場合はfindByNameStartingWithと同じ走査になり、
+    // TrainerMapperQueryPlanTestで別に確認する
+    // ORDER BYはTrainerSearchCriteriaのenumから組み立てた固定の文字列なので${}で埋め込む
+    @QueryPlanBudget(maxRows = 1000)
+    @Select("<script>" +
+            "<bind name='emailNormalized' value='criteria.email() == null ? null : @com.trainer.name.util.EmailNormalizer@normalize(criteria.email())'/>" +
+            "SELECT " + TRAINER_COLUMNS + " FROM trainers" +
+            "<where>" + LIVE +
+            "<if test='criteria.email() != null'> AND email_live = #{emailNormalized}</if>" +
+            "<if test='criteria.prefix() != null'> AND name LIKE CONCAT(#{criteria.prefix}, '%')</if>" +
+            "<if test='criteria.name() != null'> AND name LIKE CONCAT('%', #{criteria.name}, '%')</if>" +
+            "<choose>" +
+            "<when test='criteria.sortedByName() and criteria.afterName() != null'>" +
+            " AND (name ${criteria.cursorOperator()} #{criteria.afterName}" +
+            " OR (name = #{criteria.afterName} AND id ${criteria.cursorOperator()} #{criteria.afterId}))" +
+            "</when>" +
+            "<when test='criteria.afterId() != null'> AND id ${criteria.cursorOperator()} #{criteria.afterId}</when>" +
+            "</choose>" +
+            "</where>" +
+            " ORDER BY ${criteria.orderBy()} LIMIT #{criteria.limit}" +
+            "</script>")
+    List<Trainer> search(@Param("criteria") TrainerSearchCriteria criteria);
+
+    // メールアドレスは正規化した値で比較する（email_liveにユニークインデックスあり）
+    @QueryPlanBudget
+    @Select("<script>" + BIND_EMAIL_NORMALIZED +
+            "SELECT " + TRAINER_COLUMNS + " FROM trainers WHERE email_live = #{emailNormalized}</script>")
     List<Trainer> findByEmail(@Param("email") String email);
 
-    @Select("SELECT * FROM trainers WHERE name LIKE CONCAT('%', #{name}, '%')")
+    @QueryPlanBudget(fullScan = true, indexOnly = true)
+    @Select("SELECT " + TRAINER_COLUMNS + " FROM trainers WHERE " + LIVE + " AND name LIKE CONCAT('%', #{name}, '%')")
     List<Trainer> findByName(@Param("name") String name);
 
-    @Select("SELECT * FROM trainers WHERE id = #{id}")
+    // 一覧・検索のidと名前だけを返す版（名前のインデックスだけを読み、テーブルの行を読まない）
+    @QueryPlanBudget(fullScan = true, indexOnly = true)
+    @Select("SELECT id, name FROM trainers WHERE " + LIVE)
+    List<TrainerSummary> findSummaries();
+
+    @QueryPlanBudget(fullScan = true, indexOnly = true)
+    @Select("SELECT id, name FROM trainers WHERE " + LIVE + " AND name LIKE CONCAT('%', #{name}, '%')")
+    List<TrainerSummary> findSummariesByNameContaining(@Param("name") String name);
+
+    @QueryPlanBudget
+    @Options(useCache = false)
+    @Select("SELECT " + TRAINER_COLUMNS + " FROM trainers WHERE id = #{id} AND " + LIVE)
     Optional<Trainer> findById(@Param("id") int id);
 
-    @Insert("INSERT INTO trainers (name, email) VALUES (#{name}, #{email})")
-    @Options(useGeneratedKeys = true, keyProperty = "id")
-    void insert(Trainer trainer);
+    // Trainerはrecordで採番されたidを書き込めないので、GeneratedKeyで受け取ってから作り直す
+    default Trainer insert(Trainer trainer) {
+        GeneratedKey key = new GeneratedKey();
+        insertWithGeneratedKey(trainer, key);
+        return new Trainer(key.getValue(), trainer.name(), trainer.email());
+    }
+
+    @QueryPlanBudget
+    @Insert("<script><bind name='emailNormalized' value='@com.trainer.name.util.EmailNormalizer@normalize(trainer.email())'/>" +
+            "INSERT INTO trainers (name, email, email_normalized) VALUES (#{trainer.name}, #{trainer.email}, #{emailNormalized})</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "key.value")
+    void insertWithGeneratedKey(@Param("trainer") Trainer trainer, @Param("key") GeneratedKey key);
+
+    // idを採番済みの行を入れる（シャーディングではディレクトリで採番する）
+    @QueryPlanBudget
+    @Insert("<script>" + BIND_EMAIL_NORMALIZED +
+            "INSERT INTO trainers (id, name, email, email_normalized) VALUES (#{id}, #{name}, #{email}, #{emailNormalized})</script>")
+    int insertWithId(Trainer trainer);
+
+    @QueryPlanBudget(fullScan = true)
+    @Options(useCache = false)
+    @Select("SELECT COUNT(*) FROM trainers WHERE " + LIVE)
+    long countAll();
 
-    @Select("SELECT COUNT(*) FROM trainers WHERE email = #{email}")
-    int countByEmail(String email);
+    // 全件をメモリに載せずに1行ずつ処理する（インメモリのインデックス構築用）
+    // MySQLはfetchSize = Integer.MIN_VALUEのときだけ行をストリーミングする（接続URLのuseCursorFetchは全ての文をサーバー側プリペアドにするので使わない）
+    // ストリーミング中はその接続で他の文を発行できないので、ResultHandlerの中ではDBを使わない
+    @QueryPlanBudget(fullScan = true)
+    @Select("SELECT " + TRAINER_COLUMNS + " FROM trainers WHERE " + LIVE)
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE, useCache = false)
+    @Options(databaseId = "h2", resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000, useCache = false)
+    @ResultType(Trainer.class)
+    void scanAll(ResultHandler<Trainer> handler);
 
-    @Select("SELECT COUNT(*) FROM trainers WHERE name = #{name}")
+    @QueryPlanBudget
+    @Options(useCache = false)
+    @Select("<script>" + BIND_EMAIL_NORMALIZED +
+            "SELECT COUNT(*) FROM trainers WHERE email_live = #{emailNormalized}</script>")
+    int countByEmail(@Param("email") String email);
+
+    @QueryPlanBudget
+    @Options(useCache = false)
+    @Select("SELECT COUNT(*) FROM trainers WHERE name_live = #{name}")
     int countByName(String name);
 
-    @Update("UPDATE trainers SET name = #{name}, email = #{email} WHERE id = #{id}")
+    // GET /trainers/countの名前での絞り込み（件数はTrainerCounterが使い回すので、2次キャッシュには載せない）
+    @QueryPlanBudget(fullScan = true, indexOnly = true)
+    @Options(useCache = false)
+    @Select("SELECT COUNT(*) FROM trainers WHERE " + LIVE + " AND name LIKE CONCAT('%', #{name}, '%')")
+    long countByNameContaining(@Param("name") String name);
+
+    @QueryPlanBudget
+    @Update("<script>" + BIND_EMAIL_NORMALIZED +
+            "UPDATE trainers SET name = #{name}, email = #{email}, email_normalized = #{emailNormalized} WHERE id = #{id} AND " + LIVE + "</script>")
     int update(Trainer trainer);
 
-    @Delete("DELETE FROM trainers WHERE id = #{id}")
+    // 論理削除（主キーでの1行の更新）。行の物理削除はSoftDeletePurgerがまとめて行う
+    @QueryPlanBudget
+    @Update("UPDATE trainers SET deleted_at = CURRENT_TIMESTAMP(6) WHERE id = #{id} AND " + LIVE)
     int delete(int id);
 
+    // 論理削除した行も含めて、主キーでメールアドレスを読む
+    // deleteと同じトランザクションで読めば、行ロックにより削除した時点の値になる（メールアドレスのキャッシュの無効化に使う）
+    @QueryPlanBudget
+    @Options(useCache = false)
+    @Select("SELECT email FROM trainers WHERE id = #{id}")
+    Optional<String> findEmailById(int id);
+
+    // 論理削除からretentionSeconds以上たった行を、削除した順に探す（deleted_atが先頭のインデックスの範囲検索）
+    // 時刻はDBの時計で比べる
+    @QueryPlanBudget(maxRows = 1000, indexOnly = true)
+    @Options(useCache = false)
+    @Select("SELECT id FROM trainers WHERE deleted_at < TIMESTAMPADD(SECOND, -#{retentionSeconds}, CURRENT_TIMESTAMP(6)) " +
+            "ORDER BY deleted_at LIMIT #{limit}")
+    List<Integer> findPurgeableIds(@Param("retentionSeconds") long retentionSeconds, @Param("limit") int limit);
+
+    // 論理削除済みの行だけを主キーで消す。見えない行なので、検索結果のキャッシュは無効化しない
+    @QueryPlanBudget(maxRows = 1000)
+    @Options(flushCache = Options.FlushCachePolicy.FALSE)
+    @Delete("<script>DELETE FROM trainers WHERE deleted_at IS NOT NULL AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int purge(@Param("ids") List<Integer> ids);
+
+    // INSERTで採番されたidの受け取り用
+    final class GeneratedKey {
+        private Integer value;
+
+        public Integer getValue() {
+            return value;
+        }
+
+        public void setValue(Integer value) {
+            this.value = value;
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package com.trainer.name.mapper;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.util.EmailNormalizer;
+import com.trainer.name.util.NameCollation;
+
+import java.util.Comparator;
+
+// 名前（中間一致）・名前の前方一致・メールアドレスを組み合わせた検索の条件。nullの条件は使わない
+// 一覧と同じくキーセット方式でページングする（sortがNAMEのときはafterNameとafterIdの組で続きを指定する）
+public record TrainerSearchCriteria(String name, String prefix, String email, Sort sort, boolean descending,
+                                    String afterName, Integer afterId, int limit) {
+
+    public enum Sort {
+        ID, NAME
+    }
+
+    public boolean sortedByName() {
+        return sort == Sort.NAME;
+    }
+
+    // 動的SQLに埋め込む比較演算子と並び順（enumから決まる固定の文字列）
+    public String cursorOperator() {
+        return descending ? "<" : ">";
+    }
+
+    public String orderBy() {
+        String direction = descending ? " DESC" : "";
+        return sortedByName() ? "name" + direction + ", id" + direction : "id" + direction;
+    }
+
+    // ORDER BYと同じ並び（名前はnameの照合順序で比べる）
+    public Comparator<Trainer> order() {
+        Comparator<Trainer> order = sortedByName()
+                ? Comparator.comparing(Trainer::name, NameCollation.ORDER).thenComparing(Trainer::id)
+                : Comparator.comparing(Trainer::id);
+        return descending ? order.reversed() : order;
+    }
+
+    // SQLの条件と同じ判定をメモリ上で行う（メールアドレスで1件に絞ってから確かめる場合に使う）
+    // LIKEと名前の比較はnameの照合順序に合わせる（英字の大文字・小文字などを区別しない）
+    public boolean matches(Trainer trainer) {
+        String folded = NameCollation.fold(trainer.name());
+        if (name != null && !folded.contains(NameCollation.fold(name))) {
+            return false;
+        }
+        if (prefix != null && !folded.startsWith(NameCollation.fold(prefix))) {
+            return false;
+        }
+        if (email != null && !EmailNormalizer.normalize(email).equals(EmailNormalizer.normalize(trainer.email()))) {
+            return false;
+        }
+        return isAfterCursor(trainer);
+    }
+
+    private boolean isAfterCursor(Trainer trainer) {
+        int compared;
+        if (sortedByName() && afterName != null) {
+            compared = NameCollation.ORDER.compare(trainer.name(), afterName);
+            if (compared == 0 && afterId != null) {
+                compared = trainer.id().compareTo(afterId);
+            }
+        } else if (afterId != null) {
+            compared = trainer.id().compareTo(afterId);
+        } else {
+            return true;
+        }
+        return descending ? compared < 0 : compared > 0;
+    }
+}
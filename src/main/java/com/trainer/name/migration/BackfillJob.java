@@ -0,0 +1,11 @@
+package com.trainer.name.migration;
+
+// BatchedBackfillRunnerで実行する埋め戻し処理
+public interface BackfillJob {
+
+    // 進捗を記録するときのキー。ジョブごとに一意にする
+    String name();
+
+    // fromIdExclusive < id <= toIdInclusive の範囲を処理し、更新した行数を返す
+    int processRange(long fromIdExclusive, long toIdInclusive);
+}
@@ -0,0 +1,84 @@
+package com.trainer.name.migration;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "trainer.backfill")
+@Validated
+public class BackfillProperties {
+    // 1バッチで処理するidの範囲
+    @Min(1)
+    private int batchSize = 1000;
+    // 埋め戻しに使ってよい時間の割合。0.5なら処理にかかった時間と同じだけ休止する
+    // 休止の時間をこの値で割って求めるので、0や負の値は起動時にエラーにする
+    @DecimalMin("0.01")
+    @DecimalMax("1.0")
+    private double maxDutyCycle = 0.5;
+    // レプリカの遅延がこれを超えている間は次のバッチを始めない
+    private Duration maxReplicationLag = Duration.ofSeconds(5);
+    private final Replica replica = new Replica();
+
+    // 遅延を監視するレプリカ。urlが未設定なら遅延による調整は行わない
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public double getMaxDutyCycle() {
+        return maxDutyCycle;
+    }
+
+    public void setMaxDutyCycle(double maxDutyCycle) {
+        this.maxDutyCycle = maxDutyCycle;
+    }
+
+    public Duration getMaxReplicationLag() {
+        return maxReplicationLag;
+    }
+
+    public void setMaxReplicationLag(Duration maxReplicationLag) {
+        this.maxReplicationLag = maxReplicationLag;
+    }
+
+    public Replica getReplica() {
+        return replica;
+    }
+}
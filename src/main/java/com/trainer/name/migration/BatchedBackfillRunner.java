@@ -0,0 +1,100 @@
+package com.trainer.name.migration;
+
+import com.trainer.name.mapper.BackfillProgressMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// trainersをidの範囲ごとに少しずつ処理する埋め戻しの共通処理
+// - バッチごとに進捗をbackfill_progressに記録し、再起動しても続きから再開する
+// - 処理時間に応じて休止を入れ、DBを使う時間の割合をmaxDutyCycle以下に抑える
+// - レプリカの遅延がmaxReplicationLagを超えている間は次のバッチを始めない
+@Component
+@Profile("!reactive")
+@EnableConfigurationProperties(BackfillProperties.class)
+public class BatchedBackfillRunner {
+    private static final Logger log = LoggerFactory.getLogger(BatchedBackfillRunner.class);
+
+    private final BackfillProgressMapper progressMapper;
+    private final TaskExecutor taskExecutor;
+    private final BackfillProperties properties;
+    private final ReplicationLagProbe lagProbe;
+
+    public BatchedBackfillRunner(BackfillProgressMapper progressMapper,
+                                 @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                 BackfillProperties properties) {
+        this.progressMapper = progressMapper;
+        this.taskExecutor = taskExecutor;
+        this.properties = properties;
+        this.lagProbe = new ReplicationLagProbe(properties.getReplica());
+    }
+
+    // 起動を待たせないよう別スレッドで実行する
+    public void runAsync(BackfillJob job) {
+        taskExecutor.execute(() -> {
+            try {
+                run(job);
+            } catch (RuntimeException e) {
+                log.error("埋め戻しに失敗しました。次回の起動時に続きから再開します: job={}", job.name(), e);
+            }
+        });
+    }
+
+    public void run(BackfillJob job) {
+        if (progressMapper.isCompleted(job.name())) {
+            return;
+        }
+        long maxId = progressMapper.maxTrainerId();
+        long fromId = progressMapper.findLastId(job.name()).orElse(0L);
+        long totalRows = 0;
+        log.info("埋め戻しを開始します: job={}, fromId={}, maxId={}", job.name(), fromId, maxId);
+
+        while (fromId < maxId) {
+            waitForReplication(job);
+            long toId = fromId + properties.getBatchSize();
+            long start = System.nanoTime();
+            int rows = job.processRange(fromId, toId);
+            progressMapper.saveProgress(job.name(), toId, rows);
+            totalRows += rows;
+            fromId = toId;
+            throttle(Duration.ofNanos(System.nanoTime() - start));
+        }
+
+        // 実行中に追加された行はアプリ側で値を設定しているので、ここで完了にしてよい
+        progressMapper.markCompleted(job.name());
+        log.info("埋め戻しが完了しました: job={}, rows={}", job.name(), totalRows);
+    }
+
+    private void throttle(Duration elapsed) {
+        double dutyCycle = properties.getMaxDutyCycle();
+        if (dutyCycle >= 1.0) {
+            return;
+        }
+        sleep(Duration.ofNanos((long) (elapsed.toNanos() * (1 - dutyCycle) / dutyCycle)));
+    }
+
+    private void waitForReplication(BackfillJob job) {
+        Optional<Duration> lag = lagProbe.currentLag();
+        while (lag.isPresent() && lag.get().compareTo(properties.getMaxReplicationLag()) > 0) {
+            log.info("レプリカの遅延が大きいため埋め戻しを待機します: job={}, lag={}", job.name(), lag.get());
+            sleep(properties.getMaxReplicationLag());
+            lag = lagProbe.currentLag();
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("埋め戻しが中断されました", e);
+        }
+    }
+}
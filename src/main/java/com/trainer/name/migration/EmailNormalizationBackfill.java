@@ -0,0 +1,47 @@
+package com.trainer.name.migration;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.mapper.EmailBackfillMapper;
+import com.trainer.name.mapper.EmailBackfillMapper.NormalizedEmail;
+import com.trainer.name.util.EmailNormalizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// V2で追加したemail_normalizedを既存の行に埋め戻すジョブ
+@Component
+@Profile("!reactive")
+public class EmailNormalizationBackfill implements BackfillJob {
+    private final EmailBackfillMapper backfillMapper;
+    private final BatchedBackfillRunner backfillRunner;
+
+    public EmailNormalizationBackfill(EmailBackfillMapper backfillMapper, BatchedBackfillRunner backfillRunner) {
+        this.backfillMapper = backfillMapper;
+        this.backfillRunner = backfillRunner;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        backfillRunner.runAsync(this);
+    }
+
+    @Override
+    public String name() {
+        return "V2__email_normalized";
+    }
+
+    @Override
+    public int processRange(long fromIdExclusive, long toIdInclusive) {
+        List<Trainer> trainers = backfillMapper.findWithoutEmailNormalized(fromIdExclusive, toIdInclusive);
+        if (trainers.isEmpty()) {
+            return 0;
+        }
+        List<NormalizedEmail> emails = trainers.stream()
+                .map(trainer -> new NormalizedEmail(trainer.id(), EmailNormalizer.normalize(trainer.email())))
+                .toList();
+        return backfillMapper.updateEmailNormalized(emails);
+    }
+}
@@ -0,0 +1,39 @@
+package com.trainer.name.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+// レプリカで SHOW REPLICA STATUS を実行し、Seconds_Behind_Source を読み取る
+public class ReplicationLagProbe {
+    private final JdbcTemplate replicaJdbcTemplate;
+
+    public ReplicationLagProbe(BackfillProperties.Replica replica) {
+        if (StringUtils.hasText(replica.getUrl())) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(replica.getUrl(), replica.getUsername(), replica.getPassword());
+            this.replicaJdbcTemplate = new JdbcTemplate(dataSource);
+        } else {
+            this.replicaJdbcTemplate = null;
+        }
+    }
+
+    // レプリカが設定されていない、またはレプリケーションが止まっている場合は空を返す
+    public Optional<Duration> currentLag() {
+        if (replicaJdbcTemplate == null) {
+            return Optional.empty();
+        }
+        List<Long> lags = replicaJdbcTemplate.query("SHOW REPLICA STATUS",
+                (resultSet, rowNum) -> {
+                    long seconds = resultSet.getLong("Seconds_Behind_Source");
+                    return resultSet.wasNull() ? null : seconds;
+                });
+        return lags.stream()
+                .filter(lag -> lag != null)
+                .max(Long::compare)
+                .map(Duration::ofSeconds);
+    }
+}
@@ -0,0 +1,92 @@
+package com.trainer.name.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// アプリの中でJFRの記録を開始し、イベントストリームで受け取ったイベントをProfileAggregatorで集計する
+// 外部のツールをアタッチせずに、エンドポイントごとの割り当て量・レイテンシとGCを見比べられるようにする
+// 記録はmaxAgeの間保持し、dump()で直近の記録をファイルに書き出す（割り当て箇所のスタックトレースを含む）
+@Component
+@ConditionalOnProperty(name = "trainer.profiling.enabled", havingValue = "true")
+@EnableConfigurationProperties(ProfilingProperties.class)
+public class JfrProfiler implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(JfrProfiler.class);
+    private static final DateTimeFormatter DUMP_NAME = DateTimeFormatter.ofPattern("'trainer-'yyyyMMdd-HHmmss'.jfr'");
+
+    private final ProfilingProperties properties;
+    private final ProfileAggregator aggregator = new ProfileAggregator(System::nanoTime);
+    private RecordingStream stream;
+
+    public JfrProfiler(ProfilingProperties properties) {
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.setMaxAge(properties.getMaxAge());
+        stream.enable(TrainerRequestEvent.class);
+        stream.enable(TrainerStatementEvent.class);
+        stream.enable("jdk.GarbageCollection");
+        stream.enable("jdk.ObjectAllocationSample").with("throttle", properties.getAllocationSampleThrottle()).withStackTrace();
+        stream.onEvent(TrainerRequestEvent.NAME, this::onRequest);
+        stream.onEvent(TrainerStatementEvent.NAME, this::onStatement);
+        stream.onEvent("jdk.GarbageCollection", event -> aggregator.recordGc(event.getDuration("sumOfPauses")));
+        stream.onEvent("jdk.ObjectAllocationSample", event -> aggregator.recordAllocationSample(event.getLong("weight")));
+        stream.startAsync();
+        log.info("JFRによるプロファイリングを開始しました: maxAge={}", properties.getMaxAge());
+    }
+
+    private void onRequest(RecordedEvent event) {
+        aggregator.recordRequest(event.getString("endpoint"), event.getDuration(), event.getInt("status"),
+                event.getInt("statements"), event.getLong("rows"), event.getLong("allocated"));
+    }
+
+    private void onStatement(RecordedEvent event) {
+        aggregator.recordStatement(event.getString("statement"), event.getDuration(), event.getLong("rows"));
+    }
+
+    public ProfileAggregator.Snapshot snapshot() {
+        return aggregator.snapshot();
+    }
+
+    public void reset() {
+        aggregator.reset();
+    }
+
+    // 直近maxAgeの間の記録をdumpDirectoryに書き出し、そのパスを返す
+    public synchronized Path dump() throws IOException {
+        if (stream == null) {
+            throw new IllegalStateException("JFRの記録を開始していません");
+        }
+        Files.createDirectories(properties.getDumpDirectory());
+        Path path = properties.getDumpDirectory().resolve(LocalDateTime.now().format(DUMP_NAME)).toAbsolutePath();
+        stream.dump(path);
+        log.info("JFRの記録を書き出しました: {}", path);
+        return path;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.trainer.name.profiling;
+
+import com.trainer.name.tracing.SqlTracingInterceptor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+
+// 発行したSQLごとにTrainerStatementEventを記録する（SqlTracingInterceptorと同じく、DBへ送るStatementHandlerが対象）
+// 記録中でなければイベントを作るだけで、時間の計測も行わない
+@Component
+@ConditionalOnProperty(name = "trainer.profiling.enabled", havingValue = "true")
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class JfrStatementInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        TrainerStatementEvent event = new TrainerStatementEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = invocation.proceed();
+        event.end();
+        int rows = SqlTracingInterceptor.rows(result);
+        RequestProfile profile = RequestProfile.current();
+        if (profile != null) {
+            profile.record(rows);
+            event.endpoint = profile.endpoint();
+        }
+        event.statement = SqlTracingInterceptor.statementId(invocation.getTarget());
+        event.rows = rows;
+        event.commit();
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+package com.trainer.name.profiling;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+// JFRのイベントをエンドポイント・SQLごとに集計する
+// 記録はイベントストリームの1スレッドから、読み出しはactuatorのスレッドから行うので、メソッド単位で同期する
+class ProfileAggregator {
+    private final LongSupplier nanoClock;
+    private final Map<String, Stats> endpoints = new TreeMap<>();
+    private final Map<String, Stats> statements = new TreeMap<>();
+    private long sinceNanos;
+    private long gcCount;
+    private long gcPauseNanos;
+    private long sampledAllocationBytes;
+
+    ProfileAggregator(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.sinceNanos = nanoClock.getAsLong();
+    }
+
+    synchronized void recordRequest(String endpoint, Duration duration, int status, int statementCount, long rows, long allocated) {
+        Stats stats = endpoints.computeIfAbsent(endpoint, key -> new Stats());
+        stats.record(duration.toNanos(), rows);
+        stats.statements += statementCount;
+        stats.allocated += allocated;
+        if (status >= 500) {
+            stats.errors++;
+        }
+    }
+
+    synchronized void recordStatement(String statement, Duration duration, long rows) {
+        statements.computeIfAbsent(statement, key -> new Stats()).record(duration.toNanos(), rows);
+    }
+
+    synchronized void recordGc(Duration pauses) {
+        gcCount++;
+        gcPauseNanos += pauses.toNanos();
+    }
+
+    // jdk.ObjectAllocationSampleのweight（前回の記録からそのスレッドが割り当てた量の推定）の合計
+    synchronized void recordAllocationSample(long weight) {
+        sampledAllocationBytes += weight;
+    }
+
+    synchronized void reset() {
+        endpoints.clear();
+        statements.clear();
+        gcCount = 0;
+        gcPauseNanos = 0;
+        sampledAllocationBytes = 0;
+        sinceNanos = nanoClock.getAsLong();
+    }
+
+    synchronized Snapshot snapshot() {
+        double seconds = Math.max((nanoClock.getAsLong() - sinceNanos) / 1e9, 1e-9);
+        Map<String, EndpointSnapshot> endpointSnapshots = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> endpointSnapshots.put(endpoint, new EndpointSnapshot(
+                stats.count, stats.errors, stats.latency(),
+                stats.allocated / stats.count, (long) (stats.allocated / seconds),
+                (double) stats.statements / stats.count, (double) stats.rows / stats.count)));
+        Map<String, StatementSnapshot> statementSnapshots = new TreeMap<>();
+        statements.forEach((statement, stats) -> statementSnapshots.put(statement, new StatementSnapshot(
+                stats.count, stats.latency(), (double) stats.rows / stats.count)));
+        return new Snapshot(seconds, (long) (sampledAllocationBytes / seconds),
+                new GcSnapshot(gcCount, gcPauseNanos / 1e6), endpointSnapshots, statementSnapshots);
+    }
+
+    // 所要時間は2のべき乗（マイクロ秒）の区間ごとに数え、パーセンタイルは区間の上端で近似する
+    private static class Stats {
+        private static final int BUCKETS = 40;
+
+        private final long[] buckets = new long[BUCKETS];
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private long rows;
+        private long statements;
+        private long allocated;
+        private long errors;
+
+        void record(long nanos, long rows) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            this.rows += rows;
+            long micros = Math.max(nanos / 1000, 1);
+            buckets[Math.min(63 - Long.numberOfLeadingZeros(micros), BUCKETS - 1)]++;
+        }
+
+        Latency latency() {
+            return new Latency(totalNanos / 1e6 / count, percentile(0.5), percentile(0.99), maxNanos / 1e6);
+        }
+
+        private double percentile(double quantile) {
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    // 区間の上端が最大値を超える場合は最大値にする
+                    return Math.min((1L << (i + 1)) / 1e3, maxNanos / 1e6);
+                }
+            }
+            return maxNanos / 1e6;
+        }
+    }
+
+    // ミリ秒
+    record Latency(double mean, double p50, double p99, double max) {
+    }
+
+    record EndpointSnapshot(long requests, long serverErrors, Latency latencyMillis,
+                            long allocatedBytesPerRequest, long allocationBytesPerSecond,
+                            double statementsPerRequest, double rowsPerRequest) {
+    }
+
+    record StatementSnapshot(long executions, Latency latencyMillis, double rowsPerExecution) {
+    }
+
+    record GcSnapshot(long collections, double pauseMillis) {
+    }
+
+    // heapAllocationBytesPerSecondはエンドポイント以外（定期処理など）を含むJVM全体の割り当ての推定
+    record Snapshot(double seconds, long heapAllocationBytesPerSecond, GcSnapshot gc,
+                    Map<String, EndpointSnapshot> endpoints, Map<String, StatementSnapshot> statements) {
+    }
+}
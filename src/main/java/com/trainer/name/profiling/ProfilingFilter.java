@@ -0,0 +1,54 @@
+package com.trainer.name.profiling;
+
+import com.trainer.name.admission.EndpointClass;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+// /trainersへのリクエストごとにTrainerRequestEventを記録する
+// 割り当てたメモリはリクエストを処理したスレッドの割り当て量の差分で測る（サーブレットは1リクエストを1スレッドで処理する）
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "trainer.profiling.enabled", havingValue = "true")
+public class ProfilingFilter extends OncePerRequestFilter {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        TrainerRequestEvent event = new TrainerRequestEvent();
+        if (!event.isEnabled() || EndpointClass.of(request) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestProfile profile = RequestProfile.begin(request);
+        long allocatedBefore = allocatedBytes();
+        event.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            event.end();
+            RequestProfile.end();
+            event.endpoint = profile.endpoint();
+            event.status = response.getStatus();
+            event.statements = profile.statements();
+            event.rows = profile.rows();
+            event.allocated = Math.max(0, allocatedBytes() - allocatedBefore);
+            event.commit();
+        }
+    }
+
+    // 計測できないJVMでは0になる
+    private static long allocatedBytes() {
+        return THREADS.isThreadAllocatedMemoryEnabled() ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+}
@@ -0,0 +1,50 @@
+package com.trainer.name.profiling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "trainer.profiling")
+public class ProfilingProperties {
+    // 本番でも必要なときだけ有効にする（無効の間はJFRのイベントを作らない）
+    private boolean enabled = false;
+    // ダンプに含める直近の時間（この間のイベントをメモリとディスクに保持する）
+    private Duration maxAge = Duration.ofMinutes(5);
+    // ダンプの出力先
+    private Path dumpDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+    // ダンプで割り当て箇所を調べられるよう、オブジェクトの割り当てを記録する頻度の上限
+    private String allocationSampleThrottle = "100/s";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public Path getDumpDirectory() {
+        return dumpDirectory;
+    }
+
+    public void setDumpDirectory(Path dumpDirectory) {
+        this.dumpDirectory = dumpDirectory;
+    }
+
+    public String getAllocationSampleThrottle() {
+        return allocationSampleThrottle;
+    }
+
+    public void setAllocationSampleThrottle(String allocationSampleThrottle) {
+        this.allocationSampleThrottle = allocationSampleThrottle;
+    }
+}
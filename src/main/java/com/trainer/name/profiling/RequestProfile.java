@@ -0,0 +1,52 @@
+package com.trainer.name.profiling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+// プロファイリング中の1リクエストで発行したSQLの数と行数
+// SqlTraceと同じく、リクエストを処理するスレッドのスレッドローカルに保持する
+class RequestProfile {
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+    private final HttpServletRequest request;
+    private int statements;
+    private long rows;
+
+    private RequestProfile(HttpServletRequest request) {
+        this.request = request;
+    }
+
+    static RequestProfile begin(HttpServletRequest request) {
+        RequestProfile profile = new RequestProfile(request);
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    // リクエストの外ではnull
+    static RequestProfile current() {
+        return CURRENT.get();
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    void record(int rows) {
+        statements++;
+        this.rows += rows;
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    // 集計の単位が増えすぎないよう、/trainers/1ではなく/trainers/{id}でまとめる（ハンドラが決まる前はUNKNOWN）
+    String endpoint() {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+    }
+}
@@ -0,0 +1,40 @@
+package com.trainer.name.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+
+// GET    /actuator/trainerprofiling: エンドポイント・SQLごとのレイテンシと割り当て量、GCの集計
+// POST   /actuator/trainerprofiling: 直近の記録を.jfrファイルに書き出す
+// DELETE /actuator/trainerprofiling: 集計をやり直す（割り当て量の毎秒の値もここからの平均になる）
+@Component
+@ConditionalOnProperty(name = "trainer.profiling.enabled", havingValue = "true")
+@Endpoint(id = "trainerprofiling")
+public class TrainerProfilingEndpoint {
+    private final JfrProfiler profiler;
+
+    public TrainerProfilingEndpoint(JfrProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public ProfileAggregator.Snapshot profile() {
+        return profiler.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, String> dump() throws IOException {
+        return Map.of("path", profiler.dump().toString());
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profiler.reset();
+    }
+}
@@ -0,0 +1,34 @@
+package com.trainer.name.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// TrainerControllerへの1リクエスト（所要時間はイベントの開始から終了まで）
+@Name(TrainerRequestEvent.NAME)
+@Label("Trainer Request")
+@Category("Trainer")
+@StackTrace(false)
+public class TrainerRequestEvent extends jdk.jfr.Event {
+    public static final String NAME = "com.trainer.name.Request";
+
+    // 例: GET /trainers/{id}
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Status")
+    int status;
+
+    @Label("Statements")
+    int statements;
+
+    @Label("Rows")
+    long rows;
+
+    // リクエストを処理したスレッドが割り当てたメモリ
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
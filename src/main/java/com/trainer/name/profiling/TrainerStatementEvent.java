@@ -0,0 +1,26 @@
+package com.trainer.name.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// TrainerMapperなどが発行した1つのSQL（所要時間はイベントの開始から終了まで）
+@Name(TrainerStatementEvent.NAME)
+@Label("Trainer Statement")
+@Category("Trainer")
+@StackTrace(false)
+public class TrainerStatementEvent extends jdk.jfr.Event {
+    public static final String NAME = "com.trainer.name.Statement";
+
+    // 例: com.trainer.name.mapper.TrainerMapper.findById
+    @Label("Statement")
+    String statement;
+
+    // リクエストの外（起動時の索引構築や定期処理）ではnull
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Rows")
+    long rows;
+}
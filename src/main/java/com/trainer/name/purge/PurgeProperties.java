@@ -0,0 +1,77 @@
+package com.trainer.name.purge;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "trainer.purge")
+@Validated
+public class PurgeProperties {
+    private boolean enabled = true;
+    // 論理削除してから物理削除の対象にするまでの時間
+    private Duration retention = Duration.ofMinutes(5);
+    // 1バッチで物理削除する行数
+    @Min(1)
+    private int batchSize = 500;
+    // 1回の実行で処理するバッチの上限（残りは次の実行に回す）
+    private int maxBatchesPerRun = 20;
+    // 物理削除に使ってよい時間の割合。0.2なら処理にかかった時間の4倍休止する
+    // 休止の時間をこの値で割って求めるので、0や負の値は起動時にエラーにする
+    @DecimalMin("0.01")
+    @DecimalMax("1.0")
+    private double maxDutyCycle = 0.2;
+    // 処理中のリクエスト（trainer.admission.inflightの合計）がこれを超えている間は物理削除しない
+    private int maxInflight = 8;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    public double getMaxDutyCycle() {
+        return maxDutyCycle;
+    }
+
+    public void setMaxDutyCycle(double maxDutyCycle) {
+        this.maxDutyCycle = maxDutyCycle;
+    }
+
+    public int getMaxInflight() {
+        return maxInflight;
+    }
+
+    public void setMaxInflight(int maxInflight) {
+        this.maxInflight = maxInflight;
+    }
+}
@@ -0,0 +1,92 @@
+package com.trainer.name.purge;
+
+import com.trainer.name.admission.AdaptiveConcurrencyLimiter;
+import com.trainer.name.mapper.TrainerMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// 論理削除した行を、保持期間が過ぎてから少しずつ物理削除する
+// - 1バッチはbatchSize行まで。削除済みの行をインデックスの範囲で探し、主キーを指定して消す（範囲のギャップロックを取らない）
+// - 処理時間に応じて休止を入れ、DBを使う時間の割合をmaxDutyCycle以下に抑える
+// - リクエストを処理中の数（流量の制御のAdaptiveConcurrencyLimiter）が多い間は始めず、途中でも止めて次の実行に回す
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "trainer.purge.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(PurgeProperties.class)
+public class SoftDeletePurger {
+    private static final Logger log = LoggerFactory.getLogger(SoftDeletePurger.class);
+
+    private final TrainerMapper trainerMapper;
+    private final PurgeProperties properties;
+    private final ObjectProvider<AdaptiveConcurrencyLimiter> concurrencyLimiter;
+    private final Counter purgedRows;
+    private final Counter deferredRuns;
+
+    public SoftDeletePurger(TrainerMapper trainerMapper, PurgeProperties properties,
+                            ObjectProvider<AdaptiveConcurrencyLimiter> concurrencyLimiter, MeterRegistry meterRegistry) {
+        this.trainerMapper = trainerMapper;
+        this.properties = properties;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.purgedRows = Counter.builder("trainer.purge.rows").register(meterRegistry);
+        this.deferredRuns = Counter.builder("trainer.purge.deferred").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${trainer.purge.interval:PT1M}", initialDelayString = "${trainer.purge.interval:PT1M}")
+    public void purge() {
+        long retentionSeconds = properties.getRetention().toSeconds();
+        int batchSize = properties.getBatchSize();
+        int total = 0;
+        // 休止中に割り込まれた（終了する）場合も、そこで止める
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun() && !Thread.currentThread().isInterrupted(); batch++) {
+            if (isBusy()) {
+                deferredRuns.increment();
+                log.debug("リクエストを処理中のため物理削除を見送ります");
+                break;
+            }
+            long start = System.nanoTime();
+            List<Integer> ids = trainerMapper.findPurgeableIds(retentionSeconds, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            int purged = trainerMapper.purge(ids);
+            purgedRows.increment(purged);
+            total += purged;
+            if (ids.size() < batchSize) {
+                break;
+            }
+            throttle(Duration.ofNanos(System.nanoTime() - start));
+        }
+        if (total > 0) {
+            log.info("論理削除したトレーナーを物理削除しました: rows={}", total);
+        }
+    }
+
+    // 流量の制御を無効にしている場合は処理中の数がわからないので、空いているものとして扱う
+    private boolean isBusy() {
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiter.getIfAvailable();
+        return limiter != null && limiter.inflight() > properties.getMaxInflight();
+    }
+
+    private void throttle(Duration elapsed) {
+        double dutyCycle = properties.getMaxDutyCycle();
+        if (dutyCycle >= 1.0) {
+            return;
+        }
+        try {
+            Thread.sleep((long) (elapsed.toMillis() * (1 - dutyCycle) / dutyCycle));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
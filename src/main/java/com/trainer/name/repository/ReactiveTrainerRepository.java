@@ -0,0 +1,124 @@
+package com.trainer.name.repository;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.util.EmailNormalizer;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiFunction;
+
+// TrainerMapperと同じSQLをR2DBCで発行する（reactiveプロファイル用）
+@Repository
+@Profile("reactive")
+public class ReactiveTrainerRepository {
+    private static final BiFunction<Row, RowMetadata, Trainer> TRAINER_MAPPING = (row, metadata) -> new Trainer(
+            row.get("id", Long.class).intValue(),
+            row.get("name", String.class),
+            row.get("email", String.class));
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveTrainerRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<Trainer> findAll() {
+        return databaseClient.sql("SELECT id, name, email FROM trainers WHERE deleted_at IS NULL ORDER BY id")
+                .map(TRAINER_MAPPING)
+                .all();
+    }
+
+    public Flux<Trainer> findByNameStartingWith(String startingWith) {
+        return databaseClient.sql("SELECT id, name, email FROM trainers WHERE deleted_at IS NULL AND name LIKE CONCAT('%', :startingWith, '%')")
+                .bind("startingWith", startingWith)
+                .map(TRAINER_MAPPING)
+                .all();
+    }
+
+    public Flux<Trainer> findByEmail(String email) {
+        return databaseClient.sql("SELECT id, name, email FROM trainers WHERE email_live = :emailNormalized")
+                .bind("emailNormalized", EmailNormalizer.normalize(email))
+                .map(TRAINER_MAPPING)
+                .all();
+    }
+
+    public Flux<Trainer> findByName(String name) {
+        return databaseClient.sql("SELECT id, name, email FROM trainers WHERE deleted_at IS NULL AND name LIKE CONCAT('%', :name, '%')")
+                .bind("name", name)
+                .map(TRAINER_MAPPING)
+                .all();
+    }
+
+    public Mono<Trainer> findById(int id) {
+        return databaseClient.sql("SELECT id, name, email FROM trainers WHERE id = :id AND deleted_at IS NULL")
+                .bind("id", id)
+                .map(TRAINER_MAPPING)
+                .one();
+    }
+
+    public Mono<Trainer> insert(Trainer trainer) {
+        return databaseClient.sql("INSERT INTO trainers (name, email, email_normalized) VALUES (:name, :email, :emailNormalized)")
+                .bind("name", trainer.name())
+                .bind("email", trainer.email())
+                .bind("emailNormalized", EmailNormalizer.normalize(trainer.email()))
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one()
+                .map(id -> new Trainer(id.intValue(), trainer.name(), trainer.email()));
+    }
+
+    public Mono<Long> countByEmail(String email) {
+        return databaseClient.sql("SELECT COUNT(*) AS count FROM trainers WHERE email_live = :emailNormalized")
+                .bind("emailNormalized", EmailNormalizer.normalize(email))
+                .map((row, metadata) -> row.get("count", Long.class))
+                .one();
+    }
+
+    public Mono<Long> countByName(String name) {
+        return databaseClient.sql("SELECT COUNT(*) AS count FROM trainers WHERE name_live = :name")
+                .bind("name", name)
+                .map((row, metadata) -> row.get("count", Long.class))
+                .one();
+    }
+
+    public Mono<Long> update(Trainer trainer) {
+        return databaseClient.sql("UPDATE trainers SET name = :name, email = :email, email_normalized = :emailNormalized WHERE id = :id AND deleted_at IS NULL")
+                .bind("name", trainer.name())
+                .bind("email", trainer.email())
+                .bind("emailNormalized", EmailNormalizer.normalize(trainer.email()))
+                .bind("id", trainer.id())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> delete(int id) {
+        return databaseClient.sql("UPDATE trainers SET deleted_at = CURRENT_TIMESTAMP(6) WHERE id = :id AND deleted_at IS NULL")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // 論理削除した行も含めて読む（削除と同じトランザクションで、無効化するメールアドレスのキャッシュのキーを知るため）
+    public Mono<String> findEmailById(int id) {
+        return databaseClient.sql("SELECT email FROM trainers WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> row.get("email", String.class))
+                .one();
+    }
+
+    // TrainerCountMapper.addと同じSQLで、件数のカウンターのslotの行に足し込む
+    public Mono<Long> addToCounter(String name, int slot, long delta) {
+        return databaseClient.sql("INSERT INTO trainer_counts (name, slot, amount) VALUES (:name, :slot, :delta) " +
+                        "ON DUPLICATE KEY UPDATE amount = amount + :delta")
+                .bind("name", name)
+                .bind("slot", slot)
+                .bind("delta", delta)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,88 @@
+package com.trainer.name.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// DBに接続できない失敗が続いたら問い合わせを止め（OPEN）、一定時間後に少数だけ試す（HALF_OPEN）
+// 試した問い合わせが成功すれば元に戻し（CLOSED）、失敗すればまた止める
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+
+    // CLOSEDのときはロックを取らずに通す
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+
+    public CircuitBreaker(ResilienceProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    CircuitBreaker(ResilienceProperties properties, LongSupplier nanoClock) {
+        this.failureThreshold = properties.getFailureThreshold();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenProbes = properties.getHalfOpenProbes();
+        this.nanoClock = nanoClock;
+    }
+
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight >= halfOpenProbes) {
+                    return false;
+                }
+                probesInFlight++;
+            }
+            return true;
+        }
+    }
+
+    // DBから応答があった（業務上のエラーを含む）
+    public void onSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+        synchronized (this) {
+            consecutiveFailures = 0;
+            state = State.CLOSED;
+        }
+    }
+
+    // DBに接続できなかった
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            consecutiveFailures = 0;
+        }
+    }
+
+    public State state() {
+        return state;
+    }
+
+    // 次に試すまでの残り時間（Retry-Afterに使う）
+    public synchronized Duration retryAfter() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, openNanos - (nanoClock.getAsLong() - openedAt)));
+    }
+}
@@ -0,0 +1,128 @@
+package com.trainer.name.resilience;
+
+import com.trainer.name.exception.DatabaseUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.ConnectException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Optional;
+
+// マッパーの呼び出しをサーキットブレーカーで囲む
+// - ブレーカーが開いている間はDBに問い合わせず、接続のタイムアウトを待たずに失敗させる
+// - 読み込み（find*、count*）は、DBに接続できなければ最後に読めた結果を返し、レスポンスにWarningヘッダーを付ける
+public class CircuitBreakingMapper implements InvocationHandler {
+    // RFC 7234の「古いレスポンス」
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private final Object delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final StaleReadCache staleReadCache;
+    private final Counter rejected;
+    private final Counter staleServed;
+
+    private CircuitBreakingMapper(Object delegate, CircuitBreaker circuitBreaker, StaleReadCache staleReadCache,
+                                  Counter rejected, Counter staleServed) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.staleReadCache = staleReadCache;
+        this.rejected = rejected;
+        this.staleServed = staleServed;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T wrap(Class<T> mapperInterface, T delegate, CircuitBreaker circuitBreaker, StaleReadCache staleReadCache,
+                             Counter rejected, Counter staleServed) {
+        return (T) Proxy.newProxyInstance(mapperInterface.getClassLoader(), new Class<?>[]{mapperInterface},
+                new CircuitBreakingMapper(delegate, circuitBreaker, staleReadCache, rejected, staleServed));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> method.invoke(delegate, args);
+            };
+        }
+        boolean read = isRead(method);
+        if (!circuitBreaker.tryAcquire()) {
+            rejected.increment();
+            return fallback(method, args, read, null);
+        }
+        Object result;
+        try {
+            result = method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (!isUnavailable(cause)) {
+                // 業務上のエラー（一意制約の違反など）はDBが応答しているので成功として扱う
+                circuitBreaker.onSuccess();
+                throw cause;
+            }
+            circuitBreaker.onFailure();
+            return fallback(method, args, read, cause);
+        }
+        circuitBreaker.onSuccess();
+        if (read) {
+            staleReadCache.put(method.getName(), args, result);
+        }
+        return result;
+    }
+
+    private Object fallback(Method method, Object[] args, boolean read, Throwable cause) {
+        if (read) {
+            Optional<Object> stale = staleReadCache.get(method.getName(), args);
+            if (stale.isPresent()) {
+                staleServed.increment();
+                StaleReads.markServed();
+                markStale();
+                return stale.get();
+            }
+        }
+        throw new DatabaseUnavailableException("データベースに接続できません。しばらくしてから再度お試しください",
+                circuitBreaker.retryAfter(), cause);
+    }
+
+    // ブレーカーを開く原因にするのは、接続できない・応答がないといった失敗だけ
+    static boolean isUnavailable(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof DataAccessResourceFailureException || t instanceof TransientDataAccessResourceException
+                    || t instanceof QueryTimeoutException || t instanceof SQLTransientConnectionException
+                    || t instanceof SQLNonTransientConnectionException || t instanceof SQLTimeoutException
+                    || t instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRead(Method method) {
+        String name = method.getName();
+        return name.startsWith("find") || name.startsWith("count");
+    }
+
+    // コントローラーが本文を書き込む前なので、ここでヘッダーを付けておく
+    private static void markStale() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletResponse response = servletAttributes.getResponse();
+            if (response != null && !response.isCommitted() && !response.containsHeader("Warning")) {
+                response.addHeader("Warning", STALE_WARNING);
+            }
+        }
+    }
+}
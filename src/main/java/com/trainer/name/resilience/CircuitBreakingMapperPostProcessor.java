@@ -0,0 +1,58 @@
+package com.trainer.name.resilience;
+
+import com.trainer.name.mapper.TrainerMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// TrainerMapperのBean（シャーディングではShardedTrainerMapperも）をCircuitBreakingMapperで包む
+// ブレーカーと古い結果のキャッシュは、包んだマッパーのすべてで共有する
+// BeanPostProcessorは他のBeanより先に作られるので、設定とメトリクスは最初に包むときに取り出す
+@Component
+@ConditionalOnProperty(name = "trainer.resilience.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class CircuitBreakingMapperPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<ResilienceProperties> properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private CircuitBreaker circuitBreaker;
+    private StaleReadCache staleReadCache;
+    private Counter rejected;
+    private Counter staleServed;
+
+    public CircuitBreakingMapperPostProcessor(ObjectProvider<ResilienceProperties> properties,
+                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof TrainerMapper trainerMapper)) {
+            return bean;
+        }
+        initialize();
+        return CircuitBreakingMapper.wrap(TrainerMapper.class, trainerMapper, circuitBreaker, staleReadCache, rejected, staleServed);
+    }
+
+    private synchronized void initialize() {
+        if (circuitBreaker != null) {
+            return;
+        }
+        ResilienceProperties resilience = properties.getObject();
+        MeterRegistry registry = meterRegistry.getObject();
+        circuitBreaker = new CircuitBreaker(resilience);
+        staleReadCache = new StaleReadCache(resilience.getStaleMaxEntries(), resilience.getStaleMaxResultSize(),
+                resilience.getStaleRefreshInterval());
+        // 0: CLOSED, 1: HALF_OPEN, 2: OPEN
+        Gauge.builder("trainer.db.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal()).register(registry);
+        Gauge.builder("trainer.db.stale.entries", staleReadCache, StaleReadCache::size).register(registry);
+        rejected = Counter.builder("trainer.db.circuit.rejected").register(registry);
+        staleServed = Counter.builder("trainer.db.stale.served").register(registry);
+    }
+}
@@ -0,0 +1,78 @@
+package com.trainer.name.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "trainer.resilience")
+public class ResilienceProperties {
+    private boolean enabled = true;
+    // 接続できない失敗がこの回数続いたら、DBへの問い合わせを止める
+    private int failureThreshold = 5;
+    // 止めてから試しに問い合わせるまでの時間
+    private Duration openDuration = Duration.ofSeconds(5);
+    // 試しに通す問い合わせの数（これ以外はすぐに失敗させる）
+    private int halfOpenProbes = 1;
+    // DBに接続できないときに返す、最後に読めた検索結果の数
+    private int staleMaxEntries = 10000;
+    // 大きすぎる検索結果（一覧など）は保持しない
+    private int staleMaxResultSize = 1000;
+    // 同じ検索の結果は、この時間が経つまで入れ直さない（成功した読み込みのたびに書き込まないように）
+    private Duration staleRefreshInterval = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    public void setHalfOpenProbes(int halfOpenProbes) {
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public int getStaleMaxEntries() {
+        return staleMaxEntries;
+    }
+
+    public void setStaleMaxEntries(int staleMaxEntries) {
+        this.staleMaxEntries = staleMaxEntries;
+    }
+
+    public int getStaleMaxResultSize() {
+        return staleMaxResultSize;
+    }
+
+    public void setStaleMaxResultSize(int staleMaxResultSize) {
+        this.staleMaxResultSize = staleMaxResultSize;
+    }
+
+    public Duration getStaleRefreshInterval() {
+        return staleRefreshInterval;
+    }
+
+    public void setStaleRefreshInterval(Duration staleRefreshInterval) {
+        this.staleRefreshInterval = staleRefreshInterval;
+    }
+}
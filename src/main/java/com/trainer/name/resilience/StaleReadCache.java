@@ -0,0 +1,74 @@
+package com.trainer.name.resilience;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// マッパーの読み込み（メソッドと引数）ごとに、最後に読めた結果を件数の上限付きで持つ
+// DBに接続できないときだけ使うので、更新されても消さない（古いことはレスポンスのヘッダーで伝える）
+// 成功した読み込みのたびに呼ばれるので、ロックを取らず、同じキーはrefreshIntervalが経つまで入れ直さない
+public class StaleReadCache {
+    private final int maxEntries;
+    private final int maxResultSize;
+    private final long refreshIntervalNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public StaleReadCache(int maxEntries, int maxResultSize, Duration refreshInterval) {
+        this(maxEntries, maxResultSize, refreshInterval, System::nanoTime);
+    }
+
+    StaleReadCache(int maxEntries, int maxResultSize, Duration refreshInterval, LongSupplier nanoClock) {
+        this.maxEntries = maxEntries;
+        this.maxResultSize = maxResultSize;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public void put(String method, Object[] args, Object result) {
+        if (result == null || result instanceof Collection<?> collection && collection.size() > maxResultSize) {
+            return;
+        }
+        Key key = new Key(method, args);
+        long now = nanoClock.getAsLong();
+        Entry current = entries.get(key);
+        if (current != null && now - current.storedAt() < refreshIntervalNanos) {
+            return;
+        }
+        // 件数の上限に達していたら、どれか1件を追い出してから入れる
+        if (current == null && entries.size() >= maxEntries) {
+            Iterator<Key> keys = entries.keySet().iterator();
+            if (keys.hasNext()) {
+                entries.remove(keys.next());
+            }
+        }
+        // 呼び出し元がリストを書き換えても影響しないようコピーを持つ
+        Object value = result instanceof List<?> list ? List.copyOf(list) : result;
+        entries.put(key, new Entry(value, now));
+    }
+
+    // 見つからなければnullではなく空を返す（Optional<Trainer>の結果と区別するため二重にしている）
+    public Optional<Object> get(String method, Object[] args) {
+        Entry entry = entries.get(new Key(method, args));
+        return entry == null ? Optional.empty() : Optional.of(entry.value());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private record Entry(Object value, long storedAt) {
+    }
+
+    private record Key(String method, List<Object> args) {
+        Key(String method, Object[] args) {
+            this(method, args == null ? List.of() : Arrays.asList(args.clone()));
+        }
+    }
+}
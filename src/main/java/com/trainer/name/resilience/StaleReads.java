@@ -0,0 +1,19 @@
+package com.trainer.name.resilience;
+
+// CircuitBreakingMapperが最後に読めた（古い）結果を返したことを、同じスレッドの呼び出し元に伝える
+// キャッシュは読み込みの前後で回数を比べ、増えていれば古い結果から作った値を保存しない
+public final class StaleReads {
+    private static final ThreadLocal<long[]> SERVED = ThreadLocal.withInitial(() -> new long[1]);
+
+    private StaleReads() {
+    }
+
+    public static void markServed() {
+        SERVED.get()[0]++;
+    }
+
+    // このスレッドで古い結果を返した回数（前後で比べるためだけに使う）
+    public static long servedCount() {
+        return SERVED.get()[0];
+    }
+}
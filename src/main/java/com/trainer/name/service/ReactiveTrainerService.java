@@ -0,0 +1,142 @@
+package com.trainer.name.service;
+
+import com.trainer.name.cache.TrainerCaches;
+import com.trainer.name.count.TrainerCounter;
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.event.TrainerChangedEvent;
+import com.trainer.name.exception.DuplicateEmailException;
+import com.trainer.name.exception.DuplicateNameException;
+import com.trainer.name.exception.TrainerNotFoundException;
+import com.trainer.name.repository.ReactiveTrainerRepository;
+import com.trainer.name.util.EmailNormalizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// TrainerServiceと同じ業務ルールをノンブロッキングで実装したもの
+// 同じDBをMVC構成のノードと共有できるよう、書き込みの副作用もTrainerServiceにそろえる
+// （件数のカウンターの増減、1件取得のキャッシュの無効化、TrainerChangedEventの発行）
+@Service
+@Profile("reactive")
+public class ReactiveTrainerService {
+    private final ReactiveTrainerRepository trainerRepository;
+    // INSERT/DELETEと件数のカウンターの増減を同じトランザクションにする
+    private final TransactionalOperator transactionalOperator;
+    private final TrainerCaches trainerCaches;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReactiveTrainerService(ReactiveTrainerRepository trainerRepository, TransactionalOperator transactionalOperator,
+                                  TrainerCaches trainerCaches, ApplicationEventPublisher eventPublisher) {
+        this.trainerRepository = trainerRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.trainerCaches = trainerCaches;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // GET(Read処理)
+    public Flux<Trainer> findByNameStartingWith(String startingWith) {
+        return trainerRepository.findByNameStartingWith(startingWith)
+                .switchIfEmpty(Flux.error(() -> new TrainerNotFoundException(startingWith + "で始まる名前のトレーナーは存在していません")));
+    }
+
+    public Flux<Trainer> findByEmail(String email) {
+        return trainerRepository.findByEmail(email)
+                .switchIfEmpty(Flux.error(() -> new TrainerNotFoundException(email + "というメールアドレスを使っているトレーナーは存在していません")));
+    }
+
+    public Flux<Trainer> findByName(String name) {
+        return trainerRepository.findByName(name)
+                .switchIfEmpty(Flux.error(() -> new TrainerNotFoundException(name + "という名前のトレーナーは存在していません")));
+    }
+
+    public Flux<Trainer> findAll() {
+        return trainerRepository.findAll()
+                .switchIfEmpty(Flux.error(() -> new TrainerNotFoundException("トレーナーはいません")));
+    }
+
+    public Mono<Trainer> findById(int id) {
+        return trainerRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new TrainerNotFoundException("idが" + id + "のトレーナーはいません")));
+    }
+
+    public Mono<Trainer> insert(String name, String email) {
+        return checkEmailUnique(email)
+                .then(checkNameUnique(name))
+                .then(trainerRepository.insert(new Trainer(null, name, email))
+                        .flatMap(trainer -> addToCounter(1).thenReturn(trainer))
+                        .as(transactionalOperator::transactional))
+                .flatMap(trainer -> afterWrite(() -> eventPublisher.publishEvent(TrainerChangedEvent.created(trainer)))
+                        .thenReturn(trainer));
+    }
+
+    public Mono<Void> update(int id, String name, String email) {
+        return findById(id)
+                .flatMap(existingTrainer -> {
+                    Trainer trainerToUpdate = new Trainer(id, name, email);
+                    return validateUpdateParameters(name, email, existingTrainer)
+                            .then(trainerRepository.update(trainerToUpdate))
+                            .then(afterWrite(() -> {
+                                trainerCaches.evict(id, List.of(existingTrainer.email(), email));
+                                eventPublisher.publishEvent(TrainerChangedEvent.updated(existingTrainer, trainerToUpdate));
+                            }));
+                });
+    }
+
+    private Mono<Void> validateUpdateParameters(String name, String email, Trainer existingTrainer) {
+        // 名前がnullまたは空文字の場合
+        if (name == null || name.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("名前は必須です"));
+        }
+        // メールアドレスがnullまたは空文字の場合
+        if (email == null || email.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("メールアドレスは必須です"));
+        }
+        boolean emailChanged = !EmailNormalizer.normalize(email).equals(EmailNormalizer.normalize(existingTrainer.email()));
+        Mono<Void> emailCheck = emailChanged ? checkEmailUnique(email) : Mono.empty();
+        Mono<Void> nameCheck = name.equals(existingTrainer.name()) ? Mono.empty() : checkNameUnique(name);
+        return emailCheck.then(nameCheck);
+    }
+
+    public Mono<Void> delete(int id) {
+        // 論理削除の1文だけで存在の確認も兼ねる
+        // 削除した行のメールアドレスは、行ロックを持ったまま同じトランザクションで読む（そのキーだけを無効化する）
+        return trainerRepository.delete(id)
+                .flatMap(rows -> rows == 0
+                        ? Mono.<String>error(new TrainerNotFoundException("idが" + id + "のトレーナーが見つかりません"))
+                        : addToCounter(-rows).then(trainerRepository.findEmailById(id)))
+                .as(transactionalOperator::transactional)
+                .flatMap(deletedEmail -> afterWrite(() -> {
+                    trainerCaches.evict(id, List.of(deletedEmail));
+                    eventPublisher.publishEvent(TrainerChangedEvent.deleted(id));
+                }));
+    }
+
+    private Mono<Void> addToCounter(long delta) {
+        return trainerRepository.addToCounter(TrainerCounter.COUNTER_NAME, ThreadLocalRandom.current().nextInt(TrainerCounter.SLOTS), delta)
+                .then();
+    }
+
+    // キャッシュの無効化とイベントのリスナーはリモート層（Redis）へブロッキングで書き込むので、イベントループでは実行しない
+    private static Mono<Void> afterWrite(Runnable action) {
+        return Mono.fromRunnable(action)
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private Mono<Void> checkEmailUnique(String email) {
+        return trainerRepository.countByEmail(email)
+                .flatMap(count -> count == 0 ? Mono.<Void>empty() : Mono.error(new DuplicateEmailException("このメールアドレスは既に使用されています")));
+    }
+
+    private Mono<Void> checkNameUnique(String name) {
+        return trainerRepository.countByName(name)
+                .flatMap(count -> count == 0 ? Mono.<Void>empty() : Mono.error(new DuplicateNameException("この名前は既に使用されています")));
+    }
+}
@@ -1,20 +1,59 @@
 package com.trainer.name.service;
 
+import com.trainer.name.cache.TrainerCacheConfig;
+import com.trainer.name.cache.TrainerCaches;
+import com.trainer.name.cache.TrainerDocumentCache;
+import com.trainer.name.count.TrainerCounter;
 import com.trainer.name.entity.Trainer;
+import com.trainer.name.entity.TrainerSummary;
+import com.trainer.name.event.TrainerChangedEvent;
 import com.trainer.name.exception.DuplicateEmailException;
 import com.trainer.name.exception.DuplicateNameException;
 import com.trainer.name.exception.TrainerNotFoundException;
+import com.trainer.name.id.TrainerIdAllocator;
+import com.trainer.name.index.TrainerExistenceFilter;
+import com.trainer.name.index.TrainerNameIndex;
 import com.trainer.name.mapper.TrainerMapper;
+import com.trainer.name.mapper.TrainerSearchCriteria;
+import com.trainer.name.util.EmailNormalizer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
+@Profile("!reactive")
 public class TrainerService {
     private final TrainerMapper trainerMapper;
+    private final TrainerExistenceFilter existenceFilter;
+    private final TrainerNameIndex nameIndex;
+    private final TrainerDocumentCache documentCache;
+    private final TrainerCaches trainerCaches;
+    private final TrainerCounter trainerCounter;
+    private final ApplicationEventPublisher eventPublisher;
+    // INSERT/DELETEと件数のカウンターの増減を同じトランザクションにする
+    private final TransactionTemplate transactionTemplate;
+    // trainer.id.allocator=segmentのときだけ存在する（それ以外はAUTO_INCREMENTで採番する）
+    private final ObjectProvider<TrainerIdAllocator> idAllocator;
 
-    public TrainerService(TrainerMapper trainerMapper) {
+    public TrainerService(TrainerMapper trainerMapper, TrainerExistenceFilter existenceFilter, TrainerNameIndex nameIndex,
+                          TrainerDocumentCache documentCache, TrainerCaches trainerCaches, TrainerCounter trainerCounter, ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager, ObjectProvider<TrainerIdAllocator> idAllocator) {
         this.trainerMapper = trainerMapper;
+        this.existenceFilter = existenceFilter;
+        this.nameIndex = nameIndex;
+        this.documentCache = documentCache;
+        this.trainerCaches = trainerCaches;
+        this.trainerCounter = trainerCounter;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idAllocator = idAllocator;
     }
 
     // GET(Read処理)
@@ -26,6 +65,20 @@ public class TrainerService {
         return trainers;
     }
 
+    // 名前の入力候補（オートコンプリート）
+    public List<TrainerSummary> suggest(String prefix, int limit, boolean fold) {
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        // 起動直後で索引が構築されるまでの間だけDBに問い合わせる
+        if (!nameIndex.isReady()) {
+            return trainerMapper.findSummariesByNamePrefix(prefix, limit, fold);
+        }
+        return nameIndex.suggest(prefix, limit, fold);
+    }
+
+    // キャッシュのキーもDBと同じく正規化したメールアドレスにする
+    @Cacheable(cacheNames = TrainerCacheConfig.TRAINERS_BY_EMAIL, key = "T(com.trainer.name.util.EmailNormalizer).normalize(#email)", sync = true)
     public List<Trainer> findByEmail(String email) throws TrainerNotFoundException {
         List<Trainer> trainers = trainerMapper.findByEmail(email);
         if (trainers.isEmpty()) {
@@ -50,12 +103,84 @@ public class TrainerService {
         return trainers;
     }
 
+    // idの順にafterIdより後ろのlimit件（シャーディングしていても全件を読まずにページングできる）
+    public List<Trainer> findPage(int afterId, int limit) {
+        return trainerMapper.findPage(afterId, limit);
+    }
+
+    // 複数の条件を組み合わせた検索（該当なしは空のリスト）
+    // 最も絞り込めるインデックスから使う: メールアドレスはユニークなので1件を引いて残りの条件で確かめ、
+    // それ以外は前方一致の範囲（なければ削除されていない行の範囲）を走査するSQLに任せる
+    public List<Trainer> search(TrainerSearchCriteria criteria) {
+        if (criteria.email() != null) {
+            return trainerMapper.findByEmail(criteria.email()).stream()
+                    .filter(criteria::matches)
+                    .limit(criteria.limit())
+                    .toList();
+        }
+        return trainerMapper.search(criteria);
+    }
+
+    // 一覧・検索のidと名前だけを返す版（カバリングインデックスだけで答えるので、Trainerを返すより読み込みが少ない）
+    public List<TrainerSummary> findSummaries() throws TrainerNotFoundException {
+        List<TrainerSummary> summaries = trainerMapper.findSummaries();
+        if (summaries.isEmpty()) {
+            throw new TrainerNotFoundException("トレーナーはいません");
+        }
+        return summaries;
+    }
+
+    public List<TrainerSummary> findSummariesByNameStartingWith(String startingWith) throws TrainerNotFoundException {
+        List<TrainerSummary> summaries = trainerMapper.findSummariesByNameContaining(startingWith);
+        if (summaries.isEmpty()) {
+            throw new TrainerNotFoundException(startingWith + "で始まる名前のトレーナーは存在していません");
+        }
+        return summaries;
+    }
+
+    public List<TrainerSummary> findSummariesByName(String name) throws TrainerNotFoundException {
+        List<TrainerSummary> summaries = trainerMapper.findSummariesByNameContaining(name);
+        if (summaries.isEmpty()) {
+            throw new TrainerNotFoundException(name + "という名前のトレーナーは存在していません");
+        }
+        return summaries;
+    }
+
+    // 件数（GET /trainers/count）。全体の件数はCOUNT(*)ではなくカウンターから読む
+    public long count() {
+        return trainerCounter.total();
+    }
+
+    // 絞り込んだ件数は数え直すので、しばらく同じ結果を使い回す
+    public long countByName(String name) {
+        return trainerCounter.filtered(TrainerCounter.Filter.NAME, name, () -> trainerMapper.countByNameContaining(name));
+    }
+
+    public long countByEmail(String email) {
+        return trainerCounter.filtered(TrainerCounter.Filter.EMAIL, EmailNormalizer.normalize(email), () -> trainerMapper.countByEmail(email));
+    }
+
+    // trainerByIdのキャッシュを読み通す。更新・削除ではイベントの発行（エンコード済みJSONの無効化）より先にこのキャッシュを無効化する
     public Trainer findById(int id) throws TrainerNotFoundException {
-        return trainerMapper.findById(id).orElseThrow(() -> new TrainerNotFoundException("idが" + id + "のトレーナーはいません"));
+        return trainerCaches.trainerById(id, () -> trainerMapper.findById(id)
+                .orElseThrow(() -> new TrainerNotFoundException("idが" + id + "のトレーナーはいません")));
+    }
+
+    // GET /trainers/{id}のレスポンス用に、エンコード済みのJSONを返す
+    // 元の値はfindByIdのキャッシュから読む。読み込み中に無効化された場合は、TrainerDocumentCacheがidごとにエンコード結果を捨てる
+    public TrainerDocumentCache.Document findDocumentById(int id) throws TrainerNotFoundException {
+        return documentCache.get(id, () -> findById(id));
     }
 
     private boolean isEmailUnique(String email) {
+        // Bloomフィルタで確実に存在しないと分かればCOUNTクエリを省略する
+        if (!existenceFilter.mightContainEmail(email)) {
+            return true;
+        }
         int count = trainerMapper.countByEmail(email);
+        if (count == 0) {
+            existenceFilter.recordFalsePositive();
+        }
         return count == 0;
     }
 
@@ -67,22 +192,49 @@ public class TrainerService {
             throw new DuplicateNameException("この名前は既に使用されています");
         }
 
-        Trainer trainer = new Trainer(null, name, email);
-        trainerMapper.insert(trainer);
+        // idはINSERTのトランザクションを始める前に借りる
+        // （ブロックを借りるときは別のトランザクションで接続を使うので、INSERTの接続を持ったまま待たない）
+        Integer id = allocateId();
+        Trainer trainer = transactionTemplate.execute(status -> {
+            Trainer inserted = insertTrainer(id, name, email);
+            trainerCounter.add(1);
+            return inserted;
+        });
+        eventPublisher.publishEvent(TrainerChangedEvent.created(trainer));
+        return trainer;
+    }
+
+    // idを先に決められる場合は、AUTO_INCREMENTのロックを待たずにidを指定してINSERTする。決められなければnull
+    private Integer allocateId() {
+        TrainerIdAllocator allocator = idAllocator.getIfAvailable();
+        return allocator == null ? null : allocator.nextId();
+    }
+
+    private Trainer insertTrainer(Integer id, String name, String email) {
+        if (id == null) {
+            return trainerMapper.insert(new Trainer(null, name, email));
+        }
+        Trainer trainer = new Trainer(id, name, email);
+        trainerMapper.insertWithId(trainer);
         return trainer;
     }
 
     private boolean isNameUnique(String name) {
+        if (!existenceFilter.mightContainName(name)) {
+            return true;
+        }
         int count = trainerMapper.countByName(name);
+        if (count == 0) {
+            existenceFilter.recordFalsePositive();
+        }
         return count == 0;
     }
 
+    // キャッシュは更新した行のidと、変更前・変更後のメールアドレスのキーだけを無効化する
     public void update(int id, String name, String email) throws TrainerNotFoundException, DuplicateEmailException, DuplicateNameException {
-        // 既存のトレーナーを取得
-        Trainer trainer = findById(id);
-        if (trainer == null) {
-            throw new TrainerNotFoundException("idが" + id + "のトレーナーはいません");
-        }
+        // 既存のトレーナーを取得（変更前のメールアドレスを無効化するため、キャッシュではなくDBから読む）
+        Trainer trainer = trainerMapper.findById(id)
+                .orElseThrow(() -> new TrainerNotFoundException("idが" + id + "のトレーナーはいません"));
 
         // パラメータの検証
         validateUpdateParameters(name, email, trainer);
@@ -90,6 +242,8 @@ public class TrainerService {
         // 更新処理
         Trainer trainerToUpdate = new Trainer(id, name, email);
         trainerMapper.update(trainerToUpdate);
+        trainerCaches.evict(id, List.of(trainer.email(), email));
+        eventPublisher.publishEvent(TrainerChangedEvent.updated(trainer, trainerToUpdate));
     }
 
     private void validateUpdateParameters(String name, String email, Trainer existingTrainer)
@@ -104,20 +258,32 @@ public class TrainerService {
             throw new IllegalArgumentException("メールアドレスは必須です");
         }
 
-        if (!email.equals(existingTrainer.getEmail()) && !isEmailUnique(email)) {
+        boolean emailChanged = !EmailNormalizer.normalize(email).equals(EmailNormalizer.normalize(existingTrainer.email()));
+        if (emailChanged && !isEmailUnique(email)) {
             throw new DuplicateEmailException("このメールアドレスは既に使用されています");
         }
 
-        if (!name.equals(existingTrainer.getName()) && !isNameUnique(name)) {
+        if (!name.equals(existingTrainer.name()) && !isNameUnique(name)) {
             throw new DuplicateNameException("この名前は既に使用されています");
         }
     }
 
     public void delete(int id) {
-        if (!trainerMapper.findById(id).isPresent()) {
+        // 削除前の行は読まず、主キーでの論理削除の1文だけで存在の確認も兼ねる
+        // 削除した行のメールアドレスは、行ロックを持ったまま同じトランザクションで読む（そのキーだけを無効化する）
+        Optional<String> deletedEmail = transactionTemplate.execute(status -> {
+            int rows = trainerMapper.delete(id);
+            if (rows == 0) {
+                return Optional.<String>empty();
+            }
+            trainerCounter.add(-rows);
+            return trainerMapper.findEmailById(id);
+        });
+        if (deletedEmail.isEmpty()) {
             throw new TrainerNotFoundException("idが" + id + "のトレーナーが見つかりません");
         }
-        trainerMapper.delete(id);
+        trainerCaches.evict(id, List.of(deletedEmail.get()));
+        eventPublisher.publishEvent(TrainerChangedEvent.deleted(id));
     }
 
 }
@@ -0,0 +1,33 @@
+package com.trainer.name.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// シャードごとのコネクションプール（trainer.sharding.shards[n]の順）
+public class ShardDataSources implements AutoCloseable {
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+
+    public ShardDataSources(List<ShardingProperties.Shard> shards) {
+        for (int i = 0; i < shards.size(); i++) {
+            ShardingProperties.Shard shard = shards.get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("trainer-shard-" + i);
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername());
+            dataSource.setPassword(shard.getPassword());
+            dataSources.add(dataSource);
+        }
+    }
+
+    public List<? extends DataSource> list() {
+        return dataSources;
+    }
+
+    @Override
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,53 @@
+package com.trainer.name.sharding;
+
+import com.trainer.name.mapper.TrainerMapper;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.flywaydb.core.Flyway;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.boot.jdbc.DatabaseDriver;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// シャードのDataSourceごとに、スキーマを用意してTrainerMapperを作る
+final class ShardMappers {
+
+    private ShardMappers() {
+    }
+
+    // db/shard/{mysql,h2}のマイグレーションを適用する
+    static void migrate(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/shard/" + vendor(dataSource))
+                .load()
+                .migrate();
+    }
+
+    // 既定のSqlSessionFactoryの設定（プレースホルダーの値、引数名でのマッピング、インターセプター）を引き継ぐ
+    static TrainerMapper create(String id, DataSource dataSource, Configuration template) {
+        Configuration configuration = new Configuration(new Environment(id, new SpringManagedTransactionFactory(), dataSource));
+        configuration.setVariables(template.getVariables());
+        configuration.setArgNameBasedConstructorAutoMapping(template.isArgNameBasedConstructorAutoMapping());
+        configuration.setMapUnderscoreToCamelCase(template.isMapUnderscoreToCamelCase());
+        // @Options(databaseId = "h2")などをシャードのDBに合わせて選ぶ
+        configuration.setDatabaseId(vendor(dataSource));
+        // 2次キャッシュはシャードをまたいだ一覧を持てないので、シャードごとには使わない
+        configuration.setCacheEnabled(false);
+        template.getInterceptors().forEach(configuration::addInterceptor);
+        configuration.addMapper(TrainerMapper.class);
+        return new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(configuration)).getMapper(TrainerMapper.class);
+    }
+
+    private static String vendor(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return DatabaseDriver.fromProductName(connection.getMetaData().getDatabaseProductName()).getId();
+        } catch (SQLException e) {
+            throw new IllegalStateException("シャードに接続できません", e);
+        }
+    }
+}
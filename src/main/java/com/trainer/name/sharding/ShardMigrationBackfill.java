@@ -0,0 +1,71 @@
+package com.trainer.name.sharding;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.mapper.ShardDirectoryMapper;
+import com.trainer.name.mapper.ShardMigrationMapper;
+import com.trainer.name.mapper.TrainerMapper;
+import com.trainer.name.migration.BackfillJob;
+import com.trainer.name.migration.BatchedBackfillRunner;
+import com.trainer.name.util.EmailNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+// シャーディングを有効にする前からある既定のデータソースのtrainersの行を、同じidのままシャードとディレクトリに移すジョブ
+// BatchedBackfillRunnerでidの範囲ごとに進めるので、中断しても続きから再開する。移した元の行は消さない
+// idの採番（trainer_id_sequence）は元のtrainersの最大idより後ろから払い出すので、移す行のidと新しい行のidは重ならない
+@Component
+@Profile("sharded")
+@ConditionalOnProperty(name = "trainer.sharding.migrate-existing", havingValue = "true")
+public class ShardMigrationBackfill implements BackfillJob {
+    private static final Logger log = LoggerFactory.getLogger(ShardMigrationBackfill.class);
+
+    private final ShardMigrationMapper migrationMapper;
+    private final ShardDirectoryMapper directoryMapper;
+    private final TrainerMapper shardedTrainerMapper;
+    private final BatchedBackfillRunner backfillRunner;
+
+    public ShardMigrationBackfill(ShardMigrationMapper migrationMapper, ShardDirectoryMapper directoryMapper,
+                                  TrainerMapper shardedTrainerMapper, BatchedBackfillRunner backfillRunner) {
+        this.migrationMapper = migrationMapper;
+        this.directoryMapper = directoryMapper;
+        this.shardedTrainerMapper = shardedTrainerMapper;
+        this.backfillRunner = backfillRunner;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        backfillRunner.runAsync(this);
+    }
+
+    @Override
+    public String name() {
+        return "sharding__copy_trainers";
+    }
+
+    @Override
+    public int processRange(long fromIdExclusive, long toIdInclusive) {
+        int copied = 0;
+        for (Trainer trainer : migrationMapper.findLiveInRange(fromIdExclusive, toIdInclusive)) {
+            // 前回の実行で移し終えた行（再開時に同じ範囲をもう一度処理した場合）
+            if (shardedTrainerMapper.findById(trainer.id()).isPresent()) {
+                continue;
+            }
+            // ディレクトリにだけ登録して止まった行は、同じidの予約を消してから入れ直す
+            directoryMapper.deleteEmail(EmailNormalizer.normalize(trainer.email()), trainer.id());
+            directoryMapper.deleteName(trainer.name(), trainer.id());
+            try {
+                shardedTrainerMapper.insertWithId(trainer);
+                copied++;
+            } catch (DuplicateKeyException e) {
+                log.warn("メールアドレスか名前が別のidで登録済みのため、シャードに移しませんでした: id={}", trainer.id(), e);
+            }
+        }
+        return copied;
+    }
+}
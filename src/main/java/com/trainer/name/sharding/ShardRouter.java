@@ -0,0 +1,42 @@
+package com.trainer.name.sharding;
+
+import java.util.List;
+
+// idからシャードの番号を決める
+public class ShardRouter {
+    private final ShardingProperties.Strategy strategy;
+    private final long[] maxIds;
+
+    public ShardRouter(ShardingProperties.Strategy strategy, List<Long> maxIds) {
+        if (maxIds.isEmpty()) {
+            throw new IllegalArgumentException("シャードが1つも設定されていません");
+        }
+        this.strategy = strategy;
+        this.maxIds = new long[maxIds.size()];
+        for (int i = 0; i < maxIds.size(); i++) {
+            Long maxId = maxIds.get(i);
+            if (strategy == ShardingProperties.Strategy.RANGE && maxId == null && i < maxIds.size() - 1) {
+                throw new IllegalArgumentException("rangeでは最後以外のシャードにmaxIdが必要です: shard=" + i);
+            }
+            this.maxIds[i] = maxId == null ? Long.MAX_VALUE : maxId;
+        }
+    }
+
+    public int shardFor(long id) {
+        if (strategy == ShardingProperties.Strategy.RANGE) {
+            for (int i = 0; i < maxIds.length - 1; i++) {
+                if (id <= maxIds[i]) {
+                    return i;
+                }
+            }
+            return maxIds.length - 1;
+        }
+        // 連番のidでも偏らないよう、かき混ぜてから割る
+        long mixed = id * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(mixed ^ (mixed >>> 32), (long) maxIds.length);
+    }
+
+    public int shardCount() {
+        return maxIds.length;
+    }
+}
@@ -0,0 +1,270 @@
+package com.trainer.name.sharding;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.entity.TrainerSummary;
+import com.trainer.name.id.TrainerIdAllocator;
+import com.trainer.name.mapper.ShardDirectoryMapper;
+import com.trainer.name.mapper.TrainerMapper;
+import com.trainer.name.mapper.TrainerSearchCriteria;
+import com.trainer.name.util.EmailNormalizer;
+import com.trainer.name.util.NameCollation;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// シャードに分けたtrainersを、1つのTrainerMapperとして見せる
+// - idを指定する操作はShardRouterで決めたシャードだけに送る
+// - 一覧・検索は全シャードに並行して問い合わせ（scatter-gather）、並べ替えてから件数を切る
+// - idはTrainerIdAllocatorで決め、メールアドレス・名前の一意性はディレクトリの表で保証する
+// ディレクトリとシャードは別のDBなので、途中で失敗した場合はディレクトリの予約を取り消して戻す（2相コミットはしない）
+public class ShardedTrainerMapper implements TrainerMapper {
+    private static final Comparator<Trainer> BY_ID = Comparator.comparing(Trainer::id);
+    private static final Comparator<TrainerSummary> SUMMARY_BY_ID = Comparator.comparing(TrainerSummary::id);
+    // 各シャードはnameの照合順序（utf8mb4_general_ci）で並べて返すので、まとめるときも同じ順序で比べる
+    private static final Comparator<TrainerSummary> BY_NAME =
+            Comparator.comparing(TrainerSummary::name, NameCollation.ORDER).thenComparing(TrainerSummary::id);
+
+    private final List<TrainerMapper> shards;
+    private final ShardRouter router;
+    private final ShardDirectoryMapper directoryMapper;
+    private final TrainerIdAllocator idAllocator;
+    private final Executor executor;
+
+    public ShardedTrainerMapper(List<TrainerMapper> shards, ShardRouter router, ShardDirectoryMapper directoryMapper,
+                                TrainerIdAllocator idAllocator, Executor executor) {
+        if (shards.size() != router.shardCount()) {
+            throw new IllegalArgumentException("シャードの数が一致しません: shards=" + shards.size() + ", router=" + router.shardCount());
+        }
+        this.shards = List.copyOf(shards);
+        this.router = router;
+        this.directoryMapper = directoryMapper;
+        this.idAllocator = idAllocator;
+        this.executor = executor;
+    }
+
+    @Override
+    public List<Trainer> findAll() {
+        return gather(TrainerMapper::findAll, BY_ID, Integer.MAX_VALUE);
+    }
+
+    // 各シャードからlimit件ずつ取り、idの順に並べた先頭limit件を返す
+    @Override
+    public List<Trainer> findPage(int afterId, int limit) {
+        return gather(shard -> shard.findPage(afterId, limit), BY_ID, limit);
+    }
+
+    @Override
+    public List<Trainer> findByNameStartingWith(String startingWith) {
+        return gather(shard -> shard.findByNameStartingWith(startingWith), BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<TrainerSummary> findSummariesByNamePrefix(String prefix, int limit, boolean fold) {
+        return gather(shard -> shard.findSummariesByNamePrefix(prefix, limit, fold), BY_NAME, limit);
+    }
+
+    // 各シャードが同じ並び順・同じ続きの位置から返すので、並べ直して先頭limit件を取ればページになる
+    @Override
+    public List<Trainer> search(TrainerSearchCriteria criteria) {
+        return gather(shard -> shard.search(criteria), criteria.order(), criteria.limit());
+    }
+
+    // メールアドレスはディレクトリからidを引き、そのシャードだけを見る
+    @Override
+    public List<Trainer> findByEmail(String email) {
+        return directoryMapper.findIdByEmail(EmailNormalizer.normalize(email))
+                .flatMap(this::findById)
+                .map(List::of)
+                .orElse(List.of());
+    }
+
+    @Override
+    public List<Trainer> findByName(String name) {
+        return gather(shard -> shard.findByName(name), BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<TrainerSummary> findSummaries() {
+        return gather(TrainerMapper::findSummaries, SUMMARY_BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<TrainerSummary> findSummariesByNameContaining(String name) {
+        return gather(shard -> shard.findSummariesByNameContaining(name), SUMMARY_BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Optional<Trainer> findById(int id) {
+        return shardFor(id).findById(id);
+    }
+
+    @Override
+    public Trainer insert(Trainer trainer) {
+        Trainer withId = new Trainer(idAllocator.nextId(), trainer.name(), trainer.email());
+        insertWithId(withId);
+        return withId;
+    }
+
+    @Override
+    public void insertWithGeneratedKey(Trainer trainer, GeneratedKey key) {
+        key.setValue(insert(trainer).id());
+    }
+
+    @Override
+    public int insertWithId(Trainer trainer) {
+        int id = trainer.id();
+        String emailNormalized = EmailNormalizer.normalize(trainer.email());
+        // 重複していればここでDuplicateKeyExceptionになる
+        directoryMapper.insertEmail(emailNormalized, id);
+        try {
+            directoryMapper.insertName(trainer.name(), id);
+        } catch (RuntimeException e) {
+            directoryMapper.deleteEmail(emailNormalized, id);
+            throw e;
+        }
+        try {
+            return shardFor(id).insertWithId(trainer);
+        } catch (RuntimeException e) {
+            directoryMapper.deleteEmail(emailNormalized, id);
+            directoryMapper.deleteName(trainer.name(), id);
+            throw e;
+        }
+    }
+
+    @Override
+    public long countAll() {
+        return scatter(TrainerMapper::countAll).stream().mapToLong(Long::longValue).sum();
+    }
+
+    // シャードを1つずつ順に読む（並行に読むとResultHandlerが複数のスレッドから呼ばれるため）
+    @Override
+    public void scanAll(ResultHandler<Trainer> handler) {
+        for (TrainerMapper shard : shards) {
+            shard.scanAll(handler);
+        }
+    }
+
+    @Override
+    public int countByEmail(String email) {
+        return directoryMapper.findIdByEmail(EmailNormalizer.normalize(email)).isPresent() ? 1 : 0;
+    }
+
+    @Override
+    public int countByName(String name) {
+        return directoryMapper.countByName(name);
+    }
+
+    @Override
+    public long countByNameContaining(String name) {
+        return scatter(shard -> shard.countByNameContaining(name)).stream().mapToLong(Long::longValue).sum();
+    }
+
+    // 変わったメールアドレス・名前は、先に新しい値を予約し、更新できてから古い値を解放する
+    @Override
+    public int update(Trainer trainer) {
+        int id = trainer.id();
+        TrainerMapper shard = shardFor(id);
+        Optional<Trainer> current = shard.findById(id);
+        if (current.isEmpty()) {
+            return 0;
+        }
+        Trainer before = current.get();
+        String oldEmail = EmailNormalizer.normalize(before.email());
+        String newEmail = EmailNormalizer.normalize(trainer.email());
+        boolean emailChanged = !oldEmail.equals(newEmail);
+        boolean nameChanged = !before.name().equals(trainer.name());
+
+        if (emailChanged) {
+            directoryMapper.insertEmail(newEmail, id);
+        }
+        int updated;
+        try {
+            if (nameChanged) {
+                directoryMapper.insertName(trainer.name(), id);
+            }
+            try {
+                updated = shard.update(trainer);
+            } catch (RuntimeException e) {
+                if (nameChanged) {
+                    directoryMapper.deleteName(trainer.name(), id);
+                }
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            if (emailChanged) {
+                directoryMapper.deleteEmail(newEmail, id);
+            }
+            throw e;
+        }
+        if (emailChanged) {
+            directoryMapper.deleteEmail(oldEmail, id);
+        }
+        if (nameChanged) {
+            directoryMapper.deleteName(before.name(), id);
+        }
+        return updated;
+    }
+
+    // シャードの行は論理削除し、ディレクトリの予約はすぐに解放する（同じ名前・メールアドレスで登録し直せるように）
+    @Override
+    public int delete(int id) {
+        TrainerMapper shard = shardFor(id);
+        Optional<Trainer> current = shard.findById(id);
+        if (current.isEmpty()) {
+            return 0;
+        }
+        int deleted = shard.delete(id);
+        directoryMapper.deleteEmail(EmailNormalizer.normalize(current.get().email()), id);
+        directoryMapper.deleteName(current.get().name(), id);
+        return deleted;
+    }
+
+    @Override
+    public Optional<String> findEmailById(int id) {
+        return shardFor(id).findEmailById(id);
+    }
+
+    // 各シャードからlimit件ずつ取る（物理削除はシャードごとに行うので、全体の順序はそろえない）
+    @Override
+    public List<Integer> findPurgeableIds(long retentionSeconds, int limit) {
+        List<Integer> ids = new ArrayList<>();
+        scatter(shard -> shard.findPurgeableIds(retentionSeconds, limit)).forEach(ids::addAll);
+        return ids.size() > limit ? new ArrayList<>(ids.subList(0, limit)) : ids;
+    }
+
+    @Override
+    public int purge(List<Integer> ids) {
+        Map<Integer, List<Integer>> idsByShard = ids.stream().collect(Collectors.groupingBy(router::shardFor));
+        int purged = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : idsByShard.entrySet()) {
+            purged += shards.get(entry.getKey()).purge(entry.getValue());
+        }
+        return purged;
+    }
+
+    private TrainerMapper shardFor(int id) {
+        return shards.get(router.shardFor(id));
+    }
+
+    private <T> List<T> gather(Function<TrainerMapper, List<T>> query, Comparator<T> order, int limit) {
+        List<T> merged = new ArrayList<>();
+        scatter(query).forEach(merged::addAll);
+        merged.sort(order);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    private <R> List<R> scatter(Function<TrainerMapper, R> query) {
+        List<CompletableFuture<R>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.trainer.name.sharding;
+
+import com.trainer.name.id.TrainerIdAllocator;
+import com.trainer.name.mapper.ShardDirectoryMapper;
+import com.trainer.name.mapper.TrainerMapper;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// trainersを複数のDB（シャード）に分けて持つ（--spring.profiles.active=sharded で有効にする）
+// 既定のデータソースはディレクトリ（idの採番、メールアドレス・名前の一意性）として使い（trainer.id.allocator=segmentが必要）、
+// TrainerMapperの注入先にはシャードに振り分けるShardedTrainerMapperを渡す
+@Configuration
+@Profile("sharded")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        List<Long> maxIds = properties.getShards().stream().map(ShardingProperties.Shard::getMaxId).toList();
+        return new ShardRouter(properties.getStrategy(), maxIds);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(ShardingProperties properties) {
+        ShardDataSources dataSources = new ShardDataSources(properties.getShards());
+        dataSources.list().forEach(ShardMappers::migrate);
+        return dataSources;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService shardQueryExecutor(ShardingProperties properties) {
+        return Executors.newFixedThreadPool(properties.getQueryThreads(), new CustomizableThreadFactory("trainer-shard-query-"));
+    }
+
+    @Bean
+    @Primary
+    public TrainerMapper shardedTrainerMapper(ShardDataSources shardDataSources, SqlSessionFactory sqlSessionFactory,
+                                              ShardRouter shardRouter, ShardDirectoryMapper directoryMapper,
+                                              TrainerIdAllocator trainerIdAllocator, ExecutorService shardQueryExecutor) {
+        List<TrainerMapper> shards = new ArrayList<>();
+        List<? extends DataSource> dataSources = shardDataSources.list();
+        for (int i = 0; i < dataSources.size(); i++) {
+            shards.add(ShardMappers.create("shard-" + i, dataSources.get(i), sqlSessionFactory.getConfiguration()));
+        }
+        return new ShardedTrainerMapper(shards, shardRouter, directoryMapper, trainerIdAllocator, shardQueryExecutor);
+    }
+}
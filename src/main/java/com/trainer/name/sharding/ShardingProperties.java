@@ -0,0 +1,83 @@
+package com.trainer.name.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "trainer.sharding")
+public class ShardingProperties {
+    // hash: idのハッシュで振り分ける, range: idの範囲（各シャードのmaxId）で振り分ける
+    private Strategy strategy = Strategy.HASH;
+    private List<Shard> shards = new ArrayList<>();
+    // 一覧・検索で全シャードに並行して問い合わせるスレッド数
+    private int queryThreads = 8;
+
+    public enum Strategy {
+        HASH, RANGE
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public int getQueryThreads() {
+        return queryThreads;
+    }
+
+    public void setQueryThreads(int queryThreads) {
+        this.queryThreads = queryThreads;
+    }
+
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        // rangeのときにこのシャードが持つidの上限（最後のシャードは省略して上限なし）
+        private Long maxId;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Long getMaxId() {
+            return maxId;
+        }
+
+        public void setMaxId(Long maxId) {
+            this.maxId = maxId;
+        }
+    }
+}
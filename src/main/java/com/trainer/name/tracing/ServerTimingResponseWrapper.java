@@ -0,0 +1,140 @@
+package com.trainer.name.tracing;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+// 本文を溜めずに、最初の書き込みやflushでレスポンスがコミットされる直前にServer-Timingヘッダーを付ける
+// ヘッダーにはその時点までに発行したSQLが載る（本文を書きながら発行したSQLは含まれない）
+class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+    private final SqlTrace trace;
+    private boolean headerWritten;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    ServerTimingResponseWrapper(HttpServletResponse response, SqlTrace trace) {
+        super(response);
+        this.trace = trace;
+    }
+
+    // 本文のないレスポンスでも付けられるよう、フィルタの最後にも呼ぶ
+    void writeHeaderIfNotCommitted() {
+        if (!headerWritten && !isCommitted()) {
+            headerWritten = true;
+            setHeader(SqlTracingFilter.SERVER_TIMING, trace.toServerTiming());
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new HeaderWritingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new HeaderWritingWriter(super.getWriter()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        writeHeaderIfNotCommitted();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        writeHeaderIfNotCommitted();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        writeHeaderIfNotCommitted();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        writeHeaderIfNotCommitted();
+        super.sendRedirect(location);
+    }
+
+    private final class HeaderWritingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+
+        HeaderWritingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            writeHeaderIfNotCommitted();
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            writeHeaderIfNotCommitted();
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeHeaderIfNotCommitted();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writeHeaderIfNotCommitted();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private final class HeaderWritingWriter extends Writer {
+        private final Writer delegate;
+
+        HeaderWritingWriter(Writer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            writeHeaderIfNotCommitted();
+            delegate.write(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeHeaderIfNotCommitted();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writeHeaderIfNotCommitted();
+            delegate.close();
+        }
+    }
+}
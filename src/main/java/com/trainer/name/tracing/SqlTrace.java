@@ -0,0 +1,68 @@
+package com.trainer.name.tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// 1リクエストの間に発行したSQLの記録
+// サーブレットはリクエストごとに1スレッドで処理するので、スレッドローカルに保持する
+public class SqlTrace {
+    private static final ThreadLocal<SqlTrace> CURRENT = new ThreadLocal<>();
+
+    private final List<Statement> statements = new ArrayList<>();
+
+    public static SqlTrace begin() {
+        SqlTrace trace = new SqlTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    // リクエストの外（起動時の索引構築など）ではnull
+    public static SqlTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public void record(String statementId, long nanos, int rows) {
+        statements.add(new Statement(statementId, nanos, rows));
+    }
+
+    public List<Statement> statements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    public int statementCount() {
+        return statements.size();
+    }
+
+    public long totalNanos() {
+        return statements.stream().mapToLong(Statement::nanos).sum();
+    }
+
+    public long totalRows() {
+        return statements.stream().mapToLong(Statement::rows).sum();
+    }
+
+    // 例: sql;dur=3.21;desc="4 statements, 1 rows", sql-1-findById;dur=0.80;desc="1 rows", ...
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder(String.format(Locale.ROOT, "sql;dur=%.2f;desc=\"%d statements, %d rows\"",
+                totalNanos() / 1e6, statementCount(), totalRows()));
+        for (int i = 0; i < statements.size(); i++) {
+            Statement statement = statements.get(i);
+            header.append(String.format(Locale.ROOT, ", sql-%d-%s;dur=%.2f;desc=\"%d rows\"",
+                    i + 1, statement.shortName(), statement.nanos() / 1e6, statement.rows()));
+        }
+        return header.toString();
+    }
+
+    public record Statement(String id, long nanos, int rows) {
+        // com.trainer.name.mapper.TrainerMapper.findById → findById
+        public String shortName() {
+            return id.substring(id.lastIndexOf('.') + 1);
+        }
+    }
+}
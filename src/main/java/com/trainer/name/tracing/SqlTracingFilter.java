@@ -0,0 +1,78 @@
+package com.trainer.name.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// リクエストごとにSqlTraceを開始し、終わったらServer-Timingヘッダーとメトリクスに反映する
+// SQLの数か時間の合計が上限を超えたリクエストは、発行したSQLの一覧と一緒にログに出す
+@Component
+@Profile("!reactive")
+@EnableConfigurationProperties(SqlTracingProperties.class)
+public class SqlTracingFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(SqlTracingFilter.class);
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final SqlTracingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public SqlTracingFilter(SqlTracingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlTrace trace = SqlTrace.begin();
+        ServerTimingResponseWrapper wrapper = properties.isServerTiming() ? new ServerTimingResponseWrapper(response, trace) : null;
+        try {
+            filterChain.doFilter(request, wrapper != null ? wrapper : response);
+        } finally {
+            SqlTrace.end();
+            String uri = uriPattern(request);
+            if (wrapper != null) {
+                wrapper.writeHeaderIfNotCommitted();
+            }
+            report(request, uri, trace);
+        }
+    }
+
+    private void report(HttpServletRequest request, String uri, SqlTrace trace) {
+        DistributionSummary.builder("trainer.sql.statements.per.request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(trace.statementCount());
+        boolean tooMany = trace.statementCount() > properties.getMaxStatements();
+        boolean tooSlow = trace.totalNanos() > properties.getMaxSqlTime().toNanos();
+        if (tooMany || tooSlow) {
+            Counter.builder("trainer.sql.budget.exceeded")
+                    .tag("uri", uri)
+                    .tag("reason", tooMany ? "statements" : "time")
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("SQLの上限を超えたリクエストがあります: {} {} statements={} sqlTime={}ms statements={}",
+                    request.getMethod(), request.getRequestURI(), trace.statementCount(),
+                    trace.totalNanos() / 1_000_000, trace.statements());
+        }
+    }
+
+    // メトリクスのタグが増えすぎないよう、/trainers/1ではなく/trainers/{id}でまとめる
+    private static String uriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,52 @@
+package com.trainer.name.tracing;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.util.List;
+
+// 発行したSQLのID・所要時間・行数（取得行数または更新行数）を、実行中のリクエストのSqlTraceに記録する
+// 2次キャッシュのヒットを数えないよう、実際にDBへ送るStatementHandlerを対象にする
+@Component
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class SqlTracingInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        SqlTrace trace = SqlTrace.current();
+        if (trace == null) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        Object result = invocation.proceed();
+        trace.record(statementId(invocation.getTarget()), System.nanoTime() - start, rows(result));
+        return result;
+    }
+
+    // RoutingStatementHandlerが実際のStatementHandlerに委譲しているので、その中のMappedStatementを取り出す
+    public static String statementId(Object handler) {
+        MappedStatement statement = (MappedStatement) SystemMetaObject.forObject(handler).getValue("delegate.mappedStatement");
+        return statement.getId();
+    }
+
+    public static int rows(Object result) {
+        if (result instanceof List<?> list) {
+            return list.size();
+        }
+        if (result instanceof Integer count) {
+            return count;
+        }
+        return 0;
+    }
+}
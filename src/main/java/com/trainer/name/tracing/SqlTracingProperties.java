@@ -0,0 +1,39 @@
+package com.trainer.name.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "trainer.tracing")
+public class SqlTracingProperties {
+    // 発行したSQLをServer-Timingヘッダーで返す（SQLのIDが外から見えるので、既定では返さない）
+    private boolean serverTiming = false;
+    // 1リクエストで発行してよいSQLの数（超えたらN+1を疑う）
+    private int maxStatements = 4;
+    // 1リクエストでSQLに費やしてよい時間の合計
+    private Duration maxSqlTime = Duration.ofMillis(100);
+
+    public boolean isServerTiming() {
+        return serverTiming;
+    }
+
+    public void setServerTiming(boolean serverTiming) {
+        this.serverTiming = serverTiming;
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public void setMaxStatements(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    public Duration getMaxSqlTime() {
+        return maxSqlTime;
+    }
+
+    public void setMaxSqlTime(Duration maxSqlTime) {
+        this.maxSqlTime = maxSqlTime;
+    }
+}
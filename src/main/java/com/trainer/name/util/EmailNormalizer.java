@@ -0,0 +1,20 @@
+package com.trainer.name.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+// メールアドレスの同一性を判定するための正規化
+// DBのemail_normalizedカラム、キャッシュのキー、Bloomフィルタはすべてこの結果で比較する
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {
+    }
+
+    // NFKCで全角英数字を半角にそろえ、前後の空白を除いて小文字にする
+    public static String normalize(String email) {
+        if (email == null) {
+            return null;
+        }
+        return Normalizer.normalize(email, Normalizer.Form.NFKC).strip().toLowerCase(Locale.ROOT);
+    }
+}
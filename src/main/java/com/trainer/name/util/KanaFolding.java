@@ -0,0 +1,35 @@
+package com.trainer.name.util;
+
+import java.text.Normalizer;
+
+// 名前の候補検索で、ひらがなとカタカナを同一視するための変換
+// インメモリの索引と、索引の構築前に使うDBへの問い合わせの両方がこの結果で比較する
+public final class KanaFolding {
+
+    private KanaFolding() {
+    }
+
+    // NFKCで半角カナを全角に、濁点・半濁点を合成済みの文字にそろえる
+    public static String normalize(String value) {
+        return Normalizer.normalize(value, Normalizer.Form.NFKC);
+    }
+
+    // カタカナ（ァ〜ヶ）を対応するひらがなに変換する
+    public static String hiragana(String value) {
+        return shift(normalize(value), 'ァ', 'ヶ', -0x60);
+    }
+
+    // ひらがな（ぁ〜ゖ）を対応するカタカナに変換する
+    public static String katakana(String value) {
+        return shift(normalize(value), 'ぁ', 'ゖ', 0x60);
+    }
+
+    private static String shift(String value, char first, char last, int offset) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            builder.append(c >= first && c <= last ? (char) (c + offset) : c);
+        }
+        return builder.toString();
+    }
+}
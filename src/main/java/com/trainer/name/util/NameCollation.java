@@ -0,0 +1,59 @@
+package com.trainer.name.util;
+
+import java.text.Normalizer;
+import java.util.Comparator;
+
+// trainers.nameの照合順序（utf8mb4_general_ci）に合わせて、Javaの側で名前を比較するためのキー
+// 英字の大文字・小文字、ラテン文字の記号の有無、末尾の空白を区別しない（BMP外の文字はすべて同じ重みになる）
+public final class NameCollation {
+    // ORDER BY nameと同じ並び
+    public static final Comparator<String> ORDER = Comparator.comparing(NameCollation::key);
+
+    private NameCollation() {
+    }
+
+    // =や一意制約で等しいと判定される名前は、同じキーになる（PAD SPACEなので末尾の空白は無視する）
+    public static String key(String name) {
+        if (name == null) {
+            return null;
+        }
+        return fold(stripTrailingSpaces(name));
+    }
+
+    // 1文字ずつ照合順序の重みにそろえる（LIKEの比較用。末尾の空白はそのまま残す）
+    public static String fold(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); ) {
+            int codePoint = value.codePointAt(i);
+            i += Character.charCount(codePoint);
+            builder.append(weight(codePoint));
+        }
+        return builder.toString();
+    }
+
+    private static char weight(int codePoint) {
+        if (codePoint > Character.MAX_VALUE) {
+            return '\uFFFD';
+        }
+        char c = (char) codePoint;
+        if (c == 'ß') {
+            return 'S';
+        }
+        // À〜ɏのラテン文字は記号を除いた文字にそろえる
+        if (c >= 'À' && c <= 'ɏ') {
+            c = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0);
+        }
+        return Character.toUpperCase(c);
+    }
+
+    private static String stripTrailingSpaces(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end == value.length() ? value : value.substring(0, end);
+    }
+}
@@ -0,0 +1,11 @@
+-- mysql/V1と同じスキーマをH2（MySQLモード）向けに書いたもの
+CREATE TABLE IF NOT EXISTS trainers (
+  id INT AUTO_INCREMENT,
+  name VARCHAR(255) NOT NULL UNIQUE,
+  email VARCHAR(255) NOT NULL UNIQUE,
+  PRIMARY KEY(id)
+);
+
+INSERT INTO trainers (name, email) VALUES ('ゼイユ', 'Zeiyu498@merry.bluebe');
+INSERT INTO trainers (name, email) VALUES ('サザレ', 'Sazare318@heisei.bluebe');
+INSERT INTO trainers (name, email) VALUES ('ブライア', 'Briar8931@usagica.bluebe');
@@ -0,0 +1,4 @@
+-- H2は大文字・小文字を区別して比較するので、照合順序の指定は不要
+ALTER TABLE trainers ADD COLUMN email_normalized VARCHAR(255) NULL AFTER email;
+
+CREATE UNIQUE INDEX uk_trainers_email_normalized ON trainers (email_normalized);
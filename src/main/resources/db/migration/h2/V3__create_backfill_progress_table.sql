@@ -0,0 +1,9 @@
+-- BatchedBackfillRunnerの進捗。中断しても最後に処理したidから再開できる
+CREATE TABLE backfill_progress (
+  job_name VARCHAR(100) NOT NULL,
+  last_id BIGINT NOT NULL,
+  rows_processed BIGINT NOT NULL,
+  completed_at DATETIME NULL,
+  updated_at DATETIME NOT NULL,
+  PRIMARY KEY(job_name)
+);
@@ -0,0 +1,20 @@
+-- mysql/V4と同じスキーマをH2（MySQLモード）向けに書いたもの
+CREATE TABLE trainer_id_sequence (
+  name VARCHAR(100) NOT NULL,
+  next_id BIGINT NOT NULL,
+  PRIMARY KEY(name)
+);
+
+INSERT INTO trainer_id_sequence (name, next_id) SELECT 'trainers', COALESCE(MAX(id), 0) + 1 FROM trainers;
+
+CREATE TABLE trainer_email_lookup (
+  email_normalized VARCHAR(255) NOT NULL,
+  trainer_id INT NOT NULL,
+  PRIMARY KEY(email_normalized)
+);
+
+CREATE TABLE trainer_name_lookup (
+  name VARCHAR(255) NOT NULL,
+  trainer_id INT NOT NULL,
+  PRIMARY KEY(name)
+);
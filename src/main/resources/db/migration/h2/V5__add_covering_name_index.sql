@@ -0,0 +1,2 @@
+-- mysql/V5と同じインデックスをH2向けに書いたもの
+CREATE INDEX idx_trainers_name_id_email ON trainers (name, id, email);
@@ -0,0 +1,9 @@
+-- mysql/V6と同じスキーマをH2（MySQLモード）向けに書いたもの
+CREATE TABLE trainer_counts (
+  name VARCHAR(100) NOT NULL,
+  slot INT NOT NULL,
+  amount BIGINT NOT NULL,
+  PRIMARY KEY(name, slot)
+);
+
+INSERT INTO trainer_counts (name, slot, amount) SELECT 'trainers', 0, COUNT(*) FROM trainers;
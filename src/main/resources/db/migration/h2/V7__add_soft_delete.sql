@@ -0,0 +1,25 @@
+-- mysql/V7と同じスキーマをH2（MySQLモード）向けに書いたもの
+ALTER TABLE trainers ADD COLUMN deleted_at TIMESTAMP(6) NULL;
+
+DROP INDEX uk_trainers_email_normalized;
+DROP INDEX idx_trainers_name_id_email;
+
+-- H2ではV1の列のUNIQUEに名前が付かず指定して削除できないので、列を作り直して制約ごと外す
+ALTER TABLE trainers ADD COLUMN name_copy VARCHAR(255);
+UPDATE trainers SET name_copy = name;
+ALTER TABLE trainers DROP COLUMN name;
+ALTER TABLE trainers ALTER COLUMN name_copy RENAME TO name;
+ALTER TABLE trainers ALTER COLUMN name SET NOT NULL;
+
+ALTER TABLE trainers ADD COLUMN email_copy VARCHAR(255);
+UPDATE trainers SET email_copy = email;
+ALTER TABLE trainers DROP COLUMN email;
+ALTER TABLE trainers ALTER COLUMN email_copy RENAME TO email;
+ALTER TABLE trainers ALTER COLUMN email SET NOT NULL;
+
+ALTER TABLE trainers ADD COLUMN name_live VARCHAR(255) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN name END);
+ALTER TABLE trainers ADD COLUMN email_live VARCHAR(255) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN COALESCE(email_normalized, LOWER(TRIM(email))) END);
+
+CREATE UNIQUE INDEX uk_trainers_name_live ON trainers (name_live);
+CREATE UNIQUE INDEX uk_trainers_email_live ON trainers (email_live);
+CREATE INDEX idx_trainers_deleted_name_id_email ON trainers (deleted_at, name, id, email);
@@ -1,6 +1,4 @@
-DROP TABLE IF EXISTS trainers;
-
-CREATE TABLE trainers (
+CREATE TABLE IF NOT EXISTS trainers (
   id int unsigned AUTO_INCREMENT,
   name VARCHAR(255) NOT NULL UNIQUE,
   email VARCHAR(255) NOT NULL UNIQUE,
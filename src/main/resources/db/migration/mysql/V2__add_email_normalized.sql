@@ -0,0 +1,12 @@
+-- 稼働中のtrainersテーブルにemail_normalizedを追加する
+-- どちらもInnoDBのオンラインDDLで実行し、書き込みをブロックしない
+-- 既存行の値はアプリ起動後にEmailNormalizationBackfillがidの範囲ごとに埋め戻す
+-- （NULLはユニークインデックスで重複扱いにならないので、埋め戻し前にインデックスを作成できる）
+
+ALTER TABLE trainers
+  ADD COLUMN email_normalized VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NULL AFTER email,
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE trainers
+  ADD UNIQUE INDEX uk_trainers_email_normalized (email_normalized),
+  ALGORITHM=INPLACE, LOCK=NONE;
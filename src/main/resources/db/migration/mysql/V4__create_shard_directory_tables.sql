@@ -0,0 +1,22 @@
+-- シャーディング（shardedプロファイル）用のディレクトリ。既定のデータソースに置く
+-- idの採番（シャードごとのAUTO_INCREMENTの代わり）。既存の行と重ならないよう、最大のidの次から始める
+CREATE TABLE trainer_id_sequence (
+  name VARCHAR(100) NOT NULL,
+  next_id BIGINT NOT NULL,
+  PRIMARY KEY(name)
+);
+
+INSERT INTO trainer_id_sequence (name, next_id) SELECT 'trainers', COALESCE(MAX(id), 0) + 1 FROM trainers;
+
+-- メールアドレスと名前の一意性を、全てのシャードをまたいで保証する
+CREATE TABLE trainer_email_lookup (
+  email_normalized VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+  trainer_id INT UNSIGNED NOT NULL,
+  PRIMARY KEY(email_normalized)
+);
+
+CREATE TABLE trainer_name_lookup (
+  name VARCHAR(255) NOT NULL,
+  trainer_id INT UNSIGNED NOT NULL,
+  PRIMARY KEY(name)
+);
@@ -0,0 +1,6 @@
+-- 一覧・検索（名前の中間一致）をテーブルの行を読まずにインデックスだけで答えるためのカバリングインデックス
+-- id（主キー）はセカンダリインデックスに含まれるが、列の並びを明示しておく
+-- InnoDBのオンラインDDLで実行し、書き込みをブロックしない
+ALTER TABLE trainers
+  ADD INDEX idx_trainers_name_id_email (name, id, email),
+  ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,10 @@
+-- trainersの行数（GET /trainers/count）。COUNT(*)で全件を走査しないよう、INSERT/DELETEと同じトランザクションで増減する
+-- 同じ行のロックを奪い合わないよう、slotごとの行に分けて足し込み、読むときに合計する（slotの行は最初の足し込みで作る）
+CREATE TABLE trainer_counts (
+  name VARCHAR(100) NOT NULL,
+  slot TINYINT UNSIGNED NOT NULL,
+  amount BIGINT NOT NULL,
+  PRIMARY KEY(name, slot)
+);
+
+INSERT INTO trainer_counts (name, slot, amount) SELECT 'trainers', 0, COUNT(*) FROM trainers;
@@ -0,0 +1,27 @@
+-- 論理削除。DELETEの代わりにdeleted_atを設定し、SoftDeletePurgerが後でまとめて物理削除する
+-- 名前・メールアドレスの一意性は削除されていない行だけで判定する
+-- （name_live/email_liveは削除済みの行でNULLになり、NULLはユニークインデックスで重複扱いにならない）
+-- V2のバックフィルが終わっていない行（email_normalizedがNULL）は、元のemailを小文字にした値で検索・重複判定する
+-- どれもInnoDBのオンラインDDLで実行し、書き込みをブロックしない
+-- 通常の列と仮想列は1つのALTERで追加するとINPLACEにできないため、deleted_at、仮想列、インデックスの順に分けている
+ALTER TABLE trainers
+  ADD COLUMN deleted_at DATETIME(6) NULL,
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE trainers
+  ADD COLUMN name_live VARCHAR(255) AS (CASE WHEN deleted_at IS NULL THEN name END) VIRTUAL,
+  ADD COLUMN email_live VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin
+    AS (CASE WHEN deleted_at IS NULL THEN COALESCE(email_normalized, LOWER(TRIM(email))) END) VIRTUAL,
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+-- V1の列のUNIQUE（インデックス名は列名）とV2のemail_normalizedの一意制約を、削除されていない行だけのものに置き換える
+-- 一覧・検索のカバリングインデックスは先頭にdeleted_atを置き、deleted_at IS NULLの絞り込みと削除済みの行の検索に使う
+ALTER TABLE trainers
+  ADD UNIQUE INDEX uk_trainers_name_live (name_live),
+  ADD UNIQUE INDEX uk_trainers_email_live (email_live),
+  ADD INDEX idx_trainers_deleted_name_id_email (deleted_at, name, id, email),
+  DROP INDEX name,
+  DROP INDEX email,
+  DROP INDEX uk_trainers_email_normalized,
+  DROP INDEX idx_trainers_name_id_email,
+  ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,11 @@
+-- shard/mysql/V1と同じスキーマをH2（MySQLモード）向けに書いたもの
+CREATE TABLE trainers (
+  id INT NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  email VARCHAR(255) NOT NULL,
+  email_normalized VARCHAR(255) NOT NULL,
+  PRIMARY KEY(id)
+);
+
+CREATE INDEX idx_trainers_name ON trainers (name);
+CREATE INDEX idx_trainers_email_normalized ON trainers (email_normalized);
@@ -0,0 +1,3 @@
+-- shard/mysql/V2と同じ変更をH2向けに書いたもの
+CREATE INDEX idx_trainers_name_id_email ON trainers (name, id, email);
+DROP INDEX idx_trainers_name;
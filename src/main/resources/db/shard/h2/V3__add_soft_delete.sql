@@ -0,0 +1,9 @@
+-- shard/mysql/V3と同じ変更をH2向けに書いたもの
+ALTER TABLE trainers ADD COLUMN deleted_at TIMESTAMP(6) NULL;
+ALTER TABLE trainers ADD COLUMN name_live VARCHAR(255) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN name END);
+ALTER TABLE trainers ADD COLUMN email_live VARCHAR(255) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN email_normalized END);
+
+CREATE INDEX idx_trainers_email_live ON trainers (email_live);
+CREATE INDEX idx_trainers_deleted_name_id_email ON trainers (deleted_at, name, id, email);
+DROP INDEX idx_trainers_email_normalized;
+DROP INDEX idx_trainers_name_id_email;
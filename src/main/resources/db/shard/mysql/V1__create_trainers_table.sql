@@ -0,0 +1,11 @@
+-- シャードのtrainers。idはディレクトリ（trainer_id_sequence）で採番するのでAUTO_INCREMENTにしない
+-- 名前・メールアドレスの一意性はディレクトリの表で保証するので、ここでは検索用のインデックスだけを作る
+CREATE TABLE trainers (
+  id INT UNSIGNED NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  email VARCHAR(255) NOT NULL,
+  email_normalized VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+  PRIMARY KEY(id),
+  KEY idx_trainers_name (name),
+  KEY idx_trainers_email_normalized (email_normalized)
+);
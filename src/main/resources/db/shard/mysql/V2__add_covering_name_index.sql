@@ -0,0 +1,6 @@
+-- migration/mysql/V5と同じカバリングインデックス
+-- シャードのidx_trainers_nameは一意制約ではなく、新しいインデックスの先頭の列と重なるので削除する
+ALTER TABLE trainers
+  ADD INDEX idx_trainers_name_id_email (name, id, email),
+  DROP INDEX idx_trainers_name,
+  ALGORITHM=INPLACE, LOCK=NONE;
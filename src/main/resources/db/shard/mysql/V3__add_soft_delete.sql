@@ -0,0 +1,19 @@
+-- migration/mysql/V7と同じ論理削除の列とインデックス
+-- シャードでは名前・メールアドレスの一意性をディレクトリの表で保証するので、email_liveは検索用のインデックスにする
+-- 通常の列と仮想列は1つのALTERで追加するとINPLACEにできないため、migration/mysql/V7と同じく順に分けている
+ALTER TABLE trainers
+  ADD COLUMN deleted_at DATETIME(6) NULL,
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE trainers
+  ADD COLUMN name_live VARCHAR(255) AS (CASE WHEN deleted_at IS NULL THEN name END) VIRTUAL,
+  ADD COLUMN email_live VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin
+    AS (CASE WHEN deleted_at IS NULL THEN email_normalized END) VIRTUAL,
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE trainers
+  ADD INDEX idx_trainers_email_live (email_live),
+  ADD INDEX idx_trainers_deleted_name_id_email (deleted_at, name, id, email),
+  DROP INDEX idx_trainers_email_normalized,
+  DROP INDEX idx_trainers_name_id_email,
+  ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,41 @@
+package com.trainer.name;
+
+import com.trainer.name.cache.WeightedMapperCache;
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.exception.NoFullWidthSpaceValidator;
+import com.trainer.name.mapper.TrainerMapper;
+import com.trainer.name.util.EmailNormalizer;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrainerRuntimeHintsTest {
+    private final RuntimeHints hints = new RuntimeHints();
+
+    TrainerRuntimeHintsTest() {
+        new TrainerRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void マッパーのJDKプロキシが登録されていること() {
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(TrainerMapper.class)).accepts(hints);
+    }
+
+    @Test
+    void 検索結果のマッピングに使うクラスが登録されていること() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(Trainer.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(WeightedMapperCache.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(EmailNormalizer.class, "normalize")).accepts(hints);
+    }
+
+    @Test
+    void 独自のバリデータが登録されていること() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(NoFullWidthSpaceValidator.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    }
+}
@@ -0,0 +1,86 @@
+package com.trainer.name.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+    private final AtomicLong now = new AtomicLong();
+    private AdmissionProperties properties;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AdmissionProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(20);
+        properties.setBackoffRatio(0.5);
+        properties.getTargetLatency().put(EndpointClass.READ_BY_ID, Duration.ofMillis(50));
+        limiter = new AdaptiveConcurrencyLimiter(properties, now::get);
+    }
+
+    @Test
+    void 優先しない一覧は上限のうち割り当てられた分までしか受け付けないこと() {
+        // LISTは上限10の3割まで
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            permits.add(limiter.tryAcquire(EndpointClass.LIST));
+        }
+
+        assertThat(permits).doesNotContainNull();
+        assertThat(limiter.tryAcquire(EndpointClass.LIST)).isNull();
+        // 書き込みとidでの取得は残りの枠で受け付ける
+        assertThat(limiter.tryAcquire(EndpointClass.WRITE)).isNotNull();
+        assertThat(limiter.tryAcquire(EndpointClass.READ_BY_ID)).isNotNull();
+        assertThat(limiter.inflight(EndpointClass.LIST)).isEqualTo(3);
+    }
+
+    @Test
+    void 目標のレイテンシを超えると上限を下げ同時に始まったリクエストでは続けて下げないこと() {
+        now.set(1_000_000);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire(EndpointClass.READ_BY_ID);
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire(EndpointClass.READ_BY_ID);
+
+        now.addAndGet(Duration.ofMillis(200).toNanos());
+        first.release(false);
+        second.release(false);
+
+        assertThat(limiter.limit()).isEqualTo(5.0);
+
+        // 下げた後に始まったリクエストが遅ければ、もう一度下げる
+        AdaptiveConcurrencyLimiter.Permit third = limiter.tryAcquire(EndpointClass.READ_BY_ID);
+        now.addAndGet(Duration.ofMillis(200).toNanos());
+        third.release(false);
+
+        assertThat(limiter.limit()).isEqualTo(2.5);
+    }
+
+    @Test
+    void 失敗したリクエストでも上限を下げること() {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(EndpointClass.WRITE);
+        now.addAndGet(1);
+        permit.release(true);
+
+        assertThat(limiter.limit()).isEqualTo(5.0);
+    }
+
+    @Test
+    void 目標以内で上限の半分以上を使っていれば上限を上げること() {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            permits.add(limiter.tryAcquire(EndpointClass.READ_BY_ID));
+        }
+        now.addAndGet(Duration.ofMillis(10).toNanos());
+        permits.forEach(permit -> permit.release(false));
+
+        assertThat(limiter.limit()).isGreaterThan(10.0);
+        assertThat(limiter.inflight(EndpointClass.READ_BY_ID)).isZero();
+    }
+}
@@ -0,0 +1,80 @@
+package com.trainer.name.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(1);
+        properties.setRetryAfter(Duration.ofMillis(1500));
+        filter = new AdmissionControlFilter(new AdaptiveConcurrencyLimiter(properties), properties, meterRegistry);
+    }
+
+    @Test
+    void 上限を超えたリクエストはRetryAfterを付けた503で断ること() throws Exception {
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        // 1件目を処理している間に、2件目が届いた状態を作る
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                try {
+                    filter.doFilter(new MockHttpServletRequest("GET", "/trainers"), nested, new MockFilterChain());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("PATCH", "/trainers/1"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(nested.getStatus()).isEqualTo(503);
+        assertThat(nested.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(meterRegistry.get("trainer.admission.rejected").tag("endpoint", "list").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void trainers以外のパスは制限しないこと() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(EndpointClass.of(request)).isNull();
+    }
+
+    @Test
+    void リクエストをエンドポイントの分類に振り分けること() {
+        MockHttpServletRequest search = new MockHttpServletRequest("GET", "/trainers");
+        search.setParameter("name", "ゼイユ");
+        MockHttpServletRequest filteredCount = new MockHttpServletRequest("GET", "/trainers/count");
+        filteredCount.setParameter("name", "ゼ");
+
+        assertThat(EndpointClass.of(new MockHttpServletRequest("POST", "/trainers"))).isEqualTo(EndpointClass.WRITE);
+        assertThat(EndpointClass.of(new MockHttpServletRequest("DELETE", "/trainers/1"))).isEqualTo(EndpointClass.WRITE);
+        assertThat(EndpointClass.of(new MockHttpServletRequest("GET", "/trainers/1"))).isEqualTo(EndpointClass.READ_BY_ID);
+        assertThat(EndpointClass.of(new MockHttpServletRequest("GET", "/trainers/suggest"))).isEqualTo(EndpointClass.SEARCH);
+        assertThat(EndpointClass.of(search)).isEqualTo(EndpointClass.SEARCH);
+        assertThat(EndpointClass.of(new MockHttpServletRequest("GET", "/trainers/count"))).isEqualTo(EndpointClass.READ_BY_ID);
+        assertThat(EndpointClass.of(filteredCount)).isEqualTo(EndpointClass.SEARCH);
+        assertThat(EndpointClass.of(new MockHttpServletRequest("GET", "/trainers"))).isEqualTo(EndpointClass.LIST);
+    }
+}
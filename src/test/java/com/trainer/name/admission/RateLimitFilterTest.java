@@ -0,0 +1,97 @@
+package com.trainer.name.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitProperties properties;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.getBudgets().put(EndpointClass.SEARCH, new RateLimitProperties.Budget(2, 1));
+        properties.setApiKeys(Set.of("key-1"));
+        filter = new RateLimitFilter(properties, meterRegistry);
+    }
+
+    private MockHttpServletResponse search(String remoteAddr, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/trainers");
+        request.setParameter("startingWith", "ゼ");
+        request.setRemoteAddr(remoteAddr);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void 予算を超えた検索を429とレート制限のヘッダーで断ること() throws Exception {
+        MockHttpServletResponse first = search("192.0.2.1", null);
+        search("192.0.2.1", null);
+        MockHttpServletResponse rejected = search("192.0.2.1", null);
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader(RateLimitFilter.LIMIT)).isEqualTo("2");
+        assertThat(first.getHeader(RateLimitFilter.REMAINING)).isEqualTo("1");
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(RateLimitFilter.REMAINING)).isEqualTo("0");
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(meterRegistry.get("trainer.ratelimit.rejected").tag("endpoint", "search").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void クライアントとエンドポイントの分類ごとに別々に数えること() throws Exception {
+        search("192.0.2.1", null);
+        search("192.0.2.1", null);
+
+        // 別のIPアドレス、同じIPアドレスでもAPIキーがあればそのキーで数える
+        assertThat(search("192.0.2.2", null).getStatus()).isEqualTo(200);
+        assertThat(search("192.0.2.1", "key-1").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse byId = new MockHttpServletResponse();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/trainers/1");
+        request.setRemoteAddr("192.0.2.1");
+        filter.doFilter(request, byId, new MockFilterChain());
+        assertThat(byId.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void 設定していないAPIキーはIPアドレスで数えること() throws Exception {
+        search("192.0.2.1", "unknown-1");
+        search("192.0.2.1", "unknown-2");
+
+        // キーを変えても同じIPアドレスの予算を使う
+        assertThat(search("192.0.2.1", "unknown-3").getStatus()).isEqualTo(429);
+        assertThat(search("192.0.2.1", null).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void バケットの数を上限までに抑えること() {
+        properties.setMaxClients(10);
+        AtomicLong now = new AtomicLong();
+        ClientRateLimiter limiter = new ClientRateLimiter(properties, now::get);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryConsume(EndpointClass.SEARCH, "ip:192.0.2." + i);
+        }
+        assertThat(limiter.size()).isLessThanOrEqualTo(10);
+
+        // 満タンに戻ったバケットは定期的に捨てる
+        now.addAndGet(10_000_000_000L);
+        limiter.sweep();
+        assertThat(limiter.size()).isZero();
+    }
+}
@@ -0,0 +1,66 @@
+package com.trainer.name.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void 満タンの分まではまとめて使えてそれを超えると断ること() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertThat(bucket.tryConsume(0).remaining()).isEqualTo(2);
+        assertThat(bucket.tryConsume(0).remaining()).isEqualTo(1);
+        assertThat(bucket.tryConsume(0).remaining()).isZero();
+
+        TokenBucket.Result rejected = bucket.tryConsume(0);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterNanos()).isEqualTo(SECOND);
+        assertThat(rejected.nanosUntilFull()).isEqualTo(3 * SECOND);
+    }
+
+    @Test
+    void 時間が経つと補充されること() {
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+        assertThat(bucket.tryConsume(0).allowed()).isFalse();
+
+        // 0.5秒で1つ補充される
+        assertThat(bucket.tryConsume(SECOND / 2).allowed()).isTrue();
+        assertThat(bucket.tryConsume(SECOND / 2).allowed()).isFalse();
+
+        // 長く使わなくても満タン以上には溜まらない
+        assertThat(bucket.isFull(10 * SECOND)).isTrue();
+        assertThat(bucket.tryConsume(10 * SECOND).remaining()).isEqualTo(1);
+    }
+
+    @Test
+    void 複数のスレッドから使っても満タンの数を超えて許可しないこと() throws Exception {
+        TokenBucket bucket = new TokenBucket(1000, 0.001, 0);
+        Thread[] threads = new Thread[8];
+        long[] allowed = new long[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryConsume(0).allowed()) {
+                        allowed[index]++;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        long total = 0;
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+            total += allowed[t];
+        }
+
+        assertThat(total).isEqualTo(1000);
+    }
+}
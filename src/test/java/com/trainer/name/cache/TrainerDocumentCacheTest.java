@@ -0,0 +1,111 @@
+package com.trainer.name.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.event.TrainerChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrainerDocumentCacheTest {
+    private final Trainer zeiyu = new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe");
+    private final Trainer renamed = new Trainer(1, "ゼイユ2", "Zeiyu498@merry.bluebe");
+
+    private InMemoryRemoteCacheTier remoteTier;
+    private TrainerCacheProperties properties;
+    private AtomicInteger databaseReads;
+
+    @BeforeEach
+    void setUp() {
+        remoteTier = new InMemoryRemoteCacheTier();
+        properties = new TrainerCacheProperties();
+        databaseReads = new AtomicInteger();
+    }
+
+    @Test
+    void 同じidを2回読んでもDBへのアクセスとエンコードは1回だけであること() {
+        TrainerDocumentCache cache = new TrainerDocumentCache(new ObjectMapper(), remoteTier, properties);
+
+        TrainerDocumentCache.Document first = cache.get(1, () -> load(zeiyu));
+        TrainerDocumentCache.Document second = cache.get(1, () -> load(zeiyu));
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(second.json(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":1,\"name\":\"ゼイユ\",\"email\":\"Zeiyu498@merry.bluebe\"}");
+        assertThat(databaseReads).hasValue(1);
+    }
+
+    @Test
+    void 更新されると他のノードのキャッシュも無効化されること() {
+        TrainerDocumentCache node1 = new TrainerDocumentCache(new ObjectMapper(), remoteTier, properties);
+        TrainerDocumentCache node2 = new TrainerDocumentCache(new ObjectMapper(), remoteTier, properties);
+        node1.get(1, () -> load(zeiyu));
+        node2.get(1, () -> load(zeiyu));
+
+        node1.onTrainerChanged(TrainerChangedEvent.updated(zeiyu, renamed));
+
+        assertThat(node1.size()).isZero();
+        assertThat(node2.size()).isZero();
+        assertThat(new String(node2.get(1, () -> load(renamed)).json(), StandardCharsets.UTF_8)).contains("ゼイユ2");
+    }
+
+    @Test
+    void 読み込み中に無効化された場合は古い内容をキャッシュしないこと() {
+        TrainerDocumentCache cache = new TrainerDocumentCache(new ObjectMapper(), remoteTier, properties);
+
+        cache.get(1, () -> {
+            // DBから読んだ直後に、別のリクエストで更新された
+            cache.onTrainerChanged(TrainerChangedEvent.updated(zeiyu, renamed));
+            return load(zeiyu);
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void 読み込み中に別のidが無効化されても読み込んだ内容はキャッシュすること() {
+        TrainerDocumentCache cache = new TrainerDocumentCache(new ObjectMapper(), remoteTier, properties);
+
+        cache.get(1, () -> {
+            cache.evict(2);
+            return load(zeiyu);
+        });
+        cache.get(1, () -> load(zeiyu));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(databaseReads).hasValue(1);
+    }
+
+    @Test
+    void gzipを有効にすると圧縮したバイト列も用意されること() throws IOException {
+        properties.setDocumentGzip(true);
+        properties.setDocumentGzipMinBytes(0);
+        TrainerDocumentCache cache = new TrainerDocumentCache(new ObjectMapper(), remoteTier, properties);
+
+        TrainerDocumentCache.Document document = cache.get(1, () -> load(zeiyu));
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(document.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(document.json());
+        }
+    }
+
+    @Test
+    void 小さいJSONは圧縮しないこと() {
+        properties.setDocumentGzip(true);
+        TrainerDocumentCache cache = new TrainerDocumentCache(new ObjectMapper(), remoteTier, properties);
+
+        assertThat(cache.get(1, () -> load(zeiyu)).gzip()).isNull();
+    }
+
+    private Trainer load(Trainer trainer) {
+        databaseReads.incrementAndGet();
+        return trainer;
+    }
+}
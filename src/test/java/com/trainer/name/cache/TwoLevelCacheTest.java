@@ -0,0 +1,178 @@
+package com.trainer.name.cache;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.exception.TrainerNotFoundException;
+import com.trainer.name.resilience.StaleReads;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 1つのInMemoryRemoteCacheTierを2つのTwoLevelCacheで共有し、2ノード構成を再現して検証する
+class TwoLevelCacheTest {
+    private final Trainer zeiyu = new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe");
+
+    private InMemoryRemoteCacheTier remoteTier;
+    private TrainerCacheProperties properties;
+    private AtomicInteger databaseReads;
+
+    @BeforeEach
+    void setUp() {
+        remoteTier = new InMemoryRemoteCacheTier();
+        properties = new TrainerCacheProperties();
+        databaseReads = new AtomicInteger();
+    }
+
+    @Test
+    void 同じキーを2回読んでもDBへのアクセスは1回だけであること() {
+        TwoLevelCache node = new TwoLevelCache("trainerById", remoteTier, properties);
+
+        node.get(1, this::loadFromDatabase);
+        Trainer actual = node.get(1, this::loadFromDatabase);
+
+        assertThat(actual).isEqualTo(zeiyu);
+        assertThat(databaseReads).hasValue(1);
+    }
+
+    @Test
+    void 別のノードはリモート層から値を取得しDBにアクセスしないこと() {
+        TwoLevelCache nodeA = new TwoLevelCache("trainerById", remoteTier, properties);
+        TwoLevelCache nodeB = new TwoLevelCache("trainerById", remoteTier, properties);
+
+        nodeA.get(1, this::loadFromDatabase);
+        Trainer actual = nodeB.get(1, this::loadFromDatabase);
+
+        assertThat(actual).isEqualTo(zeiyu);
+        assertThat(databaseReads).hasValue(1);
+    }
+
+    @Test
+    void あるノードで無効化すると他のノードのニアキャッシュも無効化されること() {
+        TwoLevelCache nodeA = new TwoLevelCache("trainerById", remoteTier, properties);
+        TwoLevelCache nodeB = new TwoLevelCache("trainerById", remoteTier, properties);
+        nodeA.get(1, this::loadFromDatabase);
+        nodeB.get(1, this::loadFromDatabase);
+
+        nodeA.evict(1);
+
+        assertThat(nodeB.get(1)).isNull();
+        assertThat(remoteTier.get("trainer-cache:trainerById:1").isInvalidated()).isTrue();
+    }
+
+    @Test
+    void 読み込み中に無効化された場合は読み込んだ古い値をキャッシュしないこと() {
+        TwoLevelCache nodeA = new TwoLevelCache("trainerById", remoteTier, properties);
+        TwoLevelCache nodeB = new TwoLevelCache("trainerById", remoteTier, properties);
+
+        Trainer loaded = nodeA.get(1, () -> {
+            Trainer beforeUpdate = loadFromDatabase();
+            // DBから読んだ直後に、別のノードで更新されて無効化された
+            nodeB.evict(1);
+            return beforeUpdate;
+        });
+
+        assertThat(loaded).isEqualTo(zeiyu);
+        assertThat(nodeA.get(1)).isNull();
+        assertThat(nodeB.get(1)).isNull();
+    }
+
+    @Test
+    void 読み込み中の同じキーは結果を待ち別のキーは待たないこと() throws Exception {
+        TwoLevelCache node = new TwoLevelCache("trainerById", remoteTier, properties);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Trainer> first = executor.submit(() -> node.get(1, () -> {
+                loading.countDown();
+                release.await();
+                return loadFromDatabase();
+            }));
+            loading.await();
+            Future<Trainer> second = executor.submit(() -> node.get(1, this::loadFromDatabase));
+
+            // 別のキーは、同じキーの読み込みが終わるのを待たない
+            assertThat(node.get(2, () -> new Trainer(2, "サトシ", "satoshi@example.com")).id()).isEqualTo(2);
+
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(zeiyu);
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(zeiyu);
+            assertThat(databaseReads).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void DBに接続できず古い結果が返された値はキャッシュに入れないこと() {
+        TwoLevelCache nodeA = new TwoLevelCache("trainerById", remoteTier, properties);
+        TwoLevelCache nodeB = new TwoLevelCache("trainerById", remoteTier, properties);
+
+        Trainer stale = nodeA.get(1, () -> {
+            StaleReads.markServed();
+            return zeiyu;
+        });
+        Trainer actual = nodeB.get(1, this::loadFromDatabase);
+
+        assertThat(stale).isEqualTo(zeiyu);
+        assertThat(nodeA.get(1)).isNull();
+        assertThat(actual).isEqualTo(zeiyu);
+        assertThat(databaseReads).hasValue(1);
+    }
+
+    @Test
+    void clearすると他のノードの同じキャッシュだけが空になること() {
+        TwoLevelCache emailsA = new TwoLevelCache("trainersByEmail", remoteTier, properties);
+        TwoLevelCache emailsB = new TwoLevelCache("trainersByEmail", remoteTier, properties);
+        TwoLevelCache byIdB = new TwoLevelCache("trainerById", remoteTier, properties);
+        emailsB.put("Zeiyu498@merry.bluebe", zeiyu);
+        byIdB.put(1, zeiyu);
+
+        emailsA.clear();
+
+        assertThat(emailsB.get("Zeiyu498@merry.bluebe")).isNull();
+        assertThat(byIdB.get(1)).isNotNull();
+    }
+
+    @Test
+    void 期限が近く再計算に時間がかかる値は期限前に再計算されること() {
+        // betaを極端に大きくして、早期リフレッシュが必ず発生するようにする
+        properties.setBeta(1e12);
+        TwoLevelCache node = new TwoLevelCache("trainerById", remoteTier, properties);
+
+        node.get(1, this::slowLoadFromDatabase);
+        node.get(1, this::slowLoadFromDatabase);
+
+        assertThat(databaseReads).hasValue(2);
+    }
+
+    @Test
+    void loaderが例外をスローした場合は値をキャッシュしないこと() {
+        TwoLevelCache node = new TwoLevelCache("trainerById", remoteTier, properties);
+
+        assertThatThrownBy(() -> node.get(999, () -> {
+            throw new TrainerNotFoundException("idが999のトレーナーはいません");
+        })).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(TrainerNotFoundException.class);
+        assertThat(node.get(999)).isNull();
+    }
+
+    private Trainer loadFromDatabase() {
+        databaseReads.incrementAndGet();
+        return zeiyu;
+    }
+
+    private Trainer slowLoadFromDatabase() throws InterruptedException {
+        Thread.sleep(5);
+        return loadFromDatabase();
+    }
+}
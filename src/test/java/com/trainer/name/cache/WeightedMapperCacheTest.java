@@ -0,0 +1,109 @@
+package com.trainer.name.cache;
+
+import com.trainer.name.entity.Trainer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WeightedMapperCacheTest {
+    private final List<Trainer> zeiyu = List.of(new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe"));
+
+    @Test
+    void 保存した検索結果が取得できヒット率に反映されること() {
+        WeightedMapperCache cache = new WeightedMapperCache("test.hit");
+
+        assertThat(cache.getObject("findByName:ゼ")).isNull();
+        cache.putObject("findByName:ゼ", zeiyu);
+
+        assertThat(cache.getObject("findByName:ゼ")).isEqualTo(zeiyu);
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+        assertThat(cache.hitRatio()).isEqualTo(0.5);
+        assertThat(cache.weightBytes()).isPositive();
+    }
+
+    @Test
+    void 推定メモリ量が上限を超えると古いエントリから追い出されること() {
+        WeightedMapperCache cache = new WeightedMapperCache("test.eviction");
+        long entryWeight = ObjectWeigher.weigh(zeiyu) + ObjectWeigher.weigh("key0");
+        cache.setMaxBytes(entryWeight * 2);
+
+        cache.putObject("key0", zeiyu);
+        cache.putObject("key1", zeiyu);
+        cache.getObject("key0");
+        cache.putObject("key2", zeiyu);
+
+        // key0は直前に読まれたので、一番古いkey1が追い出される
+        assertThat(cache.getObject("key1")).isNull();
+        assertThat(cache.getObject("key0")).isEqualTo(zeiyu);
+        assertThat(cache.getObject("key2")).isEqualTo(zeiyu);
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.weightBytes()).isLessThanOrEqualTo(cache.maxBytes());
+    }
+
+    @Test
+    void 有効期限を過ぎたエントリは返されないこと() {
+        WeightedMapperCache cache = new WeightedMapperCache("test.ttl");
+        cache.setTtlSeconds(0);
+
+        cache.putObject("findAll", zeiyu);
+
+        assertThat(cache.getObject("findAll")).isNull();
+        assertThat(cache.getSize()).isZero();
+    }
+
+    @Test
+    void 保存した後に呼び出し側でリストを書き換えてもキャッシュは変わらないこと() {
+        WeightedMapperCache cache = new WeightedMapperCache("test.copy");
+        List<Trainer> result = new ArrayList<>(zeiyu);
+
+        cache.putObject("findAll", result);
+        result.clear();
+
+        assertThat(cache.getObject("findAll")).isEqualTo(zeiyu);
+    }
+
+    @Test
+    void clearで全て消えること() {
+        WeightedMapperCache cache = new WeightedMapperCache("test.clear");
+        cache.putObject("findAll", zeiyu);
+
+        cache.clear();
+
+        assertThat(cache.getSize()).isZero();
+        assertThat(cache.weightBytes()).isZero();
+    }
+
+    @Test
+    void このノードのclearだけが他のノードに配信されること() {
+        WeightedMapperCache cache = new WeightedMapperCache("test.broadcast");
+        AtomicInteger published = new AtomicInteger();
+        cache.setClearListener(published::incrementAndGet);
+        cache.putObject("findAll", zeiyu);
+
+        // 他のノードから伝わった無効化は配信し直さない
+        cache.clearLocally();
+        assertThat(cache.getSize()).isZero();
+        assertThat(published).hasValue(0);
+
+        cache.clear();
+        assertThat(published).hasValue(1);
+    }
+
+    @Test
+    void 上限を超える結果は見積もりを途中でやめて保存しないこと() {
+        WeightedMapperCache cache = new WeightedMapperCache("test.large");
+        cache.setMaxBytes(1024);
+        List<Trainer> large = Collections.nCopies(10_000, zeiyu.get(0));
+
+        assertThat(ObjectWeigher.weigh(large, 1024)).isGreaterThan(1024).isLessThan(ObjectWeigher.weigh(large));
+
+        cache.putObject("findAll", large);
+        assertThat(cache.getSize()).isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package com.trainer.name.count;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilteredCountCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private long load(long count) {
+        loads.incrementAndGet();
+        return count;
+    }
+
+    @Test
+    void ttlの間は数え直さずに同じ件数を返すこと() {
+        FilteredCountCache cache = new FilteredCountCache(Duration.ofSeconds(30), 10, now::get);
+
+        assertThat(cache.get(TrainerCounter.Filter.NAME, "ゼ", () -> load(1))).isEqualTo(1);
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertThat(cache.get(TrainerCounter.Filter.NAME, "ゼ", () -> load(2))).isEqualTo(1);
+        assertThat(loads).hasValue(1);
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(cache.get(TrainerCounter.Filter.NAME, "ゼ", () -> load(2))).isEqualTo(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void 条件の種類と値ごとに別々に数えること() {
+        FilteredCountCache cache = new FilteredCountCache(Duration.ofSeconds(30), 10, now::get);
+
+        cache.get(TrainerCounter.Filter.NAME, "ゼ", () -> load(1));
+        cache.get(TrainerCounter.Filter.NAME, "サ", () -> load(1));
+        cache.get(TrainerCounter.Filter.EMAIL, "ゼ", () -> load(0));
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void 上限を超えると最も使われていない条件から捨てること() {
+        FilteredCountCache cache = new FilteredCountCache(Duration.ofSeconds(30), 2, now::get);
+        cache.get(TrainerCounter.Filter.NAME, "ゼ", () -> load(1));
+        cache.get(TrainerCounter.Filter.NAME, "サ", () -> load(1));
+        cache.get(TrainerCounter.Filter.NAME, "ゼ", () -> load(1));
+
+        cache.get(TrainerCounter.Filter.NAME, "ブ", () -> load(1));
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.get(TrainerCounter.Filter.NAME, "ゼ", () -> load(1));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void ttlが0の場合は毎回数えること() {
+        FilteredCountCache cache = new FilteredCountCache(Duration.ZERO, 10, now::get);
+
+        cache.get(TrainerCounter.Filter.NAME, "ゼ", () -> load(1));
+        cache.get(TrainerCounter.Filter.NAME, "ゼ", () -> load(1));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+}
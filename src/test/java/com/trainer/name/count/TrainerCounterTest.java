@@ -0,0 +1,54 @@
+package com.trainer.name.count;
+
+import com.trainer.name.mapper.TrainerCountMapper;
+import com.trainer.name.mapper.TrainerMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrainerCounterTest {
+    @Mock
+    TrainerCountMapper countMapper;
+    @Mock
+    TrainerMapper trainerMapper;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private TrainerCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new TrainerCounter(countMapper, trainerMapper, transactionManager, new TrainerCountProperties());
+    }
+
+    @Test
+    void 数え直すとカウンターとの差分だけを足し込むこと() {
+        when(countMapper.sum(TrainerCounter.COUNTER_NAME)).thenReturn(3L);
+        when(trainerMapper.countAll()).thenReturn(5L);
+
+        counter.reconcile();
+
+        verify(countMapper).add(TrainerCounter.COUNTER_NAME, 0, 2);
+    }
+
+    @Test
+    void カウンターが合っていれば何も足し込まないこと() {
+        when(countMapper.sum(TrainerCounter.COUNTER_NAME)).thenReturn(5L);
+        when(trainerMapper.countAll()).thenReturn(5L);
+
+        counter.reconcile();
+
+        verify(countMapper, never()).add(anyString(), anyInt(), anyLong());
+    }
+}
@@ -0,0 +1,106 @@
+package com.trainer.name.id;
+
+import com.trainer.name.mapper.TrainerIdSequenceMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SegmentedIdAllocatorTest {
+    @Mock
+    TrainerIdSequenceMapper sequenceMapper;
+    // トランザクションの開始・コミットは何もしない
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private SegmentedIdAllocator allocator;
+
+    @AfterEach
+    void tearDown() {
+        allocator.close();
+    }
+
+    // trainer_id_sequenceの行ロックの代わりに、lockNextIdでブロック分まとめて進める
+    private void stubSequence(long first, int blockSize) {
+        AtomicLong nextId = new AtomicLong(first);
+        when(sequenceMapper.lockNextId(SegmentedIdAllocator.SEQUENCE_NAME)).thenAnswer(invocation -> nextId.getAndAdd(blockSize));
+        lenient().when(sequenceMapper.updateNextId(eq(SegmentedIdAllocator.SEQUENCE_NAME), anyLong())).thenReturn(1);
+    }
+
+    @Test
+    void ブロック単位で借りたidを順に払い出すこと() {
+        stubSequence(4, 3);
+        allocator = new SegmentedIdAllocator(sequenceMapper, transactionManager, 3, 0);
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(allocator.nextId());
+        }
+
+        assertThat(ids).containsExactly(4, 5, 6, 7, 8, 9, 10);
+        verify(sequenceMapper, times(3)).lockNextId(SegmentedIdAllocator.SEQUENCE_NAME);
+    }
+
+    @Test
+    void 残りが少なくなると次のブロックを先に借りておくこと() {
+        stubSequence(1, 10);
+        allocator = new SegmentedIdAllocator(sequenceMapper, transactionManager, 10, 0.2);
+
+        for (int i = 0; i < 8; i++) {
+            allocator.nextId();
+        }
+        // 残りが2つになった時点で、使い切る前に次のブロックを借りている
+        verify(sequenceMapper, timeout(1000).times(2)).lockNextId(SegmentedIdAllocator.SEQUENCE_NAME);
+
+        assertThat(allocator.nextId()).isEqualTo(9);
+        assertThat(allocator.nextId()).isEqualTo(10);
+        assertThat(allocator.nextId()).isEqualTo(11);
+    }
+
+    @Test
+    void 複数のスレッドから呼んでも同じidを払い出さないこと() throws Exception {
+        stubSequence(1, 50);
+        allocator = new SegmentedIdAllocator(sequenceMapper, transactionManager, 50, 0.5);
+
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        ids.add(allocator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ids).hasSize(8000);
+    }
+}
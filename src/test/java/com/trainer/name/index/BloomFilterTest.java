@@ -0,0 +1,48 @@
+package com.trainer.name.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void 追加した値は必ず存在するかもしれないと判定されること() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("trainer" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("trainer" + i + "@example.com")).isTrue();
+        }
+    }
+
+    @Test
+    void 追加していない値の偽陽性率が指定した値の範囲に収まること() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("trainer" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("unknown" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        // 理論値1%に対して余裕を持たせて2%未満であることを確認
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.011);
+    }
+
+    @Test
+    void 日本語の名前も判定できること() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+        filter.put("ゼイユ");
+
+        assertThat(filter.mightContain("ゼイユ")).isTrue();
+        assertThat(filter.insertions()).isEqualTo(1);
+    }
+}
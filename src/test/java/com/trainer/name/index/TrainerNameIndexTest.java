@@ -0,0 +1,129 @@
+package com.trainer.name.index;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.entity.TrainerSummary;
+import com.trainer.name.event.TrainerChangedEvent;
+import com.trainer.name.mapper.TrainerMapper;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrainerNameIndexTest {
+    private TrainerNameIndex nameIndex;
+
+    @BeforeEach
+    void setUp() {
+        nameIndex = new TrainerNameIndex();
+        nameIndex.onTrainerChanged(TrainerChangedEvent.created(new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe")));
+        nameIndex.onTrainerChanged(TrainerChangedEvent.created(new Trainer(2, "サザレ", "Sazare318@heisei.bluebe")));
+        nameIndex.onTrainerChanged(TrainerChangedEvent.created(new Trainer(3, "ブライア", "Briar8931@usagica.bluebe")));
+        nameIndex.onTrainerChanged(TrainerChangedEvent.created(new Trainer(4, "ぜにがめ", "zenigame@example.com")));
+    }
+
+    @Test
+    void 前方一致する名前が名前順に返されること() {
+        assertThat(nameIndex.suggest("ゼ", 10, false))
+                .containsExactly(new TrainerSummary(1, "ゼイユ"));
+    }
+
+    @Test
+    void かなを同一視するとひらがなとカタカナの両方が返されること() {
+        assertThat(nameIndex.suggest("ぜ", 10, true))
+                .containsExactly(new TrainerSummary(1, "ゼイユ"), new TrainerSummary(4, "ぜにがめ"));
+    }
+
+    @Test
+    void 半角カナの入力も全角と同じように扱われること() {
+        assertThat(nameIndex.suggest("ｻｻﾞ", 10, false))
+                .containsExactly(new TrainerSummary(2, "サザレ"));
+    }
+
+    @Test
+    void 件数の上限を超えて返さないこと() {
+        assertThat(nameIndex.suggest("ぜ", 1, true)).hasSize(1);
+    }
+
+    @Test
+    void 更新と削除が索引に反映されること() {
+        nameIndex.onTrainerChanged(TrainerChangedEvent.updated(
+                new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe"), new Trainer(1, "レホール", "Raifort318@merry.bluebe")));
+        nameIndex.onTrainerChanged(TrainerChangedEvent.deleted(new Trainer(3, "ブライア", "Briar8931@usagica.bluebe")));
+
+        assertThat(nameIndex.suggest("ゼ", 10, false)).isEmpty();
+        assertThat(nameIndex.suggest("レ", 10, false)).containsExactly(new TrainerSummary(1, "レホール"));
+        assertThat(nameIndex.suggest("ブ", 10, false)).isEmpty();
+    }
+
+    @Test
+    void idだけの削除のイベントでも索引から取り除かれること() {
+        nameIndex.onTrainerChanged(TrainerChangedEvent.updated(
+                new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe"), new Trainer(1, "レホール", "Raifort318@merry.bluebe")));
+        nameIndex.onTrainerChanged(TrainerChangedEvent.deleted(1));
+
+        assertThat(nameIndex.suggest("レ", 10, false)).isEmpty();
+        assertThat(nameIndex.suggest("ゼ", 10, false)).isEmpty();
+        assertThat(nameIndex.suggest("サ", 10, false)).containsExactly(new TrainerSummary(2, "サザレ"));
+    }
+
+    @Test
+    void 作り直すとイベントの届かなかった変更も反映されること() {
+        TrainerMapper trainerMapper = mock(TrainerMapper.class);
+        TrainerNameIndex rebuiltIndex = new TrainerNameIndex();
+        TrainerExistenceFilter existenceFilter = new TrainerExistenceFilter(new TrainerIndexProperties());
+        scan(trainerMapper, new Trainer(2, "サザレ", "Sazare318@heisei.bluebe"));
+        rebuiltIndex.onTrainerChanged(TrainerChangedEvent.created(new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe")));
+
+        new TrainerIndexRebuilder(trainerMapper, existenceFilter, rebuiltIndex).rebuild();
+
+        assertThat(rebuiltIndex.isReady()).isTrue();
+        assertThat(rebuiltIndex.suggest("ゼ", 10, false)).isEmpty();
+        assertThat(rebuiltIndex.suggest("サ", 10, false)).containsExactly(new TrainerSummary(2, "サザレ"));
+        // Bloomフィルタも同じ1回の読み込みから作られる
+        verify(trainerMapper, times(1)).scanAll(any());
+        assertThat(existenceFilter.mightContainName("サザレ")).isTrue();
+    }
+
+    @Test
+    void 作り直した後の変更も名前順に合わせて返されること() {
+        TrainerMapper trainerMapper = mock(TrainerMapper.class);
+        TrainerNameIndex rebuiltIndex = new TrainerNameIndex();
+        scan(trainerMapper, new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe"), new Trainer(4, "ぜにがめ", "zenigame@example.com"),
+                new Trainer(2, "サザレ", "Sazare318@heisei.bluebe"));
+        new TrainerIndexRebuilder(trainerMapper, new TrainerExistenceFilter(new TrainerIndexProperties()), rebuiltIndex).rebuild();
+
+        rebuiltIndex.onTrainerChanged(TrainerChangedEvent.created(new Trainer(5, "ゼクロム", "zekrom@example.com")));
+        rebuiltIndex.onTrainerChanged(TrainerChangedEvent.updated(
+                new Trainer(2, "サザレ", "Sazare318@heisei.bluebe"), new Trainer(2, "ぜったい", "Sazare318@heisei.bluebe")));
+        rebuiltIndex.onTrainerChanged(TrainerChangedEvent.deleted(4));
+
+        assertThat(rebuiltIndex.suggest("ぜ", 10, true)).containsExactly(
+                new TrainerSummary(1, "ゼイユ"), new TrainerSummary(5, "ゼクロム"), new TrainerSummary(2, "ぜったい"));
+        assertThat(rebuiltIndex.suggest("サ", 10, false)).isEmpty();
+    }
+
+    private static void scan(TrainerMapper trainerMapper, Trainer... trainers) {
+        doAnswer(invocation -> {
+            ResultHandler<Trainer> handler = invocation.getArgument(0);
+            for (Trainer trainer : trainers) {
+                handler.handleResult(resultContext(trainer));
+            }
+            return null;
+        }).when(trainerMapper).scanAll(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResultContext<Trainer> resultContext(Trainer trainer) {
+        ResultContext<Trainer> context = mock(ResultContext.class);
+        when(context.getResultObject()).thenReturn(trainer);
+        return context;
+    }
+}
@@ -0,0 +1,73 @@
+package com.trainer.name.integrationtest;
+
+import com.github.database.rider.core.api.dataset.DataSet;
+import com.github.database.rider.spring.api.DBRider;
+import com.trainer.name.entity.Trainer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.FluxExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import javax.sql.DataSource;
+
+// TrainerRestApiScenariosのシナリオをWebFlux + R2DBC構成に対して実行する
+// R2DBCの更新はテストのトランザクションでロールバックされないため、DataSetのCLEAN_INSERTで毎回初期化する
+// R2DBCのドライバはMySQLのみ用意しているので、H2で実行するときは対象外にする
+@DisabledIfSystemProperty(named = "spring.profiles.active", matches = ".*h2.*")
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+@DBRider
+@AutoConfigureWebTestClient
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ReactiveTrainerRestApiIntegrationTest extends TrainerRestApiScenarios {
+    @Autowired
+    WebTestClient webTestClient;
+
+    // reactiveプロファイルではJDBCのDataSourceを作らないので、DBRiderがデータを投入するためだけに用意する
+    @TestConfiguration
+    static class DataSetConfig {
+        @Bean
+        DataSource dataSetDataSource(Environment environment) {
+            return DataSourceBuilder.create()
+                    .url(environment.getRequiredProperty("spring.datasource.url"))
+                    .username(environment.getProperty("spring.datasource.username"))
+                    .password(environment.getProperty("spring.datasource.password"))
+                    .build();
+        }
+    }
+
+    @Override
+    protected WebTestClient webTestClient() {
+        return webTestClient;
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void ユーザーがNDJSONで1件ずつストリーミングされること() {
+        FluxExchangeResult<Trainer> result = webTestClient.get().uri("/trainers")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Trainer.class);
+
+        // 1件ずつ要求してもDBまでバックプレッシャーが伝わり、順に受け取れること
+        StepVerifier.create(result.getResponseBody(), 1)
+                .expectNext(new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe"))
+                .thenRequest(2)
+                .expectNext(new Trainer(2, "サザレ", "Sazare318@heisei.bluebe"))
+                .expectNext(new Trainer(3, "ブライア", "Briar8931@usagica.bluebe"))
+                .verifyComplete();
+    }
+
+}
@@ -1,199 +1,102 @@
 package com.trainer.name.integrationtest;
 
 import com.github.database.rider.core.api.dataset.DataSet;
-import com.github.database.rider.core.api.dataset.ExpectedDataSet;
 import com.github.database.rider.spring.api.DBRider;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
-import org.skyscreamer.jsonassert.JSONAssert;
-import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
-
-@SpringBootTest
+@SpringBootTest(properties = "trainer.tracing.server-timing=true")
 @DBRider
 @AutoConfigureMockMvc
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-public class TrainerRestApiIntegrationTest {
+@Transactional
+public class TrainerRestApiIntegrationTest extends TrainerRestApiScenarios {
     @Autowired
     MockMvc mockMvc;
 
-    @Test
-    @DataSet(value = "datasets/trainers.yml")
-    @Transactional
-    void ユーザーが全件取得できること() throws Exception {
-        String response = mockMvc.perform(MockMvcRequestBuilders.get("/trainers"))
-                .andExpect(MockMvcResultMatchers.status().isOk())
-                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
-        JSONAssert.assertEquals(
-                "[{\"id\":1,\"name\":\"ゼイユ\",\"email\":\"Zeiyu498@merry.bluebe\"}," +
-                        "{\"id\":2,\"name\":\"サザレ\",\"email\":\"Sazare318@heisei.bluebe\"}," +
-                        "{\"id\":3,\"name\":\"ブライア\",\"email\":\"Briar8931@usagica.bluebe\"}]",
-                response, JSONCompareMode.STRICT);
-    }
-
-    @Test
-    @DataSet(value = "datasets/trainers.yml")
-    @Transactional
-    void ユーザーが名前で絞り込まれること() throws Exception {
-        String response = mockMvc.perform(MockMvcRequestBuilders.get("/trainers").param("name", "サザレ"))
-                .andExpect(MockMvcResultMatchers.status().isOk())
-                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
-        JSONAssert.assertEquals(
-                "[{\"id\":2,\"name\":\"サザレ\",\"email\":\"Sazare318@heisei.bluebe\"}]",
-                response, JSONCompareMode.STRICT);
-    }
-
-    @Test
-    @DataSet(value = "datasets/trainers.yml")
-    @Transactional
-    void ユーザーがメールアドレスで絞り込まれること() throws Exception {
-        String response = mockMvc.perform(MockMvcRequestBuilders.get("/trainers").param("email", "Sazare318@heisei.bluebe"))
-                .andExpect(MockMvcResultMatchers.status().isOk())
-                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
-        JSONAssert.assertEquals(
-                "[{\"id\":2,\"name\":\"サザレ\",\"email\":\"Sazare318@heisei.bluebe\"}]",
-                response, JSONCompareMode.STRICT);
+    // 共通のシナリオもMockMvcを通して実行するので、テストのトランザクションでロールバックされる
+    @Override
+    protected WebTestClient webTestClient() {
+        return MockMvcWebTestClient.bindTo(mockMvc).build();
     }
 
     @Test
     @DataSet(value = "datasets/trainers.yml")
     @Transactional
-    void ユーザーが頭文字で絞り込まれること() throws Exception {
-        String response = mockMvc.perform(MockMvcRequestBuilders.get("/trainers").param("startingWith", "ゼ"))
+    void 発行したSQLがServerTimingヘッダーで返されること() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/trainers"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
-                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
-        JSONAssert.assertEquals(
-                "[{\"id\":1,\"name\":\"ゼイユ\",\"email\":\"Zeiyu498@merry.bluebe\"}]",
-                response, JSONCompareMode.STRICT);
+                .andExpect(MockMvcResultMatchers.header().string("Server-Timing",
+                        Matchers.allOf(
+                                Matchers.startsWith("sql;dur="),
+                                Matchers.containsString("desc=\"1 statements, 3 rows\""),
+                                Matchers.containsString("sql-1-findAll;dur="))));
     }
 
     @Test
-    @DataSet(value = "datasets/trainers.yml")
+    @DataSet(value = "datasets/trainers_with_counts.yml")
     @Transactional
-    void 指定されたIDのトレーナーが取得されること() throws Exception {
-        int existingTrainerId = 1;
-
-        String response = mockMvc.perform(MockMvcRequestBuilders.get("/trainers/" + existingTrainerId))
+    void 件数がカウンターから取得でき追加と削除で増減すること() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/trainers/count"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
-                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+                .andExpect(MockMvcResultMatchers.content().json("{\"count\":3}", true));
 
-        // 期待されるJSONデータと応答を検証するアサーションを追加
-        JSONAssert.assertEquals(
-                "{\"id\":1,\"name\":\"ゼイユ\",\"email\":\"Zeiyu498@merry.bluebe\"}",
-                response, JSONCompareMode.STRICT);
-    }
-
-    @Test
-    @DataSet(cleanBefore = true, cleanAfter = true) // テスト前後にデータをクリーンアップ
-    @Transactional
-    void 新しいトレーナーが作成されること() throws Exception {
-        // 作成する新しいトレーナーの情報を指定
-        String newTrainerRequest = """
-                {
-                  "name": "新しいトレーナー",
-                  "email": "newtrainer@example.com"
-                }
-                """;
-
-        // 新しいトレーナーを作成するリクエストを送信
-        String response = mockMvc.perform(MockMvcRequestBuilders.post("/trainers")
+        mockMvc.perform(MockMvcRequestBuilders.post("/trainers")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(newTrainerRequest))
-                .andExpect(MockMvcResultMatchers.status().isCreated()) // HTTPステータスが201であることを検証
-                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
-
-        // 作成されたトレーナーの情報を検証
-        JSONAssert.assertEquals(
-                "{\"message\":\"トレーナーを作成しました\"}",
-                response, JSONCompareMode.STRICT);
+                        .content("{\"name\":\"カウント\",\"email\":\"count@example.com\"}"))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+        mockMvc.perform(MockMvcRequestBuilders.get("/trainers/count"))
+                .andExpect(MockMvcResultMatchers.content().json("{\"count\":4}", true));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/trainers/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/trainers/count"))
+                .andExpect(MockMvcResultMatchers.content().json("{\"count\":3}", true));
     }
 
     @Test
     @DataSet(value = "datasets/trainers.yml")
-    @ExpectedDataSet(value = "datasets/expected_updated_trainers.yml")
     @Transactional
-    void トレーナーが更新されること() throws Exception {
-        int trainerIdToUpdate = 1;
-
-        // 更新するトレーナーの情報を指定
-        String updatedTrainerRequest = """
-                {
-                  "name": "レホール",
-                  "email": "Raifort318@merry.bluebe"
-                }
-                """;
-
-        // トレーナーを更新するリクエストを送信
-        String response = mockMvc.perform(MockMvcRequestBuilders.patch("/trainers/" + trainerIdToUpdate)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(updatedTrainerRequest))
-                .andExpect(MockMvcResultMatchers.status().isOk()) // HTTPステータスが200であることを検証
-                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
-
-        // 期待されるJSONデータと応答を検証するアサーションを追加
-        JSONAssert.assertEquals(
-                "{\"message\":\"トレーナーを更新しました\"}",
-                response, JSONCompareMode.STRICT);
-    }
-
-
-    @Test
-    @DataSet(value = "datasets/trainers.yml")
-    @Transactional
-    void 存在しないトレーナーが更新されると404エラーが返されること() throws Exception {
-        int nonExistingTrainerId = 100; // 存在しないトレーナーのIDを指定
-
-        // 更新するトレーナーの情報を指定
-        String updatedTrainerRequest = """
-                {
-                  "name": "レホール",
-                  "email": "Raifort318@merry.bluebe"
-                }
-                """;
-
-        // トレーナーを更新するリクエストを送信
-        mockMvc.perform(MockMvcRequestBuilders.patch("/trainers/" + nonExistingTrainerId)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(updatedTrainerRequest))
-                .andExpect(MockMvcResultMatchers.status().isNotFound()); // HTTPステータスが404であることを検証
-    }
-
-    @Test
-    @DataSet(value = "datasets/trainers.yml")
-    @ExpectedDataSet(value = "datasets/expected_deleted_trainers.yml")
-    @Transactional
-    void トレーナーが削除されること() throws Exception {
-        int trainerIdToDelete = 1;
-
-        // トレーナーを削除するリクエストを送信
-        String response = mockMvc.perform(MockMvcRequestBuilders.delete("/trainers/" + trainerIdToDelete))
-                .andExpect(MockMvcResultMatchers.status().isOk()) // HTTPステータスが200であることを検証
-                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
-
-        // 期待されるJSONデータと応答を検証するアサーションを追加
-        JSONAssert.assertEquals(
-                "{\"message\":\"トレーナーを削除しました\"}",
-                response, JSONCompareMode.STRICT);
+    void 名前とメールアドレスで絞り込んだ件数が取得できること() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/trainers/count").param("name", "ザ"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json("{\"count\":1}", true));
+        mockMvc.perform(MockMvcRequestBuilders.get("/trainers/count").param("email", "nobody@example.com"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json("{\"count\":0}", true));
     }
 
     @Test
     @DataSet(value = "datasets/trainers.yml")
     @Transactional
-    void 存在しないトレーナーが削除されると404エラーが返されること() throws Exception {
-        int nonExistingTrainerId = 100; // 存在しないトレーナーのIDを指定
-
-        // トレーナーを削除するリクエストを送信
-        mockMvc.perform(MockMvcRequestBuilders.delete("/trainers/" + nonExistingTrainerId))
-                .andExpect(MockMvcResultMatchers.status().isNotFound()); // HTTPステータスが404であることを検証
+    void 複数の条件を指定すると全ての条件に一致するトレーナーだけが返されること() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/trainers")
+                        .param("startingWith", "ゼ")
+                        .param("name", "イ")
+                        .param("email", "ZEIYU498@merry.bluebe")
+                        .param("sort", "name")
+                        .param("order", "desc"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json("""
+                        [{"id":1,"name":"ゼイユ","email":"Zeiyu498@merry.bluebe"}]
+                        """, true));
+
+        // 一致しない場合は404ではなく空の配列を返す
+        mockMvc.perform(MockMvcRequestBuilders.get("/trainers")
+                        .param("startingWith", "サ")
+                        .param("name", "イ"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json("[]", true));
     }
-
 }
@@ -0,0 +1,170 @@
+package com.trainer.name.integrationtest;
+
+import com.github.database.rider.core.api.dataset.DataSet;
+import com.github.database.rider.core.api.dataset.ExpectedDataSet;
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.charset.StandardCharsets;
+
+// MVC構成（TrainerRestApiIntegrationTest）とWebFlux + R2DBC構成（ReactiveTrainerRestApiIntegrationTest）の両方で実行するシナリオ
+// どちらの構成でも同じWebTestClientで検証する（MVC構成はMockMvcに結び付けたもの）
+abstract class TrainerRestApiScenarios {
+
+    protected abstract WebTestClient webTestClient();
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void ユーザーが全件取得できること() throws Exception {
+        String response = getAsString("/trainers");
+        JSONAssert.assertEquals(
+                "[{\"id\":1,\"name\":\"ゼイユ\",\"email\":\"Zeiyu498@merry.bluebe\"}," +
+                        "{\"id\":2,\"name\":\"サザレ\",\"email\":\"Sazare318@heisei.bluebe\"}," +
+                        "{\"id\":3,\"name\":\"ブライア\",\"email\":\"Briar8931@usagica.bluebe\"}]",
+                response, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void ユーザーが名前で絞り込まれること() throws Exception {
+        String response = getAsString("/trainers?name=サザレ");
+        JSONAssert.assertEquals(
+                "[{\"id\":2,\"name\":\"サザレ\",\"email\":\"Sazare318@heisei.bluebe\"}]",
+                response, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void ユーザーがメールアドレスで絞り込まれること() throws Exception {
+        String response = getAsString("/trainers?email=Sazare318@heisei.bluebe");
+        JSONAssert.assertEquals(
+                "[{\"id\":2,\"name\":\"サザレ\",\"email\":\"Sazare318@heisei.bluebe\"}]",
+                response, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void ユーザーが頭文字で絞り込まれること() throws Exception {
+        String response = getAsString("/trainers?startingWith=ゼ");
+        JSONAssert.assertEquals(
+                "[{\"id\":1,\"name\":\"ゼイユ\",\"email\":\"Zeiyu498@merry.bluebe\"}]",
+                response, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void 指定されたIDのトレーナーが取得されること() throws Exception {
+        String response = getAsString("/trainers/1");
+        JSONAssert.assertEquals(
+                "{\"id\":1,\"name\":\"ゼイユ\",\"email\":\"Zeiyu498@merry.bluebe\"}",
+                response, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void 存在しないIDを指定すると404エラーが返されること() {
+        webTestClient().get().uri("/trainers/100")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DataSet(cleanBefore = true, cleanAfter = true) // テスト前後にデータをクリーンアップ
+    void 新しいトレーナーが作成されること() throws Exception {
+        String newTrainerRequest = """
+                {
+                  "name": "新しいトレーナー",
+                  "email": "newtrainer@example.com"
+                }
+                """;
+
+        String response = new String(webTestClient().post().uri("/trainers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(newTrainerRequest)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists("Location")
+                .expectBody().returnResult().getResponseBody(), StandardCharsets.UTF_8);
+
+        JSONAssert.assertEquals(
+                "{\"message\":\"トレーナーを作成しました\"}",
+                response, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void 重複した名前で作成しようとすると400エラーが返されること() {
+        webTestClient().post().uri("/trainers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\": \"ゼイユ\", \"email\": \"newtrainer@example.com\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @ExpectedDataSet(value = "datasets/expected_updated_trainers.yml")
+    void トレーナーが更新されること() throws Exception {
+        String updatedTrainerRequest = """
+                {
+                  "name": "レホール",
+                  "email": "Raifort318@merry.bluebe"
+                }
+                """;
+
+        String response = new String(webTestClient().patch().uri("/trainers/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updatedTrainerRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody(), StandardCharsets.UTF_8);
+
+        JSONAssert.assertEquals(
+                "{\"message\":\"トレーナーを更新しました\"}",
+                response, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void 存在しないトレーナーが更新されると404エラーが返されること() {
+        webTestClient().patch().uri("/trainers/100")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\": \"レホール\", \"email\": \"Raifort318@merry.bluebe\"}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @ExpectedDataSet(value = "datasets/expected_deleted_trainers.yml")
+    void トレーナーが削除されること() throws Exception {
+        String response = new String(webTestClient().delete().uri("/trainers/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody(), StandardCharsets.UTF_8);
+
+        JSONAssert.assertEquals(
+                "{\"message\":\"トレーナーを削除しました\"}",
+                response, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void 存在しないトレーナーが削除されると404エラーが返されること() {
+        webTestClient().delete().uri("/trainers/100")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private String getAsString(String uri) {
+        byte[] body = webTestClient().get().uri(uri)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody();
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
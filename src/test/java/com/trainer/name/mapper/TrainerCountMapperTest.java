@@ -0,0 +1,32 @@
+package com.trainer.name.mapper;
+
+import com.github.database.rider.core.api.dataset.DataSet;
+import com.github.database.rider.spring.api.DBRider;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DBRider
+@MybatisTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TrainerCountMapperTest {
+    @Autowired
+    TrainerCountMapper countMapper;
+
+    @Test
+    @DataSet(value = "datasets/trainers_with_counts.yml")
+    @Transactional
+    void slotごとに足し込んだ値の合計が返されること() {
+        countMapper.add("trainers", 0, 1);
+        // まだ行のないslotは足し込むときに作られる
+        countMapper.add("trainers", 5, 2);
+        countMapper.add("trainers", 5, -1);
+
+        assertThat(countMapper.sum("trainers")).isEqualTo(5);
+        assertThat(countMapper.sum("other")).isZero();
+    }
+}
@@ -0,0 +1,188 @@
+package com.trainer.name.mapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.database.rider.core.api.dataset.DataSet;
+import com.github.database.rider.spring.api.DBRider;
+import com.trainer.name.entity.Trainer;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// TrainerMapperの全てのSQLをEXPLAIN FORMAT=JSONにかけ、@QueryPlanBudgetの上限を超えていないことを確認する
+// indexOnlyのSQLは、カバリングインデックスだけで答えている（using_index）ことも確認する
+// 件数が少ないとオプティマイザが全件走査を選ぶので、ある程度の行数を投入してから確認する
+// EXPLAIN FORMAT=JSONはMySQLのみなので、H2で実行するときは対象外にする
+@DisabledIfSystemProperty(named = "spring.profiles.active", matches = ".*h2.*")
+@DBRider
+@MybatisTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TrainerMapperQueryPlanTest {
+    private static final int SEED_ROWS = 5000;
+
+    // EXPLAINに渡す引数（メソッドを追加したらここにも追加する）
+    private static final Map<String, Object[]> SAMPLE_ARGS = Map.ofEntries(
+            Map.entry("findAll", new Object[]{}),
+            // 最後のページ（主キーの範囲検索になっていることを確認する）
+            Map.entry("findPage", new Object[]{Integer.MAX_VALUE - 1, 20}),
+            Map.entry("findByNameStartingWith", new Object[]{"ゼ"}),
+            Map.entry("findSummariesByNamePrefix", new Object[]{"ぜ", 10, true}),
+            Map.entry("search", new Object[]{new TrainerSearchCriteria("イ", "ゼ", null, TrainerSearchCriteria.Sort.NAME, false, null, null, 20)}),
+            Map.entry("findByEmail", new Object[]{"Zeiyu498@merry.bluebe"}),
+            Map.entry("findByName", new Object[]{"ゼ"}),
+            Map.entry("findSummaries", new Object[]{}),
+            Map.entry("findSummariesByNameContaining", new Object[]{"ゼ"}),
+            Map.entry("findById", new Object[]{1}),
+            Map.entry("insertWithGeneratedKey", new Object[]{new Trainer(null, "プラン", "plan@example.com"), new TrainerMapper.GeneratedKey()}),
+            Map.entry("insertWithId", new Object[]{new Trainer(Integer.MAX_VALUE, "プラン", "plan@example.com")}),
+            Map.entry("countAll", new Object[]{}),
+            Map.entry("scanAll", new Object[]{null}),
+            Map.entry("countByEmail", new Object[]{"Zeiyu498@merry.bluebe"}),
+            Map.entry("countByName", new Object[]{"ゼイユ"}),
+            Map.entry("countByNameContaining", new Object[]{"ゼ"}),
+            Map.entry("update", new Object[]{new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe")}),
+            Map.entry("delete", new Object[]{1}),
+            Map.entry("findEmailById", new Object[]{1}),
+            Map.entry("findPurgeableIds", new Object[]{300L, 500}),
+            Map.entry("purge", new Object[]{List.of(1, 2, 3)})
+    );
+
+    @Autowired
+    SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    DataSource dataSource;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < SEED_ROWS; i++) {
+            rows.add(new Object[]{"プラン" + i, "plan" + i + "@example.com", "plan" + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO trainers (name, email, email_normalized) VALUES (?, ?, ?)", rows);
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void 全てのSQLが実行計画の上限内であること() {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        List<String> violations = new ArrayList<>();
+
+        for (Method method : TrainerMapper.class.getDeclaredMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            QueryPlanBudget budget = method.getAnnotation(QueryPlanBudget.class);
+            if (budget == null) {
+                violations.add(method.getName() + ": @QueryPlanBudgetがありません");
+                continue;
+            }
+            Object[] args = SAMPLE_ARGS.get(method.getName());
+            if (args == null) {
+                violations.add(method.getName() + ": SAMPLE_ARGSに引数がありません");
+                continue;
+            }
+            MappedStatement statement = configuration.getMappedStatement(TrainerMapper.class.getName() + "." + method.getName());
+            Object parameter = new ParamNameResolver(configuration, method).getNamedParams(args);
+            JsonNode plan = explain(statement, parameter);
+            violations.addAll(check(method.getName(), budget, plan));
+        }
+
+        assertThat(violations).isEmpty();
+    }
+
+    // searchの@QueryPlanBudgetは前方一致の範囲を走査する場合のもの
+    // 名前だけ（中間一致）の検索はインデックスで範囲を絞れないので、同じ中間一致のfindByNameStartingWithと同じく
+    // 削除されていない行の範囲をカバリングインデックスだけで走査していることを確認する
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    void 名前だけの検索は中間一致の検索と同じ上限内であること() throws Exception {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        Method search = TrainerMapper.class.getMethod("search", TrainerSearchCriteria.class);
+        QueryPlanBudget budget = TrainerMapper.class.getMethod("findByNameStartingWith", String.class)
+                .getAnnotation(QueryPlanBudget.class);
+        TrainerSearchCriteria nameOnly = new TrainerSearchCriteria("イ", null, null, TrainerSearchCriteria.Sort.NAME, false, null, null, 20);
+
+        MappedStatement statement = configuration.getMappedStatement(TrainerMapper.class.getName() + ".search");
+        Object parameter = new ParamNameResolver(configuration, search).getNamedParams(new Object[]{nameOnly});
+        JsonNode plan = explain(statement, parameter);
+
+        assertThat(check("search(name only)", budget, plan)).isEmpty();
+        // テーブルの全件走査ではなく、deleted_at IS NULLの範囲を走査する
+        assertThat(plan.findValues("table")).allSatisfy(table ->
+                assertThat(table.path("access_type").asText()).isNotEqualTo("ALL"));
+    }
+
+    private JsonNode explain(MappedStatement statement, Object parameter) {
+        BoundSql boundSql = statement.getBoundSql(parameter);
+        String json = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("EXPLAIN FORMAT=JSON " + boundSql.getSql())) {
+                new DefaultParameterHandler(statement, parameter, boundSql).setParameters(ps);
+                try (ResultSet resultSet = ps.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        });
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException(json, e);
+        }
+    }
+
+    private List<String> check(String name, QueryPlanBudget budget, JsonNode plan) {
+        List<String> violations = new ArrayList<>();
+        for (JsonNode table : plan.findValues("table")) {
+            // INSERTは読み込みを伴わないので対象外
+            if (table.path("insert").asBoolean(false)) {
+                continue;
+            }
+            // カバリングインデックスで答えていれば、EXPLAINのExtraのUsing indexに当たるusing_indexがtrueになる
+            if (budget.indexOnly() && !table.path("using_index").asBoolean(false)) {
+                violations.add(name + ": インデックスだけで答えていません（テーブルの行を読んでいます） " + table);
+            }
+            if (budget.fullScan()) {
+                continue;
+            }
+            String accessType = table.path("access_type").asText();
+            // ALLはテーブル、indexはインデックスの全件走査
+            if ("ALL".equals(accessType) || "index".equals(accessType)) {
+                violations.add(name + ": 全件走査になっています " + table);
+                continue;
+            }
+            long rows = table.path("rows_examined_per_scan").asLong(0);
+            if (rows > budget.maxRows()) {
+                violations.add(name + ": 見積もりの走査行数 " + rows + " が上限 " + budget.maxRows() + " を超えています " + table);
+            }
+        }
+        return violations;
+    }
+}
@@ -4,6 +4,7 @@ import com.github.database.rider.core.api.dataset.DataSet;
 import com.github.database.rider.core.api.dataset.ExpectedDataSet;
 import com.github.database.rider.spring.api.DBRider;
 import com.trainer.name.entity.Trainer;
+import com.trainer.name.entity.TrainerSummary;
 import org.junit.jupiter.api.Test;
 import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +12,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,7 +34,7 @@ class TrainerMapperTest {
 
         // ログにデータを出力
         for (Trainer trainer : trainers) {
-            System.out.println("ID: " + trainer.getId() + ", Name: " + trainer.getName() + ", Email: " + trainer.getEmail());
+            System.out.println("ID: " + trainer.id() + ", Name: " + trainer.name() + ", Email: " + trainer.email());
         }
 
         assertThat(trainers)
@@ -44,6 +46,18 @@ class TrainerMapperTest {
                 );
     }
 
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @Transactional
+    void 全件をストリーミングで読み込めること() {
+        List<Trainer> scanned = new ArrayList<>();
+
+        trainerMapper.scanAll(context -> scanned.add(context.getResultObject()));
+
+        assertThat(scanned).hasSize(3);
+        assertThat(trainerMapper.countAll()).isEqualTo(3);
+    }
+
     @Test
     @DataSet(value = "datasets/trainers.yml")
     @Transactional
@@ -88,6 +102,29 @@ class TrainerMapperTest {
                 );
     }
 
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @Transactional
+    void 大文字小文字や全角文字の違うメールアドレスでも同じユーザーが返される() {
+        // 正規化すると "zeiyu498@merry.bluebe" になるメールアドレス
+        String email = " ＺＥＩＹＵ498@Merry.Bluebe ";
+
+        List<Trainer> matchingTrainers = trainerMapper.findByEmail(email);
+
+        assertThat(matchingTrainers)
+                .containsExactly(new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe"));
+        assertEquals(1, trainerMapper.countByEmail(email));
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers_without_email_normalized.yml")
+    @Transactional
+    void 正規化したメールアドレスの埋め戻し前の行もメールアドレスで取得できること() {
+        assertThat(trainerMapper.findByEmail("zeiyu498@MERRY.bluebe"))
+                .containsExactly(new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe"));
+        assertEquals(1, trainerMapper.countByEmail("Zeiyu498@merry.bluebe"));
+    }
+
     @Test
     @DataSet(value = "datasets/trainers.yml")
     @Transactional
@@ -128,6 +165,84 @@ class TrainerMapperTest {
         assertThat(trainerOptional).isEmpty();
     }
 
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @Transactional
+    void 全てのユーザーのidと名前だけが取得できること() {
+        List<TrainerSummary> summaries = trainerMapper.findSummaries();
+
+        assertThat(summaries).containsExactlyInAnyOrder(
+                new TrainerSummary(1, "ゼイユ"),
+                new TrainerSummary(2, "サザレ"),
+                new TrainerSummary(3, "ブライア")
+        );
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @Transactional
+    void 名前に指定した文字を含むユーザーのidと名前だけが取得できること() {
+        assertThat(trainerMapper.findSummariesByNameContaining("ザ")).containsExactly(new TrainerSummary(2, "サザレ"));
+        assertThat(trainerMapper.findSummariesByNameContaining("nonexistent")).isEmpty();
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @Transactional
+    void 入力候補はfoldを指定するとひらがなでもカタカナの名前が取得できること() {
+        assertThat(trainerMapper.findSummariesByNamePrefix("ぜ", 10, false)).isEmpty();
+        assertThat(trainerMapper.findSummariesByNamePrefix("ぜ", 10, true)).containsExactly(new TrainerSummary(1, "ゼイユ"));
+        assertThat(trainerMapper.findSummariesByNamePrefix("ｻｻﾞ", 10, false)).containsExactly(new TrainerSummary(2, "サザレ"));
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @Transactional
+    void 名前に指定した文字を含むユーザーの件数が取得できること() {
+        assertThat(trainerMapper.countByNameContaining("ザ")).isEqualTo(1);
+        assertThat(trainerMapper.countByNameContaining("nonexistent")).isZero();
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @Transactional
+    void 指定した全ての条件に一致するユーザーだけが検索されること() {
+        assertThat(trainerMapper.search(criteria("イ", "ゼ", null, TrainerSearchCriteria.Sort.ID, false, null)))
+                .containsExactly(new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe"));
+        assertThat(trainerMapper.search(criteria("イ", "サ", null, TrainerSearchCriteria.Sort.ID, false, null))).isEmpty();
+        assertThat(trainerMapper.search(criteria("ザ", null, "SAZARE318@heisei.bluebe", TrainerSearchCriteria.Sort.NAME, false, null)))
+                .containsExactly(new Trainer(2, "サザレ", "Sazare318@heisei.bluebe"));
+        assertThat(trainerMapper.search(criteria("ザ", null, "Zeiyu498@merry.bluebe", TrainerSearchCriteria.Sort.ID, false, null))).isEmpty();
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @Transactional
+    void 検索結果を降順にafterIdの続きからlimit件ずつ取得できること() {
+        List<Trainer> first = trainerMapper.search(new TrainerSearchCriteria(null, null, null, TrainerSearchCriteria.Sort.ID, true, null, null, 2));
+        List<Trainer> second = trainerMapper.search(new TrainerSearchCriteria(null, null, null, TrainerSearchCriteria.Sort.ID, true, null, 2, 2));
+
+        assertThat(first).extracting(Trainer::id).containsExactly(3, 2);
+        assertThat(second).extracting(Trainer::id).containsExactly(1);
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @Transactional
+    void 名前順の検索はafterNameより後ろの名前から取得できること() {
+        List<Trainer> all = trainerMapper.search(criteria(null, null, null, TrainerSearchCriteria.Sort.NAME, false, null));
+        List<Trainer> rest = trainerMapper.search(criteria(null, null, null, TrainerSearchCriteria.Sort.NAME, false, all.get(0)));
+
+        assertThat(all).hasSize(3);
+        assertThat(rest).containsExactlyElementsOf(all.subList(1, 3));
+    }
+
+    private static TrainerSearchCriteria criteria(String name, String prefix, String email, TrainerSearchCriteria.Sort sort,
+                                                  boolean descending, Trainer after) {
+        return new TrainerSearchCriteria(name, prefix, email, sort, descending,
+                after == null ? null : after.name(), after == null ? null : after.id(), 100);
+    }
+
     @Test
     @DataSet(value = "datasets/trainers.yml")
     @Transactional
@@ -164,14 +279,14 @@ class TrainerMapperTest {
         Trainer newTrainer = new Trainer(null, "新しいトレーナー", "new_trainer@example.com");
 
         // テスト対象メソッドの呼び出し
-        trainerMapper.insert(newTrainer);
+        Trainer savedTrainer = trainerMapper.insert(newTrainer);
 
         // データベースからテストデータの取得
-        Trainer insertedTrainer = trainerMapper.findById(newTrainer.getId()).get();
+        Trainer insertedTrainer = trainerMapper.findById(savedTrainer.id()).get();
 
         // 取得したデータが期待されるデータと一致することを確認
-        assertEquals(newTrainer.getName(), insertedTrainer.getName());
-        assertEquals(newTrainer.getEmail(), insertedTrainer.getEmail());
+        assertEquals(newTrainer.name(), insertedTrainer.name());
+        assertEquals(newTrainer.email(), insertedTrainer.email());
     }
 
     @Test
@@ -182,17 +297,17 @@ class TrainerMapperTest {
         Trainer newTrainer = new Trainer(null, "新しいトレーナー", "new_trainer@example.com");
 
         // テスト対象メソッドの呼び出し
-        trainerMapper.insert(newTrainer);
+        Trainer savedTrainer = trainerMapper.insert(newTrainer);
 
         // IDが生成されていることを確認
-        assertNotNull(newTrainer.getId());
+        assertNotNull(savedTrainer.id());
 
         // データベースからテストデータの取得
-        Optional<Trainer> insertedTrainer = trainerMapper.findById(newTrainer.getId());
+        Optional<Trainer> insertedTrainer = trainerMapper.findById(savedTrainer.id());
 
         // 取得したデータが期待されるデータと一致することを確認
         assertTrue(insertedTrainer.isPresent());
-        assertEquals(newTrainer, insertedTrainer.get());
+        assertEquals(savedTrainer, insertedTrainer.get());
     }
 
     @Test
@@ -202,7 +317,7 @@ class TrainerMapperTest {
         // テストデータの作成
         Trainer newTrainer = new Trainer(null, "ゼイユ", "new_email@example.com");
         // 重複エントリの確認
-        assertEquals(1, trainerMapper.countByName(newTrainer.getName()));
+        assertEquals(1, trainerMapper.countByName(newTrainer.name()));
     }
 
     @Test
@@ -212,7 +327,7 @@ class TrainerMapperTest {
         // テストデータの作成
         Trainer newTrainer = new Trainer(null, "新しいトレーナー", "Zeiyu498@merry.bluebe");
         // 重複エントリの確認
-        assertEquals(1, trainerMapper.countByEmail(newTrainer.getEmail()));
+        assertEquals(1, trainerMapper.countByEmail(newTrainer.email()));
     }
 
     @Test
@@ -326,6 +441,55 @@ class TrainerMapperTest {
         assertTrue(deletedTrainer.isEmpty());
     }
 
+    @Test
+    @DataSet(value = "datasets/trainers.yml")
+    @Transactional
+    void 論理削除した行のメールアドレスを読めること() {
+        trainerMapper.delete(1);
+
+        // キャッシュの無効化に使うので、論理削除した後でも読める
+        assertEquals(Optional.of("Zeiyu498@merry.bluebe"), trainerMapper.findEmailById(1));
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers_with_deleted.yml")
+    @Transactional
+    void 論理削除した行は読み込みで返されないこと() {
+        assertThat(trainerMapper.findAll()).extracting(Trainer::id).containsExactly(1, 2, 3);
+        assertThat(trainerMapper.findById(4)).isEmpty();
+        assertThat(trainerMapper.findByName("レホール")).isEmpty();
+        assertThat(trainerMapper.findByEmail("Raifort318@merry.bluebe")).isEmpty();
+        assertThat(trainerMapper.countAll()).isEqualTo(3);
+        assertThat(trainerMapper.countByName("レホール")).isZero();
+        assertThat(trainerMapper.countByEmail("Raifort318@merry.bluebe")).isZero();
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers_with_deleted.yml")
+    @Transactional
+    void 物理削除を待っている行と同じ名前とメールアドレスで登録できること() {
+        Trainer inserted = trainerMapper.insert(new Trainer(null, "レホール", "Raifort318@merry.bluebe"));
+
+        assertThat(trainerMapper.findByEmail("Raifort318@merry.bluebe")).containsExactly(inserted);
+        // 削除されていない行どうしの重複は従来どおり一意制約で防ぐ
+        assertThrows(DataIntegrityViolationException.class,
+                () -> trainerMapper.insert(new Trainer(null, "レホール", "other@example.com")));
+    }
+
+    @Test
+    @DataSet(value = "datasets/trainers_with_deleted.yml")
+    @Transactional
+    void 保持期間を過ぎた論理削除済みの行だけが物理削除されること() {
+        // 削除したばかりの行は保持期間内なので対象にならない
+        trainerMapper.delete(1);
+
+        assertThat(trainerMapper.findPurgeableIds(60, 10)).containsExactly(4);
+        // 削除されていない行のidを渡しても消さない
+        assertEquals(1, trainerMapper.purge(List.of(4, 2)));
+        assertThat(trainerMapper.findPurgeableIds(60, 10)).isEmpty();
+        assertThat(trainerMapper.findById(2)).isPresent();
+    }
+
     @Test
     @DataSet(value = "datasets/trainers.yml")
     @Transactional
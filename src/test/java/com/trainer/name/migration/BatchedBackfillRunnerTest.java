@@ -0,0 +1,92 @@
+package com.trainer.name.migration;
+
+import com.trainer.name.mapper.BackfillProgressMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchedBackfillRunnerTest {
+    @Mock
+    BackfillProgressMapper progressMapper;
+
+    private BatchedBackfillRunner backfillRunner;
+    private final List<String> processedRanges = new ArrayList<>();
+    private final BackfillJob job = new BackfillJob() {
+        @Override
+        public String name() {
+            return "test-job";
+        }
+
+        @Override
+        public int processRange(long fromIdExclusive, long toIdInclusive) {
+            processedRanges.add(fromIdExclusive + "-" + toIdInclusive);
+            return 1;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        BackfillProperties properties = new BackfillProperties();
+        properties.setBatchSize(100);
+        // テストでは休止を入れない
+        properties.setMaxDutyCycle(1.0);
+        backfillRunner = new BatchedBackfillRunner(progressMapper, new SyncTaskExecutor(), properties);
+    }
+
+    @Test
+    void idの範囲ごとに処理して進捗を記録すること() {
+        when(progressMapper.maxTrainerId()).thenReturn(250L);
+        when(progressMapper.findLastId("test-job")).thenReturn(Optional.empty());
+
+        backfillRunner.run(job);
+
+        assertThat(processedRanges).containsExactly("0-100", "100-200", "200-300");
+        verify(progressMapper).saveProgress("test-job", 100, 1);
+        verify(progressMapper).saveProgress("test-job", 300, 1);
+        verify(progressMapper).markCompleted("test-job");
+    }
+
+    @Test
+    void 中断したジョブは記録された位置から再開すること() {
+        when(progressMapper.maxTrainerId()).thenReturn(250L);
+        when(progressMapper.findLastId("test-job")).thenReturn(Optional.of(200L));
+
+        backfillRunner.run(job);
+
+        assertThat(processedRanges).containsExactly("200-300");
+    }
+
+    @Test
+    void 空のテーブルでは処理せずに完了を記録すること() {
+        when(progressMapper.maxTrainerId()).thenReturn(0L);
+        when(progressMapper.findLastId("test-job")).thenReturn(Optional.empty());
+
+        backfillRunner.run(job);
+
+        assertThat(processedRanges).isEmpty();
+        verify(progressMapper).markCompleted("test-job");
+    }
+
+    @Test
+    void 完了済みのジョブは実行しないこと() {
+        when(progressMapper.isCompleted("test-job")).thenReturn(true);
+
+        backfillRunner.run(job);
+
+        assertThat(processedRanges).isEmpty();
+        verify(progressMapper, never()).markCompleted("test-job");
+    }
+}
@@ -0,0 +1,73 @@
+package com.trainer.name.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileAggregatorTest {
+    private final AtomicLong now = new AtomicLong();
+    private final ProfileAggregator aggregator = new ProfileAggregator(now::get);
+
+    @Test
+    void エンドポイントごとにレイテンシと割り当て量を集計すること() {
+        aggregator.recordRequest("GET /trainers/{id}", Duration.ofMillis(1), 200, 1, 1, 1000);
+        aggregator.recordRequest("GET /trainers/{id}", Duration.ofMillis(3), 200, 2, 1, 3000);
+        aggregator.recordRequest("GET /trainers", Duration.ofMillis(10), 503, 0, 0, 500);
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        ProfileAggregator.Snapshot snapshot = aggregator.snapshot();
+
+        ProfileAggregator.EndpointSnapshot byId = snapshot.endpoints().get("GET /trainers/{id}");
+        assertThat(byId.requests()).isEqualTo(2);
+        assertThat(byId.serverErrors()).isZero();
+        assertThat(byId.allocatedBytesPerRequest()).isEqualTo(2000);
+        assertThat(byId.allocationBytesPerSecond()).isEqualTo(2000);
+        assertThat(byId.statementsPerRequest()).isEqualTo(1.5);
+        assertThat(byId.rowsPerRequest()).isEqualTo(1.0);
+        assertThat(byId.latencyMillis().mean()).isEqualTo(2.0);
+        assertThat(byId.latencyMillis().max()).isEqualTo(3.0);
+        // 1msは512〜1024マイクロ秒の区間、3msは最大値で頭打ちにする
+        assertThat(byId.latencyMillis().p50()).isEqualTo(1.024);
+        assertThat(byId.latencyMillis().p99()).isEqualTo(3.0);
+
+        assertThat(snapshot.endpoints().get("GET /trainers").serverErrors()).isEqualTo(1);
+    }
+
+    @Test
+    void SQLごとの実行回数と行数、GCの停止時間を集計すること() {
+        aggregator.recordStatement("com.trainer.name.mapper.TrainerMapper.findById", Duration.ofMillis(1), 1);
+        aggregator.recordStatement("com.trainer.name.mapper.TrainerMapper.findById", Duration.ofMillis(1), 0);
+        aggregator.recordGc(Duration.ofMillis(4));
+        aggregator.recordGc(Duration.ofMillis(6));
+        aggregator.recordAllocationSample(4096);
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        ProfileAggregator.Snapshot snapshot = aggregator.snapshot();
+
+        ProfileAggregator.StatementSnapshot findById = snapshot.statements().get("com.trainer.name.mapper.TrainerMapper.findById");
+        assertThat(findById.executions()).isEqualTo(2);
+        assertThat(findById.rowsPerExecution()).isEqualTo(0.5);
+        assertThat(snapshot.gc().collections()).isEqualTo(2);
+        assertThat(snapshot.gc().pauseMillis()).isEqualTo(10.0);
+        assertThat(snapshot.heapAllocationBytesPerSecond()).isEqualTo(4096);
+    }
+
+    @Test
+    void リセットすると集計と割り当て量の計測期間をやり直すこと() {
+        aggregator.recordRequest("GET /trainers/{id}", Duration.ofMillis(1), 200, 1, 1, 1000);
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        aggregator.reset();
+        aggregator.recordRequest("GET /trainers/{id}", Duration.ofMillis(1), 200, 1, 1, 1000);
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        ProfileAggregator.Snapshot snapshot = aggregator.snapshot();
+        assertThat(snapshot.seconds()).isEqualTo(1.0);
+        assertThat(snapshot.endpoints().get("GET /trainers/{id}").requests()).isEqualTo(1);
+        assertThat(snapshot.endpoints().get("GET /trainers/{id}").allocationBytesPerSecond()).isEqualTo(1000);
+        assertThat(snapshot.gc().collections()).isZero();
+    }
+}
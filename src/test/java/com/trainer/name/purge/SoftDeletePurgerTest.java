@@ -0,0 +1,85 @@
+package com.trainer.name.purge;
+
+import com.trainer.name.admission.AdaptiveConcurrencyLimiter;
+import com.trainer.name.admission.AdmissionProperties;
+import com.trainer.name.admission.EndpointClass;
+import com.trainer.name.mapper.TrainerMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SoftDeletePurgerTest {
+    private final TrainerMapper trainerMapper = mock(TrainerMapper.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PurgeProperties properties = new PurgeProperties();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new AdmissionProperties());
+    private SoftDeletePurger purger;
+
+    @BeforeEach
+    void setUp() {
+        properties.setRetention(Duration.ofMinutes(5));
+        properties.setBatchSize(2);
+        properties.setMaxBatchesPerRun(10);
+        // テストでは休止しない
+        properties.setMaxDutyCycle(1.0);
+        properties.setMaxInflight(4);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<AdaptiveConcurrencyLimiter> limiterProvider = mock(ObjectProvider.class);
+        when(limiterProvider.getIfAvailable()).thenReturn(limiter);
+        purger = new SoftDeletePurger(trainerMapper, properties, limiterProvider, meterRegistry);
+    }
+
+    @Test
+    void 対象の行がなくなるまでバッチに分けて物理削除すること() {
+        when(trainerMapper.findPurgeableIds(300, 2))
+                .thenReturn(List.of(1, 2), List.of(3, 4), List.of(5));
+        when(trainerMapper.purge(anyList())).thenAnswer(invocation -> invocation.<List<Integer>>getArgument(0).size());
+
+        purger.purge();
+
+        verify(trainerMapper).purge(List.of(1, 2));
+        verify(trainerMapper).purge(List.of(3, 4));
+        verify(trainerMapper).purge(List.of(5));
+        // 最後のバッチが満たなかったので、それ以上探さない
+        verify(trainerMapper, times(3)).findPurgeableIds(300, 2);
+        assertThat(meterRegistry.get("trainer.purge.rows").counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void 一回の実行で処理するバッチの数に上限があること() {
+        properties.setMaxBatchesPerRun(2);
+        when(trainerMapper.findPurgeableIds(300, 2)).thenReturn(List.of(1, 2), List.of(3, 4), List.of(5, 6));
+        when(trainerMapper.purge(anyList())).thenReturn(2);
+
+        purger.purge();
+
+        verify(trainerMapper, times(2)).purge(anyList());
+    }
+
+    @Test
+    void リクエストを処理中の数が多い間は物理削除しないこと() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(EndpointClass.WRITE);
+        }
+
+        purger.purge();
+
+        verify(trainerMapper, never()).findPurgeableIds(anyLong(), anyInt());
+        assertThat(meterRegistry.get("trainer.purge.deferred").counter().count()).isEqualTo(1);
+    }
+}
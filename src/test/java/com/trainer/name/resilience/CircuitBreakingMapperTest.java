@@ -0,0 +1,103 @@
+package com.trainer.name.resilience;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.exception.DatabaseUnavailableException;
+import com.trainer.name.mapper.TrainerMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingMapperTest {
+    @Mock
+    TrainerMapper delegate;
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TrainerMapper trainerMapper;
+
+    @BeforeEach
+    void setUp() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.setFailureThreshold(2);
+        trainerMapper = CircuitBreakingMapper.wrap(TrainerMapper.class, delegate, new CircuitBreaker(properties),
+                new StaleReadCache(100, 10, Duration.ZERO), Counter.builder("rejected").register(meterRegistry),
+                Counter.builder("stale").register(meterRegistry));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static CannotGetJdbcConnectionException connectionFailure() {
+        return new CannotGetJdbcConnectionException("接続できません", new SQLTransientConnectionException("timeout"));
+    }
+
+    @Test
+    void 接続できないときは最後に読めた結果をWarningヘッダー付きで返すこと() {
+        Trainer trainer = new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe");
+        when(delegate.findById(1))
+                .thenReturn(Optional.of(trainer))
+                .thenThrow(connectionFailure());
+
+        assertThat(trainerMapper.findById(1)).contains(trainer);
+        assertThat(response.getHeader("Warning")).isNull();
+
+        assertThat(trainerMapper.findById(1)).contains(trainer);
+        assertThat(response.getHeader("Warning")).isEqualTo(CircuitBreakingMapper.STALE_WARNING);
+        assertThat(meterRegistry.counter("stale").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void 失敗が続いて開いた後はDBに問い合わせずにすぐ失敗すること() {
+        when(delegate.findByName("ゼイユ")).thenThrow(connectionFailure());
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> trainerMapper.findByName("ゼイユ")).isInstanceOf(DatabaseUnavailableException.class);
+        }
+        assertThatThrownBy(() -> trainerMapper.update(new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe")))
+                .isInstanceOf(DatabaseUnavailableException.class)
+                .satisfies(e -> assertThat(((DatabaseUnavailableException) e).getRetryAfter()).isPositive());
+
+        verify(delegate, times(2)).findByName("ゼイユ");
+        verify(delegate, times(0)).update(new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe"));
+        assertThat(meterRegistry.counter("rejected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void 業務上のエラーはそのまま投げてブレーカーを開かないこと() {
+        Trainer trainer = new Trainer(null, "ゼイユ", "Zeiyu498@merry.bluebe");
+        when(delegate.insertWithId(trainer)).thenThrow(new DuplicateKeyException("重複"));
+        when(delegate.findAll()).thenReturn(List.of());
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> trainerMapper.insertWithId(trainer)).isInstanceOf(DuplicateKeyException.class);
+        }
+
+        assertThat(trainerMapper.findAll()).isEmpty();
+    }
+}
@@ -1,28 +1,53 @@
 package com.trainer.name.service;
 
+import com.trainer.name.cache.TrainerCaches;
+import com.trainer.name.cache.TrainerDocumentCache;
+import com.trainer.name.count.TrainerCounter;
 import com.trainer.name.entity.Trainer;
+import com.trainer.name.entity.TrainerSummary;
+import com.trainer.name.event.TrainerChangedEvent;
 import com.trainer.name.exception.DuplicateEmailException;
 import com.trainer.name.exception.DuplicateNameException;
 import com.trainer.name.exception.TrainerNotFoundException;
+import com.trainer.name.id.TrainerIdAllocator;
+import com.trainer.name.index.TrainerExistenceFilter;
+import com.trainer.name.index.TrainerNameIndex;
 import com.trainer.name.mapper.TrainerMapper;
+import com.trainer.name.mapper.TrainerSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import static java.util.Optional.empty;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,12 +57,38 @@ class TrainerServiceTest {
     TrainerService trainerService;
     @Mock
     TrainerMapper trainerMapper;
+    @Mock
+    TrainerExistenceFilter existenceFilter;
+    @Mock
+    TrainerNameIndex nameIndex;
+    @Mock
+    TrainerDocumentCache documentCache;
+    @Mock
+    TrainerCaches trainerCaches;
+    @Mock
+    TrainerCounter trainerCounter;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    // 既定ではidの割り当てがなく、AUTO_INCREMENTで採番する
+    @Mock
+    ObjectProvider<TrainerIdAllocator> idAllocator;
     @Captor
     ArgumentCaptor<Trainer> trainerCaptor;
 
     private static final int EXISTING_USER_ID = 1;
     private static final int NON_EXISTING_USER_ID = 999;
 
+    @BeforeEach
+    void setUp() {
+        // 1件取得のキャッシュは常にミスし、渡された読み込みをそのまま呼ぶ
+        lenient().when(trainerCaches.trainerById(anyInt(), any())).thenAnswer(invocation -> invocation.<Callable<Trainer>>getArgument(1).call());
+        // Bloomフィルタは「存在するかもしれない」と答え、従来どおりDBに問い合わせる
+        lenient().when(existenceFilter.mightContainEmail(anyString())).thenReturn(true);
+        lenient().when(existenceFilter.mightContainName(anyString())).thenReturn(true);
+    }
+
     @Test
     void 存在するユーザーIDが提供された場合にユーザーを返す() throws TrainerNotFoundException {
         // モックの設定
@@ -64,6 +115,24 @@ class TrainerServiceTest {
         assertThat(thrown.getMessage(), equalTo(expectedMessage));
     }
 
+    @Test
+    void エンコード済みのJSONは1件取得のキャッシュを読み通して作られること() throws TrainerNotFoundException {
+        // モックの設定
+        Trainer cachedTrainer = new Trainer(EXISTING_USER_ID, "ゼイユ", "Zeiyu498@merry.bluebe");
+        when(trainerCaches.trainerById(eq(EXISTING_USER_ID), any())).thenReturn(cachedTrainer);
+        when(documentCache.get(eq(EXISTING_USER_ID), any())).thenAnswer(invocation -> {
+            Supplier<Trainer> loader = invocation.getArgument(1);
+            assertThat(loader.get(), equalTo(cachedTrainer));
+            return null;
+        });
+
+        // テスト対象メソッドの呼び出し
+        trainerService.findDocumentById(EXISTING_USER_ID);
+
+        // キャッシュにあればDBには問い合わせない
+        verify(trainerMapper, never()).findById(EXISTING_USER_ID);
+    }
+
     @Test
     void その頭文字から始まるユーザーが存在する場合にユーザーを返す() throws TrainerNotFoundException {
         // モックの設定
@@ -94,6 +163,21 @@ class TrainerServiceTest {
         assertThat(thrown.getMessage(), equalTo(expectedMessage));
     }
 
+    @Test
+    void 索引が構築済みの場合は入力候補をDBに問い合わせずに返す() {
+        // モックの設定
+        List<TrainerSummary> suggestions = List.of(new TrainerSummary(1, "ゼイユ"));
+        when(nameIndex.isReady()).thenReturn(true);
+        when(nameIndex.suggest("ゼ", 10, true)).thenReturn(suggestions);
+
+        // テスト対象メソッドの呼び出し
+        List<TrainerSummary> actual = trainerService.suggest("ゼ", 10, true);
+
+        // 索引の結果が返され、DBには問い合わせていないことを確認
+        assertThat(actual, equalTo(suggestions));
+        verify(trainerMapper, never()).findSummariesByNamePrefix("ゼ", 10, true);
+    }
+
     @Test
     void emailが使用されている場合に該当のユーザーを返す() throws TrainerNotFoundException {
         // モックの設定
@@ -198,14 +282,38 @@ class TrainerServiceTest {
         assertThat(actual, equalTo(allTrainers));
     }
 
+    @Test
+    void 名前で検索したユーザーのidと名前だけを返す() throws TrainerNotFoundException {
+        // モックの設定
+        List<TrainerSummary> summaries = List.of(new TrainerSummary(1, "ゼイユ"));
+        when(trainerMapper.findSummariesByNameContaining("ゼ")).thenReturn(summaries);
+
+        // テスト対象メソッドの呼び出し
+        List<TrainerSummary> actual = trainerService.findSummariesByNameStartingWith("ゼ");
+
+        // Trainerを読み込まずに返すことを確認
+        assertThat(actual, equalTo(summaries));
+        verify(trainerMapper, never()).findByNameStartingWith("ゼ");
+    }
+
+    @Test
+    void idと名前だけの一覧でユーザーが存在しない場合に例外をスローする() {
+        when(trainerMapper.findSummaries()).thenReturn(Collections.emptyList());
+
+        TrainerNotFoundException thrown = assertThrows(TrainerNotFoundException.class, () -> trainerService.findSummaries());
+
+        assertThat(thrown.getMessage(), equalTo("トレーナーはいません"));
+    }
+
     @Test
     void メールアドレスと名前が一意である場合新規トレーナーが正常に追加される() throws DuplicateEmailException, DuplicateNameException {
         // モックの設定
         String name = "新しいトレーナー";
         String email = "new_trainer@example.com";
-        Trainer expectedTrainer = new Trainer(null, name, email);
+        Trainer expectedTrainer = new Trainer(4, name, email);
         when(trainerMapper.countByEmail(email)).thenReturn(0);
         when(trainerMapper.countByName(name)).thenReturn(0);
+        when(trainerMapper.insert(new Trainer(null, name, email))).thenReturn(expectedTrainer);
 
         // テスト対象メソッドの呼び出し
         Trainer actual = trainerService.insert(name, email);
@@ -214,6 +322,62 @@ class TrainerServiceTest {
         assertEquals(expectedTrainer, actual);
     }
 
+    @Test
+    void idを割り当てる設定の場合は割り当てたidを指定して追加される() throws DuplicateEmailException, DuplicateNameException {
+        // モックの設定
+        String name = "新しいトレーナー";
+        String email = "new_trainer@example.com";
+        when(trainerMapper.countByEmail(email)).thenReturn(0);
+        when(trainerMapper.countByName(name)).thenReturn(0);
+        TrainerIdAllocator allocator = mock(TrainerIdAllocator.class);
+        when(allocator.nextId()).thenReturn(1001);
+        when(idAllocator.getIfAvailable()).thenReturn(allocator);
+
+        // テスト対象メソッドの呼び出し
+        Trainer actual = trainerService.insert(name, email);
+
+        // AUTO_INCREMENTを使わずに登録されることを確認
+        assertEquals(new Trainer(1001, name, email), actual);
+        verify(trainerMapper).insertWithId(new Trainer(1001, name, email));
+        verify(trainerMapper, never()).insert(any());
+        // idはINSERTのトランザクションを始める前に借りる
+        InOrder inOrder = inOrder(allocator, transactionManager);
+        inOrder.verify(allocator).nextId();
+        inOrder.verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void 追加すると件数のカウンターが増える() throws DuplicateEmailException, DuplicateNameException {
+        // モックの設定
+        String name = "新しいトレーナー";
+        String email = "new_trainer@example.com";
+        when(trainerMapper.insert(new Trainer(null, name, email))).thenReturn(new Trainer(4, name, email));
+
+        // テスト対象メソッドの呼び出し
+        trainerService.insert(name, email);
+
+        // INSERTと同じトランザクションで足し込まれることを確認
+        verify(trainerCounter).add(1);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void Bloomフィルタで存在しないと分かる場合はCOUNTクエリを発行しない() throws DuplicateEmailException, DuplicateNameException {
+        // モックの設定
+        String name = "新しいトレーナー";
+        String email = "new_trainer@example.com";
+        when(existenceFilter.mightContainEmail(email)).thenReturn(false);
+        when(existenceFilter.mightContainName(name)).thenReturn(false);
+
+        // テスト対象メソッドの呼び出し
+        trainerService.insert(name, email);
+
+        // COUNTクエリを発行せずに登録されることを確認
+        verify(trainerMapper, never()).countByEmail(email);
+        verify(trainerMapper, never()).countByName(name);
+        verify(trainerMapper).insert(new Trainer(null, name, email));
+    }
+
     @Test
     void 追加しようとしたメールアドレスが既に存在する場合にDuplicateEmailExceptionがスローされる() {
         // モックの設定
@@ -253,6 +417,8 @@ class TrainerServiceTest {
         // 更新されたトレーナーが正しく保存されていることを確認
         Trainer updatedTrainer = new Trainer(userId, newName, newEmail);
         verify(trainerMapper).update(updatedTrainer);
+        // キャッシュは全件ではなく、idと変更前・変更後のメールアドレスのキーだけを無効化する
+        verify(trainerCaches).evict(userId, List.of("existing_email@example.com", newEmail));
     }
 
     @Test
@@ -325,23 +491,117 @@ class TrainerServiceTest {
     void 既存のトレーナーが正常に削除される() throws TrainerNotFoundException {
         // モックの設定
         int userId = 1;
-        Trainer existingTrainer = new Trainer(userId, "既存の名前", "uku7895@instmail.uk.co.jp");
-        when(trainerMapper.findById(userId)).thenReturn(Optional.of(existingTrainer));
+        when(trainerMapper.delete(userId)).thenReturn(1);
+        when(trainerMapper.findEmailById(userId)).thenReturn(Optional.of("Zeiyu498@merry.bluebe"));
 
         // テスト対象メソッドの呼び出し
         trainerService.delete(userId);
 
-        // 削除されたトレーナーが正しく削除されていることを確認
+        // 削除前の行を読まずに、論理削除の1文だけで削除されることを確認
         verify(trainerMapper).delete(userId);
+        verify(trainerMapper, never()).findById(userId);
+        // 削除した行のメールアドレスのキーだけを無効化する
+        verify(trainerCaches).evict(userId, List.of("Zeiyu498@merry.bluebe"));
+        verify(eventPublisher).publishEvent(TrainerChangedEvent.deleted(userId));
+    }
+
+    @Test
+    void 削除すると件数のカウンターが減る() throws TrainerNotFoundException {
+        // モックの設定
+        int userId = 1;
+        when(trainerMapper.delete(userId)).thenReturn(1);
+        when(trainerMapper.findEmailById(userId)).thenReturn(Optional.of("Zeiyu498@merry.bluebe"));
+
+        // テスト対象メソッドの呼び出し
+        trainerService.delete(userId);
+
+        // 削除した行数だけ減らすことを確認
+        verify(trainerCounter).add(-1);
+    }
+
+    @Test
+    void メールアドレスを含む検索はユニークインデックスで1件を引いてから残りの条件で確かめる() {
+        // モックの設定
+        Trainer trainer = new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe");
+        when(trainerMapper.findByEmail("ZEIYU498@merry.bluebe")).thenReturn(List.of(trainer));
+
+        // テスト対象メソッドの呼び出し
+        List<Trainer> matched = trainerService.search(
+                new TrainerSearchCriteria("イ", "ゼ", "ZEIYU498@merry.bluebe", TrainerSearchCriteria.Sort.ID, false, null, null, 10));
+        List<Trainer> unmatched = trainerService.search(
+                new TrainerSearchCriteria("ザ", null, "ZEIYU498@merry.bluebe", TrainerSearchCriteria.Sort.ID, false, null, null, 10));
+
+        // 結果の確認（名前の条件で走査するクエリは発行しない）
+        assertEquals(List.of(trainer), matched);
+        assertEquals(List.of(), unmatched);
+        verify(trainerMapper, never()).search(any());
+    }
+
+    @Test
+    void メールアドレスで引いた後の名前の条件は照合順序に合わせて大文字小文字を区別しない() {
+        // モックの設定
+        Trainer trainer = new Trainer(2, "Élise", "elise@example.com");
+        when(trainerMapper.findByEmail("elise@example.com")).thenReturn(List.of(trainer));
+
+        // テスト対象メソッドの呼び出し（LIKEと同じく、大文字・小文字と記号の有無を区別しない）
+        List<Trainer> matched = trainerService.search(
+                new TrainerSearchCriteria("LIS", "eli", "elise@example.com", TrainerSearchCriteria.Sort.NAME, false, "ELISA", 1, 10));
+
+        // 結果の確認
+        assertEquals(List.of(trainer), matched);
+    }
+
+    @Test
+    void メールアドレスを含まない検索は全ての条件を1つのクエリで検索する() {
+        // モックの設定
+        TrainerSearchCriteria criteria = new TrainerSearchCriteria("イ", "ゼ", null, TrainerSearchCriteria.Sort.NAME, true, null, null, 10);
+        when(trainerMapper.search(criteria)).thenReturn(List.of());
+
+        // テスト対象メソッドの呼び出しと確認（該当なしは例外ではなく空のリスト）
+        assertEquals(List.of(), trainerService.search(criteria));
+        verify(trainerMapper, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void 絞り込まない件数はCOUNTクエリを発行せずにカウンターから返す() {
+        // モックの設定
+        when(trainerCounter.total()).thenReturn(3L);
+
+        // テスト対象メソッドの呼び出しと確認
+        assertEquals(3L, trainerService.count());
+        verify(trainerMapper, never()).countAll();
+    }
+
+    @Test
+    void 名前で絞り込んだ件数は使い回しの対象として数える() {
+        // モックの設定（キャッシュにないものとして数える）
+        when(trainerCounter.filtered(eq(TrainerCounter.Filter.NAME), eq("ゼ"), any()))
+                .thenAnswer(invocation -> invocation.<LongSupplier>getArgument(2).getAsLong());
+        when(trainerMapper.countByNameContaining("ゼ")).thenReturn(1L);
+
+        // テスト対象メソッドの呼び出しと確認
+        assertEquals(1L, trainerService.countByName("ゼ"));
+    }
+
+    @Test
+    void メールアドレスで絞り込んだ件数は正規化したメールアドレスで使い回す() {
+        // モックの設定
+        when(trainerCounter.filtered(eq(TrainerCounter.Filter.EMAIL), eq("zeiyu498@merry.bluebe"), any()))
+                .thenAnswer(invocation -> invocation.<LongSupplier>getArgument(2).getAsLong());
+        when(trainerMapper.countByEmail("Zeiyu498@merry.bluebe")).thenReturn(1);
+
+        // テスト対象メソッドの呼び出しと確認
+        assertEquals(1L, trainerService.countByEmail("Zeiyu498@merry.bluebe"));
     }
 
     @Test
     void 存在しないトレーナーを削除しようとしたときに例外を返すかどうか() {
         // モックの設定
         int userId = 999;
-        when(trainerMapper.findById(userId)).thenReturn(empty());
+        when(trainerMapper.delete(userId)).thenReturn(0);
 
         // テスト対象メソッドの呼び出しと例外の確認を同時に行う
         assertThrows(TrainerNotFoundException.class, () -> trainerService.delete(userId));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 }
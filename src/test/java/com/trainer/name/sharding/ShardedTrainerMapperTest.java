@@ -0,0 +1,218 @@
+package com.trainer.name.sharding;
+
+import com.trainer.name.entity.Trainer;
+import com.trainer.name.entity.TrainerSummary;
+import com.trainer.name.id.SegmentedIdAllocator;
+import com.trainer.name.mapper.ShardDirectoryMapper;
+import com.trainer.name.mapper.ShardMigrationMapper;
+import com.trainer.name.mapper.TrainerIdSequenceMapper;
+import com.trainer.name.mapper.TrainerMapper;
+import com.trainer.name.mapper.TrainerSearchCriteria;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// ディレクトリと2つのシャードを、それぞれ別のH2（MySQLモード）のDBとして用意する
+class ShardedTrainerMapperTest {
+    private static final int SHARDS = 2;
+
+    private final List<DataSource> shardDataSources = new ArrayList<>();
+    private ShardRouter router;
+    private ExecutorService executor;
+    private SegmentedIdAllocator idAllocator;
+    private ShardDirectoryMapper directoryMapper;
+    private ShardMigrationMapper migrationMapper;
+    private TrainerMapper trainerMapper;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        DataSource directory = h2("directory-" + suffix);
+        Flyway.configure().dataSource(directory).locations("classpath:db/migration/h2").load().migrate();
+
+        Configuration template = new Configuration();
+        template.setArgNameBasedConstructorAutoMapping(true);
+        Properties variables = new Properties();
+        variables.setProperty("trainerMapperCacheMaxBytes", "1048576");
+        variables.setProperty("trainerMapperCacheTtlSeconds", "60");
+        template.setVariables(variables);
+
+        List<TrainerMapper> shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            DataSource shard = h2("shard" + i + "-" + suffix);
+            ShardMappers.migrate(shard);
+            shardDataSources.add(shard);
+            shards.add(ShardMappers.create("shard-" + i, shard, template));
+        }
+
+        Configuration directoryConfiguration = new Configuration(new Environment("directory", new SpringManagedTransactionFactory(), directory));
+        directoryConfiguration.addMapper(ShardDirectoryMapper.class);
+        directoryConfiguration.addMapper(TrainerIdSequenceMapper.class);
+        directoryConfiguration.addMapper(ShardMigrationMapper.class);
+        directoryConfiguration.setArgNameBasedConstructorAutoMapping(true);
+        SqlSessionTemplate directorySession = new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(directoryConfiguration));
+        directoryMapper = directorySession.getMapper(ShardDirectoryMapper.class);
+        migrationMapper = directorySession.getMapper(ShardMigrationMapper.class);
+        idAllocator = new SegmentedIdAllocator(directorySession.getMapper(TrainerIdSequenceMapper.class),
+                new DataSourceTransactionManager(directory), 4, 0.5);
+
+        router = new ShardRouter(ShardingProperties.Strategy.HASH, List.of(0L, 0L));
+        executor = Executors.newFixedThreadPool(SHARDS);
+        trainerMapper = new ShardedTrainerMapper(shards, router, directoryMapper, idAllocator, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        idAllocator.close();
+    }
+
+    @Test
+    void 全シャードで一意なidが採番されidで決まるシャードに保存されること() {
+        List<Trainer> saved = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            saved.add(trainerMapper.insert(new Trainer(null, "トレーナー" + i, "trainer" + i + "@example.com")));
+        }
+
+        assertThat(saved).extracting(Trainer::id).doesNotHaveDuplicates();
+        for (Trainer trainer : saved) {
+            int shard = router.shardFor(trainer.id());
+            assertThat(countIn(shard, trainer.id())).isEqualTo(1);
+            assertThat(countIn(1 - shard, trainer.id())).isZero();
+            assertThat(trainerMapper.findById(trainer.id())).contains(trainer);
+        }
+        assertThat(trainerMapper.countAll()).isEqualTo(10);
+    }
+
+    @Test
+    void 別のシャードに入るトレーナーでもメールアドレスと名前の重複を拒否すること() {
+        Trainer saved = trainerMapper.insert(new Trainer(null, "ゼイユ", "Zeiyu498@merry.bluebe"));
+
+        assertThatThrownBy(() -> trainerMapper.insert(new Trainer(null, "スグリ", "zeiyu498@MERRY.bluebe")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThatThrownBy(() -> trainerMapper.insert(new Trainer(null, "ゼイユ", "other@merry.bluebe")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(trainerMapper.countAll()).isEqualTo(1);
+        assertThat(trainerMapper.findByEmail("ZEIYU498@merry.bluebe")).containsExactly(saved);
+        assertThat(trainerMapper.countByName("ゼイユ")).isEqualTo(1);
+    }
+
+    @Test
+    void 全シャードの結果をidの順にまとめてページングすること() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(trainerMapper.insert(new Trainer(null, "トレーナー" + i, "trainer" + i + "@example.com")).id());
+        }
+
+        List<Trainer> first = trainerMapper.findPage(0, 3);
+        List<Trainer> second = trainerMapper.findPage(first.get(2).id(), 3);
+        List<Trainer> last = trainerMapper.findPage(second.get(2).id(), 3);
+
+        assertThat(first).extracting(Trainer::id).containsExactlyElementsOf(ids.subList(0, 3));
+        assertThat(second).extracting(Trainer::id).containsExactlyElementsOf(ids.subList(3, 6));
+        assertThat(last).extracting(Trainer::id).containsExactly(ids.get(6));
+        assertThat(trainerMapper.findByNameStartingWith("トレーナー")).extracting(Trainer::id).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void 組み合わせた検索は全シャードの結果を指定した順に並べてページングすること() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(trainerMapper.insert(new Trainer(null, "トレーナー" + i, "trainer" + i + "@example.com")).id());
+        }
+        trainerMapper.insert(new Trainer(null, "ゼイユ", "Zeiyu498@merry.bluebe"));
+
+        List<Trainer> first = trainerMapper.search(new TrainerSearchCriteria("ナー", "トレ", null, TrainerSearchCriteria.Sort.ID, true, null, null, 3));
+        List<Trainer> rest = trainerMapper.search(new TrainerSearchCriteria("ナー", "トレ", null, TrainerSearchCriteria.Sort.ID, true, null, first.get(2).id(), 3));
+
+        assertThat(first).extracting(Trainer::id).containsExactly(ids.get(4), ids.get(3), ids.get(2));
+        assertThat(rest).extracting(Trainer::id).containsExactly(ids.get(1), ids.get(0));
+    }
+
+    @Test
+    void 名前順のまとめはシャードと同じく大文字と小文字を区別しない順序で並べること() {
+        Trainer upper = trainerMapper.insert(new Trainer(null, "AC", "ac@example.com"));
+        Trainer lower = trainerMapper.insert(new Trainer(null, "ab", "ab@example.com"));
+
+        assertThat(trainerMapper.findSummariesByNamePrefix("", 10, false))
+                .containsExactly(new TrainerSummary(lower.id(), "ab"), new TrainerSummary(upper.id(), "AC"));
+    }
+
+    @Test
+    void シャーディング前の行を同じidのまま移し再実行しても重複させないこと() {
+        // ディレクトリのDBにはV1で3件のトレーナーが入っている
+        ShardMigrationBackfill migration = new ShardMigrationBackfill(migrationMapper, directoryMapper, trainerMapper, null);
+
+        assertThat(migration.processRange(0, 1000)).isEqualTo(3);
+        assertThat(migration.processRange(0, 1000)).isZero();
+
+        assertThat(trainerMapper.countAll()).isEqualTo(3);
+        assertThat(trainerMapper.findById(1)).contains(new Trainer(1, "ゼイユ", "Zeiyu498@merry.bluebe"));
+        assertThat(countIn(router.shardFor(1), 1)).isEqualTo(1);
+        assertThat(trainerMapper.countByEmail("ZEIYU498@merry.bluebe")).isEqualTo(1);
+        // 移した後に採番されるidは元の行と重ならない
+        assertThat(trainerMapper.insert(new Trainer(null, "スグリ", "kieran@example.com")).id()).isGreaterThan(3);
+    }
+
+    @Test
+    void 更新と削除で使わなくなったメールアドレスと名前を再び使えること() {
+        Trainer saved = trainerMapper.insert(new Trainer(null, "サザレ", "Sazare318@heisei.bluebe"));
+
+        trainerMapper.update(new Trainer(saved.id(), "ブライア", "Briar8931@usagica.bluebe"));
+        assertThat(trainerMapper.countByEmail("Sazare318@heisei.bluebe")).isZero();
+        assertThat(trainerMapper.countByName("サザレ")).isZero();
+        assertThat(trainerMapper.findByEmail("Briar8931@usagica.bluebe"))
+                .containsExactly(new Trainer(saved.id(), "ブライア", "Briar8931@usagica.bluebe"));
+
+        trainerMapper.delete(saved.id());
+        assertThat(trainerMapper.findById(saved.id())).isEmpty();
+
+        Trainer reused = trainerMapper.insert(new Trainer(null, "ブライア", "Briar8931@usagica.bluebe"));
+        assertThat(reused.id()).isGreaterThan(saved.id());
+    }
+
+    @Test
+    void 論理削除した行だけをそれぞれのシャードから物理削除すること() {
+        Trainer deleted = trainerMapper.insert(new Trainer(null, "ゼイユ", "Zeiyu498@merry.bluebe"));
+        Trainer live = trainerMapper.insert(new Trainer(null, "サザレ", "Sazare318@heisei.bluebe"));
+        trainerMapper.delete(deleted.id());
+        // 論理削除した行は物理削除されるまでシャードに残る
+        assertThat(countIn(router.shardFor(deleted.id()), deleted.id())).isEqualTo(1);
+
+        assertThat(trainerMapper.purge(List.of(deleted.id(), live.id()))).isEqualTo(1);
+
+        assertThat(countIn(router.shardFor(deleted.id()), deleted.id())).isZero();
+        assertThat(countIn(router.shardFor(live.id()), live.id())).isEqualTo(1);
+    }
+
+    private int countIn(int shard, int id) {
+        return new JdbcTemplate(shardDataSources.get(shard))
+                .queryForObject("SELECT COUNT(*) FROM trainers WHERE id = ?", Integer.class, id);
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}